@@ -0,0 +1,121 @@
+package com.manilvit;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the end-to-end latency of plain, gzip and Zstandard uploads: download, parse (with decompression), MST
+ * and JSON result. The download is simulated by a stream limited to {@code bandwidthMBps} megabytes per second,
+ * roughly what one S3 GET reaches from Lambda; 0 reads at memory speed and shows the decompression cost alone.
+ * The setup prints the size of each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompressionBenchmark {
+
+    private static final String FILE_PATH = "s3://bucket/network.txt";
+
+    @Param({"plain", "gzip", "zstd"})
+    private String format;
+
+    @Param({"100000", "1000000"})
+    private int edgeCount;
+
+    @Param({"0", "100"})
+    private int bandwidthMBps;
+
+    private byte[] upload;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] text = GraphGenerator.toText(GraphGenerator.generate("sparse", edgeCount, 1));
+        upload = switch (format) {
+            case "plain" -> text;
+            case "gzip" -> compress(new ByteArrayOutputStream(), text, true);
+            case "zstd" -> compress(new ByteArrayOutputStream(), text, false);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        System.out.printf("%n%s: %,d bytes (plain %,d bytes, %.1fx)%n", format, upload.length, text.length,
+                (double) text.length / upload.length);
+    }
+
+    private static byte[] compress(ByteArrayOutputStream compressed, byte[] text, boolean gzip) throws IOException {
+        try (OutputStream output = gzip ? new GZIPOutputStream(compressed, 1 << 16) : new ZstdOutputStream(compressed)) {
+            output.write(text);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * What the handler does with an upload on the streaming path.
+     */
+    @Benchmark
+    public byte[] endToEnd() throws IOException {
+        InputStream download = new ByteArrayInputStream(upload);
+        if (bandwidthMBps > 0) {
+            download = new ThrottledInputStream(download, bandwidthMBps * 1_000_000L);
+        }
+        EdgeStore parsed = NetworkObjectParser.parseEdges(download, upload.length);
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(parsed);
+        MstEngine engine = MstEngine.select(null, parsed.size(), nodeIds.nodeCount(), MstEngine.DEFAULT_PARALLEL_EDGE_THRESHOLD);
+        EdgeStore tree = nodeIds.restore(engine.findMinimumSpanningTree(parsed, nodeIds.nodeCount()));
+        return MstJsonWriter.toBytes(tree, FILE_PATH);
+    }
+
+    /**
+     * Delivers bytes no faster than a fixed rate, like a network transfer.
+     */
+    private static final class ThrottledInputStream extends FilterInputStream {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        private long delivered;
+
+        ThrottledInputStream(InputStream input, long bytesPerSecond) {
+            super(input);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, Math.min(length, 1 << 16));
+            if (read > 0) {
+                delivered += read;
+                long due = start + delivered * 1_000_000_000L / bytesPerSecond;
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.manilvit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what removing self-loops and parallel edges with {@link EdgeReducer} costs on a graph without any
+ * ({@code sparse}) and what it saves each MST engine on one where most edges are parallel ({@code multi}).
+ * The setup prints how many edges the reduction removes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EdgeReductionBenchmark {
+
+    @Param({"sparse", "multi"})
+    private String shape;
+
+    @Param({"KRUSKAL", "FILTER_KRUSKAL", "BORUVKA", "PRIM"})
+    private MstEngine engine;
+
+    @Param({"1000000"})
+    private int edgeCount;
+
+    private EdgeStore edges;
+    private int numNodes;
+
+    @Setup
+    public void setUp() {
+        edges = GraphGenerator.generate(shape, edgeCount, 1);
+        numNodes = edges.maxNodeId() + 1;
+        PhaseMetrics metrics = new PhaseMetrics();
+        EdgeReducer.reduce(edges, metrics);
+        System.out.printf("%n%s: %,d of %,d edges removed%n", shape, metrics.get("RemovedEdges").longValue(), edgeCount);
+    }
+
+    @Benchmark
+    public EdgeStore solve() {
+        return engine.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore reduceThenSolve() {
+        return engine.findMinimumSpanningTree(EdgeReducer.reduce(edges), numNodes);
+    }
+}
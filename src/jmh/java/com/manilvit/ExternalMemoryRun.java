@@ -0,0 +1,87 @@
+package com.manilvit;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Checks the out-of-core MST on a file far larger than the heap, for example:
+ * <pre>
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.jvmArgs=-Xmx320m -Djmh.main=com.manilvit.ExternalMemoryRun \
+ *       -Djmh.args="/tmp/network-large.txt 20000000"
+ * </pre>
+ * The file (about 450 MB for 2e7 edges, with a quarter as many nodes) is generated on the first run and reused afterwards.
+ */
+public final class ExternalMemoryRun {
+
+    private ExternalMemoryRun() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ExternalMemoryRun <file> <edge count> [run edges]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        long edgeCount = Long.parseLong(args[1]);
+        int runEdges = args.length > 2 ? Integer.parseInt(args[2]) : ExternalKruskalAlgorithm.defaultRunEdges();
+
+        if (!Files.exists(file)) {
+            System.out.println("Generating " + edgeCount + " edges into " + file);
+            generate(file, edgeCount);
+        }
+
+        long size = Files.size(file);
+        long start = System.nanoTime();
+        PhaseMetrics metrics = new PhaseMetrics();
+        EdgeStore mst;
+        try (InputStream input = Files.newInputStream(file)) {
+            mst = ExternalKruskalAlgorithm.findMinimumSpanningTree(input, size, file.toAbsolutePath().getParent(), runEdges, metrics);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("File: %,d bytes, max heap: %,d bytes, peak heap (sum of pools): %,d bytes%n",
+                size, Runtime.getRuntime().maxMemory(), peakHeap);
+        System.out.printf("MST: %,d edges, total cost %,d, %.1f s%n", mst.size(), mst.totalCost(), elapsed / 1e9);
+        System.out.println(metrics.toEmf("ExternalMemoryRun", System.currentTimeMillis()));
+    }
+
+    /**
+     * Writes a connected sparse network with about four edges per node, streaming so that any size fits.
+     */
+    private static void generate(Path file, long edgeCount) throws IOException {
+        if (edgeCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The header holds at most " + Integer.MAX_VALUE + " connections.");
+        }
+        int numNodes = (int) Math.max(2, edgeCount / 4);
+        Random random = new Random(1);
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            StringBuilder line = new StringBuilder(1 << 16);
+            line.append(edgeCount).append('\n');
+            for (long i = 0; i < edgeCount; i++) {
+                int node1 = i + 1 < numNodes ? (int) i : random.nextInt(numNodes);
+                int node2 = i + 1 < numNodes ? (int) i + 1 : random.nextInt(numNodes);
+                line.append(node1).append(' ').append(node2).append(' ').append(random.nextInt(1_000_000)).append('\n');
+                if (line.length() > 60_000) {
+                    output.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+                    line.setLength(0);
+                }
+            }
+            output.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.manilvit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates synthetic networks for the benchmarks. Every shape is reproducible from its seed.
+ * <ul>
+ *   <li>{@code sparse}: about four edges per node, with a random spanning path so the graph is connected.</li>
+ *   <li>{@code dense}: about a quarter of all possible node pairs.</li>
+ *   <li>{@code grid}: a square lattice with links to the right and down neighbours, like a street map.</li>
+ *   <li>{@code skewed}: the sparse topology with heavy-tailed costs, so most links share a few small costs.</li>
+ *   <li>{@code multi}: the sparse topology with every link listed about four times at different costs, in random
+ *       order and direction, and one edge in a hundred a self-loop.</li>
+ * </ul>
+ */
+final class GraphGenerator {
+
+    static final String[] SHAPES = {"sparse", "dense", "grid", "skewed", "multi"};
+
+    private static final int MAX_COST = 1_000_000;
+
+    private GraphGenerator() {
+    }
+
+    /**
+     * Generates a network.
+     *
+     * @param shape One of {@link #SHAPES}.
+     * @param edgeCount The number of edges to generate.
+     * @param seed The seed of the random costs and endpoints.
+     * @return The edges; node identifiers are dense, so {@code maxNodeId() + 1} is the node count.
+     */
+    static EdgeStore generate(String shape, int edgeCount, long seed) {
+        Random random = new Random(seed);
+        EdgeStore edges = new EdgeStore(edgeCount);
+        switch (shape) {
+            case "sparse" -> randomGraph(edges, edgeCount, Math.max(2, edgeCount / 4), random, false);
+            case "dense" -> randomGraph(edges, edgeCount, Math.max(2, (int) Math.sqrt(edgeCount * 8.0)), random, false); // E ~ V^2 / 8
+            case "skewed" -> randomGraph(edges, edgeCount, Math.max(2, edgeCount / 4), random, true);
+            case "grid" -> grid(edges, edgeCount, random);
+            case "multi" -> multiGraph(edges, edgeCount, random);
+            default -> throw new IllegalArgumentException("Unknown graph shape: " + shape);
+        }
+        return edges;
+    }
+
+    /**
+     * Formats a network as a text file the parser accepts: the connection count, then one connection per line.
+     *
+     * @param edges The edges to format.
+     * @return The content of the file.
+     */
+    static byte[] toText(EdgeStore edges) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(edges.size() * 20 + 16);
+        StringBuilder line = new StringBuilder(64);
+        line.append(edges.size()).append('\n');
+        for (int i = 0; i < edges.size(); i++) {
+            line.append(edges.getNode1(i)).append(' ').append(edges.getNode2(i)).append(' ').append(edges.getCost(i)).append('\n');
+            if (line.length() > 32_000) {
+                output.writeBytes(line.toString().getBytes(StandardCharsets.US_ASCII));
+                line.setLength(0);
+            }
+        }
+        output.writeBytes(line.toString().getBytes(StandardCharsets.US_ASCII));
+        return output.toByteArray();
+    }
+
+    private static void randomGraph(EdgeStore edges, int edgeCount, int numNodes, Random random, boolean skewedCosts) {
+        // A random spanning path first, so the graph is connected
+        for (int i = 1; i < numNodes && edges.size() < edgeCount; i++) {
+            edges.add(i - 1, i, cost(random, skewedCosts));
+        }
+        while (edges.size() < edgeCount) {
+            edges.add(random.nextInt(numNodes), random.nextInt(numNodes), cost(random, skewedCosts));
+        }
+    }
+
+    private static void multiGraph(EdgeStore edges, int edgeCount, Random random) {
+        EdgeStore links = new EdgeStore(Math.max(1, edgeCount / 4));
+        randomGraph(links, Math.max(1, edgeCount / 4), Math.max(2, edgeCount / 16), random, false);
+        while (edges.size() < edgeCount) {
+            int link = random.nextInt(links.size());
+            if (random.nextInt(100) == 0) {
+                edges.add(links.getNode1(link), links.getNode1(link), cost(random, false));
+            } else if (random.nextBoolean()) {
+                edges.add(links.getNode1(link), links.getNode2(link), cost(random, false));
+            } else {
+                edges.add(links.getNode2(link), links.getNode1(link), cost(random, false));
+            }
+        }
+    }
+
+    private static void grid(EdgeStore edges, int edgeCount, Random random) {
+        // A side of s nodes has 2 * s * (s - 1) links
+        int side = 2;
+        while (2L * side * (side - 1) < edgeCount) {
+            side++;
+        }
+        for (int row = 0; row < side && edges.size() < edgeCount; row++) {
+            for (int column = 0; column < side && edges.size() < edgeCount; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) {
+                    edges.add(node, node + 1, random.nextInt(MAX_COST));
+                }
+                if (row + 1 < side && edges.size() < edgeCount) {
+                    edges.add(node, node + side, random.nextInt(MAX_COST));
+                }
+            }
+        }
+    }
+
+    private static int cost(Random random, boolean skewed) {
+        if (!skewed) {
+            return random.nextInt(MAX_COST);
+        }
+        // Pareto-like: about two thirds of the costs are below 10, and only a few reach the upper end of the range
+        double u = random.nextDouble();
+        return (int) Math.min(MAX_COST, 1 / ((1 - u) * (1 - u)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.manilvit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the MST engines on generated graphs of different shapes with the same number of edges.
+ * See {@link GraphGenerator} for the shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MstEngineBenchmark {
+
+    @Param({"sparse", "dense", "grid", "skewed"})
+    private String shape;
+
+    @Param({"1000000"})
+    private int edgeCount;
+
+    private EdgeStore edges;
+    private List<NetworkConnection> connections;
+    private int numNodes;
+
+    @Setup
+    public void setUp() {
+        edges = GraphGenerator.generate(shape, edgeCount, 1);
+        numNodes = edges.maxNodeId() + 1;
+        connections = edges.toConnections();
+    }
+
+    /**
+     * The original entry point: boxed connections sorted with a comparator (now an adapter over the EdgeStore path).
+     */
+    @Benchmark
+    public List<NetworkConnection> kruskalList() {
+        return KruskalAlgorithm.findMinimumSpanningTree(connections, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore kruskal() {
+        return KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore filterKruskal() {
+        return FilterKruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore boruvka() {
+        return BoruvkaAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore prim() {
+        return PrimAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+}
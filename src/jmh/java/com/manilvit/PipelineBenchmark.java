@@ -0,0 +1,127 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of the handler on synthetic networks: parsing, the MST and the JSON result, and all of them
+ * together. Run it with {@code -prof gc} to get {@code gc.alloc.rate.norm}, the bytes allocated per operation.
+ * <p>
+ * The largest sizes need a few gigabytes of heap for the text and boxed inputs kept for comparison; narrow the run
+ * with for example {@code -p edgeCount=100000 -p shape=grid}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PipelineBenchmark {
+
+    private static final String FILE_PATH = "s3://bucket/network.txt";
+
+    @Param({"sparse", "dense", "grid", "skewed"})
+    private String shape;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int edgeCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] file;
+    private String fileText;
+    private EdgeStore edges;
+    private List<NetworkConnection> connections;
+    private int numNodes;
+    private EdgeStore mst;
+
+    @Setup
+    public void setUp() {
+        edges = GraphGenerator.generate(shape, edgeCount, 1);
+        numNodes = edges.maxNodeId() + 1;
+        connections = edges.toConnections();
+        file = GraphGenerator.toText(edges);
+        fileText = new String(file, StandardCharsets.US_ASCII);
+        mst = KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    /**
+     * The original parser: text lines split into boxed connections.
+     */
+    @Benchmark
+    public List<NetworkConnection> parse() throws IOException {
+        return NetworkObjectParser.parse(fileText);
+    }
+
+    @Benchmark
+    public EdgeStore parseEdges() throws IOException {
+        return NetworkObjectParser.parseEdges(file);
+    }
+
+    /**
+     * The original MST entry point on boxed connections.
+     */
+    @Benchmark
+    public List<NetworkConnection> kruskal() {
+        return KruskalAlgorithm.findMinimumSpanningTree(connections, numNodes);
+    }
+
+    @Benchmark
+    public EdgeStore kruskalEdgeStore() {
+        return KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+    }
+
+    /**
+     * The original result serialization: one map per edge, written by Jackson.
+     */
+    @Benchmark
+    public String serializeMaps() throws IOException {
+        List<Map<String, Integer>> formattedConnections = new ArrayList<>(mst.size());
+        for (int i = 0; i < mst.size(); i++) {
+            formattedConnections.add(Map.of(
+                    "from", mst.getNode1(i),
+                    "to", mst.getNode2(i),
+                    "cost", mst.getCost(i)
+            ));
+        }
+        return objectMapper.writeValueAsString(Map.of(
+                "total_cost", mst.totalCost(),
+                "connections", formattedConnections,
+                "s3_file_path", FILE_PATH
+        ));
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return MstJsonWriter.toBytes(mst, FILE_PATH);
+    }
+
+    /**
+     * What the handler does with a downloaded file: parse, compact, solve and serialize.
+     */
+    @Benchmark
+    public byte[] endToEnd() throws IOException {
+        EdgeStore parsed = NetworkObjectParser.parseEdges(file);
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(parsed);
+        MstEngine engine = MstEngine.select(null, parsed.size(), nodeIds.nodeCount(), MstEngine.DEFAULT_PARALLEL_EDGE_THRESHOLD);
+        EdgeStore tree = nodeIds.restore(engine.findMinimumSpanningTree(parsed, nodeIds.nodeCount()));
+        return MstJsonWriter.toBytes(tree, FILE_PATH);
+    }
+}
@@ -0,0 +1,57 @@
+package com.manilvit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time-to-first-result: one run of parse, MST and serialization in a fresh JVM, as on a Lambda cold start.
+ * Each fork measures a single call, so nothing is JIT-compiled beforehand. {@code primed} runs
+ * {@link PipelinePrimer#prime} first, as SnapStart does before the snapshot, to show what priming saves.
+ * The AWS clients are not included, since they need credentials and a network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"false", "true"})
+    private boolean primed;
+
+    @Param({"100000"})
+    private int edgeCount;
+
+    private byte[] file;
+
+    @Setup
+    public void setUp() throws IOException {
+        // A different seed than the priming network, so the measured run cannot reuse anything but compiled code
+        file = PipelinePrimer.syntheticNetwork(edgeCount, 42);
+        if (primed) {
+            PipelinePrimer.prime(20);
+        }
+    }
+
+    @Benchmark
+    public byte[] firstResult() throws IOException {
+        EdgeStore edges = NetworkObjectParser.parseEdges(file);
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(edges);
+        MstEngine engine = MstEngine.select(null, edges.size(), nodeIds.nodeCount(), MstEngine.DEFAULT_PARALLEL_EDGE_THRESHOLD);
+        EdgeStore mst = nodeIds.restore(engine.findMinimumSpanningTree(edges, nodeIds.nodeCount()));
+        return MstJsonWriter.toBytes(mst, "s3://bucket/network.txt");
+    }
+}
@@ -0,0 +1,126 @@
+package com.manilvit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the sequential {@link KruskalAlgorithm.UnionFind} with {@link ConcurrentUnionFind}, on one thread and on
+ * the ForkJoin common pool. The {@code union} benchmarks link every edge of a graph in cost order, as Kruskal does.
+ * The {@code filter} benchmarks check every edge of the heavier half against the sets formed by the lighter half,
+ * as Filter-Kruskal and Borůvka do to discard cycle-forming edges. The parallel variants show how the concurrent
+ * structure scales with the vCPUs of the function; on one vCPU they only show its overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnionFindBenchmark {
+
+    @Param({"sparse", "dense"})
+    private String shape;
+
+    @Param({"1000000"})
+    private int edgeCount;
+
+    private int numNodes;
+    private int[] node1;
+    private int[] node2;
+    private KruskalAlgorithm.UnionFind lightSequential;
+    private ConcurrentUnionFind lightConcurrent;
+
+    @Setup
+    public void setUp() {
+        EdgeStore edges = GraphGenerator.generate(shape, edgeCount, 1);
+        numNodes = edges.maxNodeId() + 1;
+        int[] order = RadixSort.sortedOrder(edges.costs(), edges.size());
+        node1 = new int[order.length];
+        node2 = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            node1[i] = edges.getNode1(order[i]);
+            node2[i] = edges.getNode2(order[i]);
+        }
+
+        lightSequential = new KruskalAlgorithm.UnionFind(numNodes);
+        lightConcurrent = new ConcurrentUnionFind(numNodes);
+        for (int i = 0; i < node1.length / 2; i++) {
+            lightSequential.union(node1[i], node2[i]);
+            lightConcurrent.union(node1[i], node2[i]);
+        }
+    }
+
+    @Benchmark
+    public int unionSequential() {
+        KruskalAlgorithm.UnionFind uf = new KruskalAlgorithm.UnionFind(numNodes);
+        int merges = 0;
+        for (int i = 0; i < node1.length; i++) {
+            if (uf.find(node1[i]) != uf.find(node2[i])) {
+                uf.union(node1[i], node2[i]);
+                merges++;
+            }
+        }
+        return merges;
+    }
+
+    @Benchmark
+    public int unionConcurrent() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(numNodes);
+        int merges = 0;
+        for (int i = 0; i < node1.length; i++) {
+            if (uf.union(node1[i], node2[i])) {
+                merges++;
+            }
+        }
+        return merges;
+    }
+
+    /**
+     * Links every edge on the common pool. The sets match the sequential run; which edges merged them does not.
+     */
+    @Benchmark
+    public long unionParallel() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(numNodes);
+        return IntStream.range(0, node1.length).parallel().filter(i -> uf.union(node1[i], node2[i])).count();
+    }
+
+    @Benchmark
+    public int filterSequential() {
+        int kept = 0;
+        for (int i = node1.length / 2; i < node1.length; i++) {
+            if (lightSequential.find(node1[i]) != lightSequential.find(node2[i])) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    @Benchmark
+    public int filterConcurrent() {
+        int kept = 0;
+        for (int i = node1.length / 2; i < node1.length; i++) {
+            if (!lightConcurrent.sameSet(node1[i], node2[i])) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    @Benchmark
+    public long filterParallel() {
+        return IntStream.range(node1.length / 2, node1.length).parallel()
+                .filter(i -> !lightConcurrent.sameSet(node1[i], node2[i])).count();
+    }
+}
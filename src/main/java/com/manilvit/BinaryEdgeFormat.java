@@ -0,0 +1,335 @@
+package com.manilvit;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A compact binary alternative to the whitespace-separated text format.
+ * <p>
+ * Layout (all multi-byte integers little-endian):
+ * <pre>
+ *   magic     4 bytes  "NOBG"
+ *   version   1 byte   1
+ *   encoding  1 byte   0 = fixed-width int32 triples, 1 = zigzag varint triples
+ *   reserved  2 bytes  0
+ *   count     int32    number of edges
+ *   edges     count triples of (node1, node2, cost)
+ * </pre>
+ * The magic cannot start a valid text file, whose first line is a decimal number, so the two formats can be
+ * told apart from the first four bytes. Reading binary input skips number parsing entirely.
+ */
+public final class BinaryEdgeFormat {
+
+    /**
+     * How the edge triples are encoded.
+     */
+    public enum Encoding {
+        /**
+         * Each value is a 4-byte little-endian int; 12 bytes per edge, read with absolute int loads.
+         */
+        FIXED,
+
+        /**
+         * Each value is a zigzag-encoded varint; small identifiers and costs take one or two bytes.
+         */
+        VARINT
+    }
+
+    private static final byte[] MAGIC = {'N', 'O', 'B', 'G'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int FIXED_EDGE_SIZE = 12;
+    private static final int MIN_VARINT_EDGE_SIZE = 3;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private BinaryEdgeFormat() {
+    }
+
+    /**
+     * Checks whether the remaining bytes of a buffer start with the binary magic. The buffer's position is not changed.
+     *
+     * @param buffer The buffer to inspect.
+     * @return {@code true} if the buffer holds binary edge data.
+     */
+    public static boolean hasMagic(ByteBuffer buffer) {
+        return hasMagic(buffer, buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Checks whether the first bytes of an array start with the binary magic.
+     *
+     * @param bytes The bytes to inspect.
+     * @param length The number of valid bytes in the array.
+     * @return {@code true} if the bytes hold binary edge data.
+     */
+    static boolean hasMagic(byte[] bytes, int length) {
+        return hasMagic(ByteBuffer.wrap(bytes, 0, length), 0, length);
+    }
+
+    /**
+     * Gets the number of leading bytes needed to tell the binary format from text.
+     *
+     * @return The length of the magic.
+     */
+    static int magicLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * Writes edges in the binary format.
+     *
+     * @param edges The edges to write.
+     * @param output The stream to write to; it is not closed.
+     * @param encoding How to encode the triples.
+     * @throws IOException If writing fails.
+     */
+    public static void write(EdgeStore edges, OutputStream output, Encoding encoding) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).put(VERSION).put((byte) encoding.ordinal()).putShort((short) 0).putInt(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            if (buffer.remaining() < FIXED_EDGE_SIZE + 3) {
+                output.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            if (encoding == Encoding.FIXED) {
+                buffer.putInt(edges.getNode1(i)).putInt(edges.getNode2(i)).putInt(edges.getCost(i));
+            } else {
+                putVarint(buffer, edges.getNode1(i));
+                putVarint(buffer, edges.getNode2(i));
+                putVarint(buffer, edges.getCost(i));
+            }
+        }
+        output.write(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * Reads binary edge data from the remaining bytes of a buffer without copying it first.
+     * With a memory-mapped buffer the file is decoded straight from the page cache. The buffer's position is not changed.
+     *
+     * @param buffer The buffer holding the binary data, starting with the magic.
+     * @return An {@link EdgeStore} holding the edges in file order.
+     * @throws IOException If the data is truncated, malformed, or followed by extra bytes.
+     */
+    public static EdgeStore read(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        Encoding encoding = readHeader(data);
+        int count = data.getInt(8);
+        long available = data.limit() - HEADER_SIZE;
+        checkCount(count, available, encoding);
+
+        int[] node1 = new int[count];
+        int[] node2 = new int[count];
+        int[] cost = new int[count];
+        int pos = HEADER_SIZE;
+        if (encoding == Encoding.FIXED) {
+            for (int i = 0; i < count; i++, pos += FIXED_EDGE_SIZE) {
+                node1[i] = data.getInt(pos);
+                node2[i] = data.getInt(pos + 4);
+                cost[i] = data.getInt(pos + 8);
+            }
+        } else {
+            int limit = data.limit();
+            for (int i = 0; i < count; i++) {
+                // Each iteration decodes one varint: node1, node2, then cost
+                for (int field = 0; field < 3; field++) {
+                    int result = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        if (pos == limit) {
+                            throw new EOFException("Unexpected end of binary edge data after " + i + " of " + count + " edges.");
+                        }
+                        if (shift > 28) {
+                            throw new IOException("Malformed varint at byte " + pos + ".");
+                        }
+                        b = data.get(pos++);
+                        result |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    int value = (result >>> 1) ^ -(result & 1);
+                    switch (field) {
+                        case 0 -> node1[i] = value;
+                        case 1 -> node2[i] = value;
+                        default -> cost[i] = value;
+                    }
+                }
+            }
+        }
+        if (pos != data.limit()) {
+            throw new IOException("Unexpected trailing bytes after " + count + " edges.");
+        }
+        return new EdgeStore(node1, node2, cost, count);
+    }
+
+    /**
+     * Reads binary edge data from a stream through a small read buffer.
+     *
+     * @param input The stream positioned at the magic; it is not closed.
+     * @param expectedBytes The length of the stream if known, or -1.
+     * @return An {@link EdgeStore} holding the edges in file order.
+     * @throws IOException If reading fails, or the data is truncated, malformed, or followed by extra bytes.
+     */
+    public static EdgeStore read(InputStream input, long expectedBytes) throws IOException {
+        EdgeStore[] edges = {new EdgeStore()};
+        readBatches(input, expectedBytes, Integer.MAX_VALUE, batch -> edges[0] = batch);
+        return edges[0];
+    }
+
+    /**
+     * Reads binary edge data from a stream like {@link #read(InputStream, long)}, but hands the edges over in batches
+     * as they are decoded, so that no more than one batch is held at a time. The end of the data is checked once the
+     * last batch has been handed over.
+     *
+     * @param input The stream positioned at the magic; it is not closed.
+     * @param expectedBytes The length of the stream if known, or -1.
+     * @param batchSize The number of edges per batch; only the last batch may be smaller.
+     * @param consumer Receives the batches in file order; it is not called for a file without edges.
+     * @return The number of edges read.
+     * @throws IOException If reading fails, the data is truncated, malformed, or followed by extra bytes, or the
+     *                     consumer fails.
+     */
+    public static long readBatches(InputStream input, long expectedBytes, int batchSize,
+                                   NetworkObjectParser.EdgeBatchConsumer consumer) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        StreamReader reader = new StreamReader(input);
+        ByteBuffer header = ByteBuffer.wrap(reader.readBytes(HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        Encoding encoding = readHeader(header);
+        int count = header.getInt(8);
+        if (expectedBytes >= 0) {
+            checkCount(count, expectedBytes - HEADER_SIZE, encoding);
+        } else if (count < 0) {
+            throw new IOException("Invalid edge count: " + count);
+        }
+
+        // Without a known length the count is not checked against the data, so it only bounds the first allocation
+        int capacity = Math.min(batchSize, expectedBytes >= 0 ? count : Math.min(count, STREAM_BUFFER_SIZE));
+        EdgeStore edges = new EdgeStore(capacity);
+        for (int i = 0; i < count; i++) {
+            if (edges.size() == batchSize) {
+                consumer.accept(edges);
+                edges = new EdgeStore(Math.min(batchSize, count - i));
+            }
+            if (encoding == Encoding.FIXED) {
+                edges.add(reader.readIntLE(), reader.readIntLE(), reader.readIntLE());
+            } else {
+                edges.add(reader.readVarint(), reader.readVarint(), reader.readVarint());
+            }
+        }
+        if (reader.read() != -1) {
+            throw new IOException("Unexpected trailing bytes after " + count + " edges.");
+        }
+        if (!edges.isEmpty()) {
+            consumer.accept(edges);
+        }
+        return count;
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer, int from, int to) {
+        if (to - from < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(from + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Encoding readHeader(ByteBuffer header) throws IOException {
+        if (header.limit() < HEADER_SIZE || !hasMagic(header, 0, header.limit())) {
+            throw new IOException("Not a binary edge file.");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IOException("Unsupported binary edge format version: " + header.get(4));
+        }
+        int encoding = header.get(5);
+        if (encoding < 0 || encoding >= Encoding.values().length) {
+            throw new IOException("Unsupported binary edge encoding: " + encoding);
+        }
+        return Encoding.values()[encoding];
+    }
+
+    /**
+     * Rejects edge counts that the remaining bytes cannot possibly hold, before any array is allocated for them.
+     */
+    private static void checkCount(int count, long availableBytes, Encoding encoding) throws IOException {
+        int minEdgeSize = encoding == Encoding.FIXED ? FIXED_EDGE_SIZE : MIN_VARINT_EDGE_SIZE;
+        if (count < 0 || (long) count * minEdgeSize > availableBytes) {
+            throw new IOException("The number of edges does not match the data size. Expected: " + count
+                    + ", available bytes: " + availableBytes);
+        }
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    /**
+     * A minimal buffered reader for little-endian ints and varints, which {@link java.io.DataInputStream} lacks.
+     */
+    private static final class StreamReader {
+        private final InputStream input;
+        private final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        private int pos;
+        private int limit;
+
+        StreamReader(InputStream input) {
+            this.input = input;
+        }
+
+        int read() throws IOException {
+            if (pos == limit) {
+                limit = input.readNBytes(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit == 0) {
+                    return -1;
+                }
+            }
+            return buffer[pos++] & 0xFF;
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) readByte();
+            }
+            return bytes;
+        }
+
+        int readIntLE() throws IOException {
+            return readByte() | (readByte() << 8) | (readByte() << 16) | (readByte() << 24);
+        }
+
+        int readVarint() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    return (result >>> 1) ^ -(result & 1);
+                }
+            }
+            throw new IOException("Malformed varint.");
+        }
+
+        private int readByte() throws IOException {
+            int b = read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of binary edge data.");
+            }
+            return b;
+        }
+    }
+}
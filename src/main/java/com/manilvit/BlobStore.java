@@ -0,0 +1,90 @@
+package com.manilvit;
+
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * A minimal key-value store for binary objects, such as persisted MST state.
+ * Implementations exist for an S3 prefix and for a local directory, so the same code runs in Lambda and locally.
+ */
+public interface BlobStore {
+
+    /**
+     * Reads an object.
+     *
+     * @param key The key of the object, relative to the store.
+     * @return The content of the object, or {@code null} if it does not exist.
+     * @throws IOException If reading fails.
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Creates or replaces an object.
+     *
+     * @param key The key of the object, relative to the store.
+     * @param data The content of the object.
+     * @throws IOException If writing fails.
+     */
+    void put(String key, byte[] data) throws IOException;
+
+    /**
+     * Describes where an object is stored, for example as an {@code s3://} URI.
+     *
+     * @param key The key of the object, relative to the store.
+     * @return The full location of the object.
+     */
+    String location(String key);
+
+    /**
+     * Checks whether an S3 object lies inside this store.
+     * The handler uses this to ignore notifications for objects it has written itself.
+     *
+     * @param bucket The bucket of the object.
+     * @param key The key of the object.
+     * @return {@code true} if the object belongs to this store.
+     */
+    default boolean contains(String bucket, String key) {
+        return false;
+    }
+
+    /**
+     * Creates a store from a location string: {@code s3://bucket/prefix} for S3, anything else for a local directory.
+     *
+     * @param location The location of the store.
+     * @param s3Client Supplies the S3 client for S3 locations; it is only called when the store is used.
+     * @return The store.
+     */
+    static BlobStore fromLocation(String location, Supplier<S3Client> s3Client) {
+        if (location.startsWith(S3BlobStore.SCHEME)) {
+            String path = location.substring(S3BlobStore.SCHEME.length());
+            int slash = path.indexOf('/');
+            String bucket = slash < 0 ? path : path.substring(0, slash);
+            String prefix = slash < 0 ? "" : path.substring(slash + 1);
+            return new S3BlobStore(s3Client, bucket, prefix);
+        }
+        return new FileBlobStore(Path.of(location));
+    }
+
+    /**
+     * Creates a store for objects the handler writes like {@link #fromLocation(String, Supplier)}, and rejects
+     * locations that would hold every upload. The handler skips notifications for objects inside its stores, so a store
+     * at the root of the input bucket would make it skip every network.
+     *
+     * @param location The location of the store.
+     * @param s3Client Supplies the S3 client for S3 locations; it is only called when the store is used.
+     * @param inputBucket The bucket networks are uploaded to, or {@code null} if unknown.
+     * @return The store.
+     * @throws IllegalArgumentException If the location is the root of the input bucket.
+     */
+    static BlobStore fromLocation(String location, Supplier<S3Client> s3Client, String inputBucket) {
+        BlobStore store = fromLocation(location, s3Client);
+        if (inputBucket != null && store.contains(inputBucket, "")) {
+            throw new IllegalArgumentException("Store location " + location
+                    + " is the root of the input bucket; use a prefix of it or another bucket.");
+        }
+        return store;
+    }
+}
@@ -0,0 +1,195 @@
+package com.manilvit;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a parallel version of Borůvka's algorithm to find the Minimum Spanning Tree (MST) of a graph.
+ * Every round, each component's cheapest outgoing edge is found in parallel on the ForkJoin common pool,
+ * all of those edges are added to the MST, and the components they connect are contracted.
+ * Each round at least halves the number of components, so there are at most log2(numNodes) rounds.
+ * The contraction runs in parallel as well: the selected edges are linked in a {@link ConcurrentUnionFind}, and the
+ * relabelling of nodes and the discarding of edges inside one component are split across the pool.
+ */
+public class BoruvkaAlgorithm {
+
+    /**
+     * The number of edges below which a task scans its range directly instead of splitting it further.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    /**
+     * Marks a component for which no outgoing edge has been found.
+     */
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a graph using a parallel Borůvka algorithm.
+     * Ties between equal costs are broken by edge position, so the result has the same total cost
+     * as {@link KruskalAlgorithm#findMinimumSpanningTree(EdgeStore, int)}. For a disconnected graph a
+     * minimum spanning forest is returned.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @return A new {@link EdgeStore} holding the edges of the MST, in the order they were selected.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+        EdgeStore mst = new EdgeStore(Math.max(0, Math.min(edges.size(), numNodes - 1)));
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(numNodes);
+
+        // The component label of every node, refreshed after each round of contraction
+        int[] component = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            component[i] = i;
+        }
+
+        // Positions of the edges that still connect two different components (self-loops never do)
+        int[] alive = new int[edges.size()];
+        int aliveCount = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            if (edges.getNode1(i) != edges.getNode2(i)) {
+                alive[aliveCount++] = i;
+            }
+        }
+
+        // The cheapest outgoing edge of each component, packed as (cost << 32 | edge position)
+        AtomicLongArray cheapest = new AtomicLongArray(numNodes);
+        int[] selected = new int[numNodes];
+        int[] keptPerBlock = new int[blockCount(edges.size())];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        while (aliveCount > 0) {
+            for (int i = 0; i < numNodes; i++) {
+                cheapest.set(i, NO_EDGE);
+            }
+
+            // Find every component's cheapest outgoing edge in parallel
+            pool.invoke(new CheapestEdgeTask(edges, alive, 0, aliveCount, component, cheapest));
+
+            // Add the selected edges to the MST. Keys are distinct, so they form a forest once each is counted once:
+            // two components can pick the same edge, and then only the lower component keeps it
+            int selectedCount = 0;
+            for (int c = 0; c < numNodes; c++) {
+                long key = cheapest.get(c);
+                if (key == NO_EDGE) {
+                    continue;
+                }
+                int index = (int) key;
+                int node1 = edges.getNode1(index);
+                int node2 = edges.getNode2(index);
+                int other = component[node1] == c ? component[node2] : component[node1];
+                if (other < c && cheapest.get(other) == key) {
+                    continue;
+                }
+                mst.add(node1, node2, edges.getCost(index));
+                selected[selectedCount++] = index;
+            }
+
+            // Contract the components they connect
+            RangeTask.run(0, selectedCount, SEQUENTIAL_THRESHOLD, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    uf.union(edges.getNode1(selected[i]), edges.getNode2(selected[i]));
+                }
+            });
+            RangeTask.run(0, numNodes, SEQUENTIAL_THRESHOLD, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    component[i] = uf.find(i);
+                }
+            });
+
+            // Drop edges that now lie inside a single component: each block keeps its survivors at its start,
+            // then the blocks are moved together
+            int blocks = blockCount(aliveCount);
+            int aliveEnd = aliveCount;
+            RangeTask.run(0, blocks, 1, (fromBlock, toBlock) -> {
+                for (int block = fromBlock; block < toBlock; block++) {
+                    int start = block * SEQUENTIAL_THRESHOLD;
+                    int end = Math.min(start + SEQUENTIAL_THRESHOLD, aliveEnd);
+                    int kept = start;
+                    for (int i = start; i < end; i++) {
+                        int index = alive[i];
+                        if (component[edges.getNode1(index)] != component[edges.getNode2(index)]) {
+                            alive[kept++] = index;
+                        }
+                    }
+                    keptPerBlock[block] = kept - start;
+                }
+            });
+            aliveCount = 0;
+            for (int block = 0; block < blocks; block++) {
+                System.arraycopy(alive, block * SEQUENTIAL_THRESHOLD, alive, aliveCount, keptPerBlock[block]);
+                aliveCount += keptPerBlock[block];
+            }
+        }
+
+        // Return the resulting Minimum Spanning Tree
+        return mst;
+    }
+
+    /**
+     * Counts the blocks of {@link #SEQUENTIAL_THRESHOLD} positions that cover a range of the given size.
+     */
+    private static int blockCount(int size) {
+        return (size + SEQUENTIAL_THRESHOLD - 1) / SEQUENTIAL_THRESHOLD;
+    }
+
+    /**
+     * Packs an edge into a key whose natural order is (cost, position), which makes every key distinct.
+     */
+    private static long key(int cost, int index) {
+        return ((long) cost << 32) | index;
+    }
+
+    /**
+     * Lowers the stored key of a component to the given key if it is smaller, retrying on contention.
+     */
+    private static void offer(AtomicLongArray cheapest, int component, long key) {
+        long current;
+        while (key < (current = cheapest.get(component))) {
+            if (cheapest.compareAndSet(component, current, key)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Scans a range of the alive edges and offers each one to the two components it connects,
+     * splitting the range in half while it is larger than {@link #SEQUENTIAL_THRESHOLD}.
+     */
+    private static final class CheapestEdgeTask extends RecursiveAction {
+        private final EdgeStore edges;
+        private final int[] alive;
+        private final int from;
+        private final int to;
+        private final int[] component;
+        private final AtomicLongArray cheapest;
+
+        CheapestEdgeTask(EdgeStore edges, int[] alive, int from, int to, int[] component, AtomicLongArray cheapest) {
+            this.edges = edges;
+            this.alive = alive;
+            this.from = from;
+            this.to = to;
+            this.component = component;
+            this.cheapest = cheapest;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CheapestEdgeTask(edges, alive, from, middle, component, cheapest),
+                        new CheapestEdgeTask(edges, alive, middle, to, component, cheapest));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int index = alive[i];
+                int component1 = component[edges.getNode1(index)];
+                int component2 = component[edges.getNode2(index)];
+                long key = key(edges.getCost(index), index);
+                offer(cheapest, component1, key);
+                offer(cheapest, component2, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.manilvit;
+
+import java.util.Arrays;
+
+/**
+ * Solves the Minimum Spanning Tree (MST) of a graph with several connected components one shard at a time, in
+ * parallel. The MST of a disconnected graph is a spanning forest, one tree per component, and no edge ever crosses
+ * two components, so the components can be solved independently.
+ * <p>
+ * A pre-pass links every edge in a {@link ConcurrentUnionFind} on the ForkJoin common pool to label the components.
+ * Components are then packed, in label order, into shards of at least {@link #MIN_SHARD_EDGES} edges, so that a
+ * file of a million tiny regions does not become a million tasks. Each shard gets its own {@link EdgeStore} with its
+ * own dense node identifiers and is solved by the engine on the pool. A connected graph skips the partitioning and
+ * is solved directly.
+ */
+public final class ComponentSharding {
+
+    /**
+     * The fewest edges a shard holds, unless it is the last one; smaller shards cost more to schedule than to solve.
+     */
+    static final int MIN_SHARD_EDGES = 1 << 16;
+
+    private static final int LINK_GRAIN = 1 << 13;
+
+    private ComponentSharding() {
+    }
+
+    /**
+     * Finds the minimum spanning forest of a graph, solving its components in parallel.
+     * It records "ComponentTime" for labelling and partitioning, the "Components" and "Shards" counters, and the metrics
+     * of the engine, summed over the shards.
+     *
+     * @param edges The edges of the graph, with node identifiers in {@code 0..numNodes-1}.
+     * @param numNodes The number of nodes in the graph.
+     * @param engine The engine that solves each shard.
+     * @param metrics Where to record the phases, or {@code null}.
+     * @return A new {@link EdgeStore} holding the forest, shard by shard in label order, each in the engine's order.
+     */
+    public static EdgeStore findMinimumSpanningForest(EdgeStore edges, int numNodes, MstEngine engine, PhaseMetrics metrics) {
+        long start = System.nanoTime();
+        int[] component = label(edges, numNodes);
+        int componentCount = 0;
+        for (int node = 0; node < numNodes; node++) {
+            componentCount = Math.max(componentCount, component[node] + 1);
+        }
+        if (metrics != null) {
+            metrics.addCount("Components", componentCount);
+        }
+        if (componentCount <= 1) {
+            if (metrics != null) {
+                metrics.addCount("Shards", 1);
+                metrics.addTime("ComponentTime", System.nanoTime() - start);
+            }
+            return engine.findMinimumSpanningTree(edges, numNodes, metrics);
+        }
+
+        // Pack consecutive components into shards of about equal size, with enough shards to keep the pool busy
+        int[] componentEdges = new int[componentCount];
+        for (int i = 0; i < edges.size(); i++) {
+            componentEdges[component[edges.getNode1(i)]]++;
+        }
+        int targetEdges = Math.max(MIN_SHARD_EDGES, edges.size() / (4 * Runtime.getRuntime().availableProcessors()));
+        int[] shardOf = new int[componentCount];
+        int shardCount = 0;
+        int shardEdges = 0;
+        for (int c = 0; c < componentCount; c++) {
+            shardOf[c] = shardCount;
+            shardEdges += componentEdges[c];
+            if (shardEdges >= targetEdges) {
+                shardCount++;
+                shardEdges = 0;
+            }
+        }
+        if (shardEdges > 0 || shardCount == 0) {
+            shardCount++;
+        }
+
+        // Give every node a dense identifier within its shard, and remember the way back
+        int[] shardNodeCounts = new int[shardCount];
+        int[] localId = new int[numNodes];
+        for (int node = 0; node < numNodes; node++) {
+            localId[node] = shardNodeCounts[shardOf[component[node]]]++;
+        }
+        int[][] globalIds = new int[shardCount][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            globalIds[shard] = new int[shardNodeCounts[shard]];
+        }
+        for (int node = 0; node < numNodes; node++) {
+            globalIds[shardOf[component[node]]][localId[node]] = node;
+        }
+
+        int[] shardEdgeCounts = new int[shardCount];
+        for (int c = 0; c < componentCount; c++) {
+            shardEdgeCounts[shardOf[c]] += componentEdges[c];
+        }
+        EdgeStore[] shards = new EdgeStore[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards[shard] = new EdgeStore(shardEdgeCounts[shard]);
+        }
+        for (int i = 0; i < edges.size(); i++) {
+            int node1 = edges.getNode1(i);
+            shards[shardOf[component[node1]]].add(localId[node1], localId[edges.getNode2(i)], edges.getCost(i));
+        }
+        if (metrics != null) {
+            metrics.addCount("Shards", shardCount);
+            metrics.addTime("ComponentTime", System.nanoTime() - start);
+        }
+
+        // Solve the shards in parallel; only their results are kept. Each shard records into its own metrics, which are
+        // not thread-safe, and they are summed afterwards
+        EdgeStore[] forests = new EdgeStore[shardCount];
+        PhaseMetrics[] shardMetrics = new PhaseMetrics[shardCount];
+        RangeTask.run(0, shardCount, 1, (from, to) -> {
+            for (int shard = from; shard < to; shard++) {
+                shardMetrics[shard] = metrics != null ? new PhaseMetrics() : null;
+                forests[shard] = engine.findMinimumSpanningTree(shards[shard], globalIds[shard].length, shardMetrics[shard]);
+                shards[shard] = null;
+            }
+        });
+        if (metrics != null) {
+            for (PhaseMetrics shard : shardMetrics) {
+                metrics.addAll(shard);
+            }
+        }
+
+        int forestSize = 0;
+        for (EdgeStore forest : forests) {
+            forestSize += forest.size();
+        }
+        EdgeStore mst = new EdgeStore(forestSize);
+        for (int shard = 0; shard < shardCount; shard++) {
+            EdgeStore forest = forests[shard];
+            int[] ids = globalIds[shard];
+            for (int i = 0; i < forest.size(); i++) {
+                mst.add(ids[forest.getNode1(i)], ids[forest.getNode2(i)], forest.getCost(i));
+            }
+        }
+        return mst;
+    }
+
+    /**
+     * Labels the connected components of a graph {@code 0..k-1}, in order of their lowest node.
+     *
+     * @param edges The edges of the graph, with node identifiers in {@code 0..numNodes-1}.
+     * @param numNodes The number of nodes in the graph.
+     * @return The component label of every node.
+     */
+    static int[] label(EdgeStore edges, int numNodes) {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(numNodes);
+        RangeTask.run(0, edges.size(), LINK_GRAIN, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                uf.union(edges.getNode1(i), edges.getNode2(i));
+            }
+        });
+
+        int[] roots = new int[numNodes];
+        RangeTask.run(0, numNodes, LINK_GRAIN, (from, to) -> {
+            for (int node = from; node < to; node++) {
+                roots[node] = uf.find(node);
+            }
+        });
+        // Number each root when its component is first met; the label of a root is kept at the root's position
+        int[] labels = new int[numNodes];
+        Arrays.fill(labels, -1);
+        int[] component = new int[numNodes];
+        int count = 0;
+        for (int node = 0; node < numNodes; node++) {
+            int root = roots[node];
+            if (labels[root] < 0) {
+                labels[root] = count++;
+            }
+            component[node] = labels[root];
+        }
+        return component;
+    }
+}
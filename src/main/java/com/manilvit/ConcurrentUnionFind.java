@@ -0,0 +1,125 @@
+package com.manilvit;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free Union-Find (Disjoint Set) over the nodes {@code 0..size-1} that any number of threads may use at once.
+ * <p>
+ * Every parent pointer lives in an {@link AtomicIntegerArray}. A root is linked under another with a single
+ * compare-and-set that only succeeds while it is still a root, so two threads can never both link it, and a thread
+ * that loses the race simply retries from the new roots. Roots are linked by a fixed pseudo-random priority of the
+ * node instead of by rank, which needs no second array to keep consistent and still keeps trees shallow on average.
+ * {@link #find(int)} is iterative and halves the path as it walks it; a failed halving step is harmless, because a
+ * parent pointer only ever moves closer to the root.
+ * <p>
+ * Used by one thread it behaves like {@link KruskalAlgorithm.UnionFind}, at the cost of a compare-and-set per link.
+ */
+public final class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parents;
+
+    /**
+     * Constructs a structure in which every node is its own set.
+     *
+     * @param size The number of nodes.
+     */
+    public ConcurrentUnionFind(int size) {
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.setPlain(i, i); // Published to other threads by the final field
+        }
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return parents.length();
+    }
+
+    /**
+     * Finds the root of the set that contains a node, halving the path to it.
+     * While other threads are linking, the root returned may stop being one at any moment; use
+     * {@link #sameSet(int, int)} to compare two nodes.
+     *
+     * @param node The node.
+     * @return The root of the set containing the node.
+     */
+    public int find(int node) {
+        while (true) {
+            int parent = parents.get(node);
+            if (parent == node) {
+                return node;
+            }
+            int grandparent = parents.get(parent);
+            if (grandparent != parent) {
+                // Skip the parent; if another thread changed the pointer meanwhile, leave it to that thread
+                parents.weakCompareAndSetRelease(node, parent, grandparent);
+            }
+            node = grandparent;
+        }
+    }
+
+    /**
+     * Merges the sets containing two nodes.
+     *
+     * @param node1 One of the nodes to union.
+     * @param node2 The other node to union.
+     * @return {@code true} if this call merged two sets, {@code false} if the nodes were already in the same set.
+     *         Of several threads joining the same two sets, exactly one gets {@code true}.
+     */
+    public boolean union(int node1, int node2) {
+        while (true) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) {
+                return false;
+            }
+            // Link the root of lower priority under the other one, so that concurrent links never form a cycle
+            if (priority(root1) > priority(root2)) {
+                int swap = root1;
+                root1 = root2;
+                root2 = swap;
+            }
+            if (parents.compareAndSet(root1, root1, root2)) {
+                return true;
+            }
+            // Another thread linked root1 first; start again from the current roots
+            node1 = root1;
+            node2 = root2;
+        }
+    }
+
+    /**
+     * Tells whether two nodes are in the same set. The answer holds at some instant during the call, and once two
+     * nodes are in the same set they stay so.
+     *
+     * @param node1 One node.
+     * @param node2 The other node.
+     * @return {@code true} if both nodes are in the same set.
+     */
+    public boolean sameSet(int node1, int node2) {
+        while (true) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) {
+                return true;
+            }
+            // Different roots only prove different sets if root1 was not linked while root2 was being found
+            if (parents.get(root1) == root1) {
+                return false;
+            }
+            node1 = root1;
+            node2 = root2;
+        }
+    }
+
+    /**
+     * A bijective scramble of the node identifier, so priorities are distinct and unrelated to the input order.
+     */
+    private static int priority(int node) {
+        return node * 0x9E3779B9;
+    }
+}
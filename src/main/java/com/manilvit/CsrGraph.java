@@ -0,0 +1,130 @@
+package com.manilvit;
+
+/**
+ * An undirected graph in compressed sparse row (CSR) form: the neighbours of every node lie next to each other in
+ * flat arrays, so walking the adjacency of a node reads consecutive memory instead of chasing per-node lists.
+ * Every edge of the {@link EdgeStore} appears twice, once from each endpoint; self-loops are left out.
+ */
+public final class CsrGraph {
+
+    private static final long COST_MASK = 0xFFFF_FFFFL;
+
+    private final int[] offsets;
+    // One long per half-edge, so that a neighbour and its cost are written and read together: the neighbour in the
+    // high half, complemented if the edge was given from the neighbour's side, and the cost in the low half
+    private final long[] adjacency;
+
+    private CsrGraph(int[] offsets, long[] adjacency) {
+        this.offsets = offsets;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * Builds the adjacency of a graph with a counting pass and a fill pass, without sorting.
+     *
+     * @param edges The edges, with node identifiers in {@code 0..numNodes-1}.
+     * @param numNodes The number of nodes.
+     * @return The graph.
+     * @throws IllegalArgumentException If the graph has more than {@code Integer.MAX_VALUE / 2} edges, or an
+     *                                  edge refers to a node outside the range.
+     */
+    public static CsrGraph build(EdgeStore edges, int numNodes) {
+        if (edges.size() > (Integer.MAX_VALUE - 8) / 2) {
+            throw new IllegalArgumentException("Too many edges for an adjacency array: " + edges.size());
+        }
+        int[] offsets = new int[numNodes + 1];
+        for (int i = 0; i < edges.size(); i++) {
+            int node1 = checkNode(edges.getNode1(i), numNodes);
+            int node2 = checkNode(edges.getNode2(i), numNodes);
+            if (node1 != node2) {
+                offsets[node1 + 1]++;
+                offsets[node2 + 1]++;
+            }
+        }
+        for (int node = 0; node < numNodes; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+
+        long[] adjacency = new long[offsets[numNodes]];
+        int[] next = new int[numNodes];
+        System.arraycopy(offsets, 0, next, 0, numNodes);
+        for (int i = 0; i < edges.size(); i++) {
+            int node1 = edges.getNode1(i);
+            int node2 = edges.getNode2(i);
+            if (node1 == node2) {
+                continue; // A self-loop never joins two components
+            }
+            long cost = edges.getCost(i) & COST_MASK;
+            adjacency[next[node1]++] = ((long) node2 << 32) | cost;
+            adjacency[next[node2]++] = ((long) ~node1 << 32) | cost;
+        }
+        return new CsrGraph(offsets, adjacency);
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return The number of nodes.
+     */
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Gets the position of the first neighbour of a node.
+     *
+     * @param node The node.
+     * @return The first adjacency position of the node.
+     */
+    public int start(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Gets the position after the last neighbour of a node.
+     *
+     * @param node The node.
+     * @return The end of the adjacency positions of the node.
+     */
+    public int end(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Gets the neighbour at an adjacency position.
+     *
+     * @param position A position between {@link #start(int)} and {@link #end(int)} of some node.
+     * @return The node at the other end of the edge.
+     */
+    public int target(int position) {
+        int target = (int) (adjacency[position] >> 32);
+        return target < 0 ? ~target : target;
+    }
+
+    /**
+     * Gets the cost of the edge at an adjacency position.
+     *
+     * @param position An adjacency position.
+     * @return The cost of the edge.
+     */
+    public int cost(int position) {
+        return (int) adjacency[position];
+    }
+
+    /**
+     * Tells in which direction the edge at an adjacency position was given, so it can be reported as it was input.
+     *
+     * @param position An adjacency position of some node.
+     * @return {@code true} if the edge was given from the neighbour to the node, {@code false} if from the node.
+     */
+    public boolean isReversed(int position) {
+        return adjacency[position] < 0;
+    }
+
+    private static int checkNode(int node, int numNodes) {
+        if (node < 0 || node >= numNodes) {
+            throw new IllegalArgumentException("Node " + node + " is outside 0.." + (numNodes - 1));
+        }
+        return node;
+    }
+}
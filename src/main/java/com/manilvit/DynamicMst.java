@@ -0,0 +1,593 @@
+package com.manilvit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * A network together with its Minimum Spanning Tree (MST), which can be updated link by link instead of being recomputed.
+ * <p>
+ * Every node pair has at most one link; when a network is loaded, parallel links are collapsed to the cheapest one and
+ * self-loops are dropped. The cost of an update depends on what it touches:
+ * <ul>
+ *   <li>Adding a link or making one cheaper walks up the tree from both endpoints in turns until the walks meet, and
+ *       swaps out the most expensive link on the tree path between them if the new one is cheaper, so the cost is
+ *       proportional to that path. A link that joins two trees walks both endpoints up to their roots instead.</li>
+ *   <li>Removing a link or making one more expensive is free if the link is not in the tree.</li>
+ *   <li>Removing a tree link or making it more expensive splits the tree; finding the cheapest link that reconnects
+ *       both halves has to scan the non-tree links, which is the only case proportional to the graph size.</li>
+ * </ul>
+ * Every tree is kept rooted, with each node pointing at the link to its parent, so these walks need no search.
+ * The state is persisted as two {@link BinaryEdgeFormat} files: every link of the network, and the links of the MST.
+ * A third file lists the most recently applied deltas, so a retried delta can be recognised instead of applied twice.
+ */
+public class DynamicMst {
+
+    private static final String GRAPH_FILE = "graph.bin";
+    private static final String TREE_FILE = "mst.bin";
+    private static final String APPLIED_FILE = "applied.txt";
+
+    /**
+     * How many applied deltas are remembered; retries arrive within minutes, long before this many newer deltas.
+     */
+    static final int MAX_APPLIED_DELTAS = 1000;
+
+    private final NodeIdCompactor nodeIds;
+    private final LongIntHashMap linkIndex; // Dense node pair -> link position
+
+    // Links by position, using dense node identifiers; removed links keep their position but are no longer alive
+    private int[] node1;
+    private int[] node2;
+    private int[] cost;
+    private boolean[] alive;
+    private boolean[] inTree;
+    private int linkCount;
+
+    // Tree adjacency: for every node, the positions of its incident tree links
+    private int[][] treeLinks = new int[0][];
+    private int[] treeDegree = new int[0];
+    private int[] parentLink = new int[0]; // For every node, the position of the tree link to its parent, or -1 at a root
+    private int treeSize;
+    private long treeCost;
+
+    // Scratch space for tree traversals; a node is visited in the current traversal if visitMark equals visitStamp,
+    // or its negation for the second of two walks up the tree
+    private int[] visitMark = new int[0];
+    private int[] heaviestLink = new int[0]; // For every node reached by a walk up the tree, the most expensive link walked
+
+    private int[] queue = new int[0];
+    private int visitStamp;
+
+    private final LinkedHashSet<String> appliedDeltas = new LinkedHashSet<>(); // Oldest first
+
+    private DynamicMst(int expectedLinks) {
+        int capacity = Math.max(16, expectedLinks);
+        nodeIds = new NodeIdCompactor(Math.min(expectedLinks + 1, NodeIdCompactor.INITIAL_NODES));
+        linkIndex = new LongIntHashMap(expectedLinks);
+        node1 = new int[capacity];
+        node2 = new int[capacity];
+        cost = new int[capacity];
+        alive = new boolean[capacity];
+        inTree = new boolean[capacity];
+    }
+
+    /**
+     * Builds the state for a network by computing its MST from scratch.
+     *
+     * @param graph The links of the network, using the original node identifiers.
+     * @return The state holding the network and its MST.
+     */
+    public static DynamicMst build(EdgeStore graph) {
+        DynamicMst state = fromGraph(graph);
+        EdgeStore links = state.denseLinks(false);
+        EdgeStore mst = KruskalAlgorithm.findMinimumSpanningTree(links, state.nodeIds.nodeCount());
+        for (int i = 0; i < mst.size(); i++) {
+            state.link(state.linkIndex.get(LongIntHashMap.pairKey(mst.getNode1(i), mst.getNode2(i)), -1));
+        }
+        state.rootTrees();
+        return state;
+    }
+
+    /**
+     * Restores the state for a network from a previously computed MST, without recomputing it.
+     *
+     * @param graph The links of the network, using the original node identifiers.
+     * @param tree The links of its MST, using the original node identifiers.
+     * @return The state holding the network and its MST.
+     * @throws IOException If a tree link is not part of the network.
+     */
+    public static DynamicMst restore(EdgeStore graph, EdgeStore tree) throws IOException {
+        DynamicMst state = fromGraph(graph);
+        for (int i = 0; i < tree.size(); i++) {
+            int position = state.position(tree.getNode1(i), tree.getNode2(i));
+            if (position < 0 || state.inTree[position]) {
+                throw new IOException("The stored MST does not match the stored network at link "
+                        + tree.getNode1(i) + "-" + tree.getNode2(i));
+            }
+            state.link(position);
+        }
+        state.rootTrees();
+        return state;
+    }
+
+    /**
+     * Loads the state persisted under a key.
+     *
+     * @param store The store holding the state.
+     * @param key The key of the network.
+     * @return The state, or {@code null} if nothing is stored under the key.
+     * @throws IOException If reading fails or the stored data is invalid.
+     */
+    public static DynamicMst load(BlobStore store, String key) throws IOException {
+        byte[] graph = store.get(key + "/" + GRAPH_FILE);
+        byte[] tree = store.get(key + "/" + TREE_FILE);
+        if (graph == null || tree == null) {
+            return null;
+        }
+        DynamicMst state = restore(NetworkObjectParser.parseEdges(graph), NetworkObjectParser.parseEdges(tree));
+        byte[] applied = store.get(key + "/" + APPLIED_FILE); // Missing for state stored before deltas were recorded
+        if (applied != null) {
+            new String(applied, StandardCharsets.UTF_8).lines().filter(line -> !line.isEmpty()).forEach(state::recordApplied);
+        }
+        return state;
+    }
+
+    /**
+     * Persists the network and its MST under a key.
+     *
+     * @param store The store to write to.
+     * @param key The key of the network.
+     * @throws IOException If writing fails.
+     */
+    public void save(BlobStore store, String key) throws IOException {
+        store.put(key + "/" + GRAPH_FILE, encode(graphEdges()));
+        store.put(key + "/" + TREE_FILE, encode(treeEdges()));
+        // Written last, so a failure in between leaves the delta unrecorded and a retry fails loudly rather than skipping it
+        store.put(key + "/" + APPLIED_FILE, String.join("\n", appliedDeltas).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether a delta has been recorded as applied with {@link #recordApplied(String)}.
+     *
+     * @param deltaId The identifier of the delta, such as its key and ETag.
+     * @return {@code true} if the delta is among the most recently applied ones.
+     */
+    public boolean hasApplied(String deltaId) {
+        return appliedDeltas.contains(deltaId);
+    }
+
+    /**
+     * Records that a delta has been applied, so that a retry of it can be recognised after the state is saved.
+     * Only the most recent {@link #MAX_APPLIED_DELTAS} deltas are kept.
+     *
+     * @param deltaId The identifier of the delta, such as its key and ETag; it must not contain line breaks.
+     */
+    public void recordApplied(String deltaId) {
+        appliedDeltas.remove(deltaId);
+        appliedDeltas.add(deltaId);
+        if (appliedDeltas.size() > MAX_APPLIED_DELTAS) {
+            appliedDeltas.remove(appliedDeltas.iterator().next());
+        }
+    }
+
+    /**
+     * Applies a sequence of updates in order.
+     *
+     * @param updates The updates to apply.
+     * @throws IllegalArgumentException If an update removes or re-prices a link that does not exist.
+     */
+    public void apply(List<MstDelta.Update> updates) {
+        for (MstDelta.Update update : updates) {
+            switch (update.operation()) {
+                case ADD -> addLink(update.node1(), update.node2(), update.cost());
+                case REMOVE -> removeLink(update.node1(), update.node2());
+                case COST -> changeCost(update.node1(), update.node2(), update.cost());
+            }
+        }
+    }
+
+    /**
+     * Adds a link, or sets its cost if the two nodes are already linked. Self-loops are ignored.
+     *
+     * @param from The identifier of the first node.
+     * @param to The identifier of the second node.
+     * @param linkCost The cost of the link.
+     */
+    public void addLink(int from, int to, int linkCost) {
+        int position = position(from, to);
+        if (position >= 0) {
+            changeCost(from, to, linkCost);
+            return;
+        }
+        int a = denseId(from);
+        int b = denseId(to);
+        if (a == b) {
+            return;
+        }
+        position = append(a, b, linkCost);
+        insertIntoTree(position);
+    }
+
+    /**
+     * Removes the link between two nodes.
+     *
+     * @param from The identifier of the first node.
+     * @param to The identifier of the second node.
+     * @throws IllegalArgumentException If the nodes are not linked.
+     */
+    public void removeLink(int from, int to) {
+        int position = requirePosition(from, to);
+        alive[position] = false;
+        linkIndex.remove(LongIntHashMap.pairKey(node1[position], node2[position]), -1);
+        if (inTree[position]) {
+            cut(position);
+            reconnect(node1[position]);
+        }
+    }
+
+    /**
+     * Changes the cost of the link between two nodes.
+     *
+     * @param from The identifier of the first node.
+     * @param to The identifier of the second node.
+     * @param linkCost The new cost.
+     * @throws IllegalArgumentException If the nodes are not linked.
+     */
+    public void changeCost(int from, int to, int linkCost) {
+        int position = requirePosition(from, to);
+        int oldCost = cost[position];
+        if (inTree[position]) {
+            treeCost += (long) linkCost - oldCost;
+            cost[position] = linkCost;
+            if (linkCost > oldCost) {
+                // A cheaper link may now reconnect the two halves; the re-priced link competes with the others
+                cut(position);
+                reconnect(node1[position]);
+            }
+        } else {
+            cost[position] = linkCost;
+            if (linkCost < oldCost) {
+                insertIntoTree(position);
+            }
+        }
+    }
+
+    /**
+     * Gets the current MST.
+     *
+     * @return A new {@link EdgeStore} holding the tree links, using the original node identifiers.
+     */
+    public EdgeStore treeEdges() {
+        return nodeIds.restore(denseLinks(true));
+    }
+
+    /**
+     * Gets every link of the network.
+     *
+     * @return A new {@link EdgeStore} holding the links, using the original node identifiers.
+     */
+    public EdgeStore graphEdges() {
+        return nodeIds.restore(denseLinks(false));
+    }
+
+    /**
+     * Gets the total cost of the current MST.
+     *
+     * @return The sum of the tree link costs.
+     */
+    public long treeCost() {
+        return treeCost;
+    }
+
+    /**
+     * Gets the number of links in the current MST.
+     *
+     * @return The number of tree links.
+     */
+    public int treeSize() {
+        return treeSize;
+    }
+
+    /**
+     * Creates the state for a network without any tree links, collapsing parallel links and dropping self-loops.
+     */
+    private static DynamicMst fromGraph(EdgeStore graph) {
+        DynamicMst state = new DynamicMst(graph.size());
+        for (int i = 0; i < graph.size(); i++) {
+            int a = state.denseId(graph.getNode1(i));
+            int b = state.denseId(graph.getNode2(i));
+            if (a == b) {
+                continue;
+            }
+            int position = state.linkIndex.get(LongIntHashMap.pairKey(a, b), -1);
+            if (position < 0) {
+                state.append(a, b, graph.getCost(i));
+            } else if (graph.getCost(i) < state.cost[position]) {
+                state.cost[position] = graph.getCost(i); // Keep the cheapest of parallel links
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Makes a non-tree link part of the tree if that lowers the total cost.
+     * If its endpoints are in different trees, it simply joins them; otherwise it replaces the most expensive link
+     * on the tree path between its endpoints, provided that one costs more.
+     */
+    private void insertIntoTree(int position) {
+        int a = node1[position];
+        int b = node2[position];
+        int heaviest = heaviestOnTreePath(a, b);
+        if (heaviest < 0) {
+            attach(position, a); // The walk from a went up to its root, so re-rooting its tree costs no more
+            return;
+        }
+        if (cost[heaviest] > cost[position]) {
+            // Cutting the heaviest link detaches the subtree below it, which holds the endpoint whose walk crossed it
+            int child = parentLink[node1[heaviest]] == heaviest ? node1[heaviest] : node2[heaviest];
+            int detached = visitMark[child] == visitStamp ? a : b;
+            cut(heaviest);
+            attach(position, detached);
+        }
+    }
+
+    /**
+     * After a tree link has been cut, finds the cheapest live non-tree link between the half containing
+     * {@code node} and the rest, and adds it to the tree.
+     */
+    private void reconnect(int node) {
+        markComponent(node);
+        int best = -1;
+        for (int i = 0; i < linkCount; i++) {
+            if (!alive[i] || inTree[i]) {
+                continue;
+            }
+            boolean inside1 = visitMark[node1[i]] == visitStamp;
+            boolean inside2 = visitMark[node2[i]] == visitStamp;
+            if (inside1 != inside2 && (best < 0 || cost[i] < cost[best])) {
+                best = i;
+            }
+        }
+        if (best >= 0) {
+            attach(best, visitMark[node1[best]] == visitStamp ? node1[best] : node2[best]);
+        }
+    }
+
+    /**
+     * Walks up the tree from both nodes in turns until one walk reaches a node the other has passed, which is their
+     * lowest common ancestor, so no more than twice the tree path between them is walked.
+     * The nodes reached from {@code a} are marked with the current visit stamp, those reached from {@code b} with its
+     * negation.
+     *
+     * @return The position of the most expensive link on the tree path, or -1 if the nodes are in different trees.
+     */
+    private int heaviestOnTreePath(int a, int b) {
+        nextStamp();
+        int markA = visitStamp;
+        int markB = -visitStamp;
+        visitMark[a] = markA;
+        heaviestLink[a] = -1;
+        visitMark[b] = markB;
+        heaviestLink[b] = -1;
+        int nodeA = a;
+        int nodeB = b;
+        while (parentLink[nodeA] >= 0 || parentLink[nodeB] >= 0) {
+            if (parentLink[nodeA] >= 0) {
+                int heaviest = heavier(heaviestLink[nodeA], parentLink[nodeA]);
+                nodeA = otherEnd(parentLink[nodeA], nodeA);
+                if (visitMark[nodeA] == markB) {
+                    return heavier(heaviest, heaviestLink[nodeA]);
+                }
+                visitMark[nodeA] = markA;
+                heaviestLink[nodeA] = heaviest;
+            }
+            if (parentLink[nodeB] >= 0) {
+                int heaviest = heavier(heaviestLink[nodeB], parentLink[nodeB]);
+                nodeB = otherEnd(parentLink[nodeB], nodeB);
+                if (visitMark[nodeB] == markA) {
+                    return heavier(heaviest, heaviestLink[nodeB]);
+                }
+                visitMark[nodeB] = markB;
+                heaviestLink[nodeB] = heaviest;
+            }
+        }
+        return -1; // Both walks ended at different roots
+    }
+
+    private int heavier(int link1, int link2) {
+        if (link1 < 0) {
+            return link2;
+        }
+        return link2 >= 0 && cost[link2] > cost[link1] ? link2 : link1;
+    }
+
+    /**
+     * Marks every node in the tree containing {@code from} with the current visit stamp, and re-roots the tree there.
+     */
+    private void markComponent(int from) {
+        nextStamp();
+        rootTree(from);
+    }
+
+    /**
+     * Points every node at its parent link in a tree rooted at the first node of each, after the tree links have
+     * been added without them.
+     */
+    private void rootTrees() {
+        nextStamp();
+        for (int node = 0; node < nodeIds.nodeCount(); node++) {
+            if (visitMark[node] != visitStamp) {
+                rootTree(node);
+            }
+        }
+    }
+
+    /**
+     * Searches the tree containing {@code root} breadth-first, marking its nodes with the current visit stamp and
+     * pointing each at the link it was reached through.
+     */
+    private void rootTree(int root) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        visitMark[root] = visitStamp;
+        parentLink[root] = -1;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = 0; i < treeDegree[node]; i++) {
+                int link = treeLinks[node][i];
+                int next = otherEnd(link, node);
+                if (visitMark[next] != visitStamp) {
+                    visitMark[next] = visitStamp;
+                    parentLink[next] = link;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a tree link that joins two trees, hanging the tree of {@code node} below the other endpoint.
+     * The tree of {@code node} is re-rooted at it first, which walks from {@code node} up to its old root.
+     */
+    private void attach(int position, int node) {
+        int link = parentLink[node];
+        parentLink[node] = position;
+        while (link >= 0) {
+            int parent = otherEnd(link, node);
+            int next = parentLink[parent];
+            parentLink[parent] = link; // Reverse the links on the way up
+            node = parent;
+            link = next;
+        }
+        link(position);
+    }
+
+    private void link(int position) {
+        inTree[position] = true;
+        addTreeLink(node1[position], position);
+        addTreeLink(node2[position], position);
+        treeSize++;
+        treeCost += cost[position];
+    }
+
+    private void cut(int position) {
+        inTree[position] = false;
+        // The endpoint below the link becomes the root of its own tree
+        parentLink[parentLink[node1[position]] == position ? node1[position] : node2[position]] = -1;
+        removeTreeLink(node1[position], position);
+        removeTreeLink(node2[position], position);
+        treeSize--;
+        treeCost -= cost[position];
+    }
+
+    private void addTreeLink(int node, int position) {
+        int[] links = treeLinks[node];
+        if (links == null) {
+            links = treeLinks[node] = new int[2];
+        } else if (treeDegree[node] == links.length) {
+            links = treeLinks[node] = Arrays.copyOf(links, links.length << 1);
+        }
+        links[treeDegree[node]++] = position;
+    }
+
+    private void removeTreeLink(int node, int position) {
+        int[] links = treeLinks[node];
+        for (int i = 0; i < treeDegree[node]; i++) {
+            if (links[i] == position) {
+                links[i] = links[--treeDegree[node]];
+                return;
+            }
+        }
+    }
+
+    private int otherEnd(int position, int node) {
+        return node1[position] == node ? node2[position] : node1[position];
+    }
+
+    private int append(int a, int b, int linkCost) {
+        if (linkCount == cost.length) {
+            int capacity = linkCount + (linkCount >> 1);
+            node1 = Arrays.copyOf(node1, capacity);
+            node2 = Arrays.copyOf(node2, capacity);
+            cost = Arrays.copyOf(cost, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            inTree = Arrays.copyOf(inTree, capacity);
+        }
+        node1[linkCount] = a;
+        node2[linkCount] = b;
+        cost[linkCount] = linkCost;
+        alive[linkCount] = true;
+        linkIndex.put(LongIntHashMap.pairKey(a, b), linkCount);
+        return linkCount++;
+    }
+
+    /**
+     * Gets the dense identifier of a node, growing the per-node arrays when a new node appears.
+     */
+    private int denseId(int originalId) {
+        int id = nodeIds.denseId(originalId);
+        if (id >= treeDegree.length) {
+            int capacity = Math.max(16, treeDegree.length << 1);
+            treeLinks = Arrays.copyOf(treeLinks, capacity);
+            treeDegree = Arrays.copyOf(treeDegree, capacity);
+            int previous = parentLink.length;
+            parentLink = Arrays.copyOf(parentLink, capacity);
+            Arrays.fill(parentLink, previous, capacity, -1); // New nodes are roots of their own trees
+            visitMark = Arrays.copyOf(visitMark, capacity);
+            heaviestLink = Arrays.copyOf(heaviestLink, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the position of the live link between two nodes given by their original identifiers, or -1.
+     */
+    private int position(int from, int to) {
+        int a = nodeIds.denseIdIfPresent(from);
+        int b = nodeIds.denseIdIfPresent(to);
+        if (a < 0 || b < 0) {
+            return -1;
+        }
+        return linkIndex.get(LongIntHashMap.pairKey(a, b), -1);
+    }
+
+    private int requirePosition(int from, int to) {
+        int position = position(from, to);
+        if (position < 0) {
+            throw new IllegalArgumentException("No link between nodes " + from + " and " + to);
+        }
+        return position;
+    }
+
+    private void nextStamp() {
+        if (++visitStamp <= 0) {
+            // The stamp wrapped around; clear the marks so stale ones can't match
+            Arrays.fill(visitMark, 0);
+            visitStamp = 1;
+        }
+    }
+
+    /**
+     * Collects the live links, or only the tree links, using dense node identifiers.
+     */
+    private EdgeStore denseLinks(boolean treeOnly) {
+        EdgeStore links = new EdgeStore(treeOnly ? treeSize : linkIndex.size());
+        for (int i = 0; i < linkCount; i++) {
+            if (alive[i] && (!treeOnly || inTree[i])) {
+                links.add(node1[i], node2[i], cost[i]);
+            }
+        }
+        return links;
+    }
+
+    private static byte[] encode(EdgeStore edges) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryEdgeFormat.write(edges, output, BinaryEdgeFormat.Encoding.VARINT);
+        return output.toByteArray();
+    }
+}
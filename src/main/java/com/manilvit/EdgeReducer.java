@@ -0,0 +1,69 @@
+package com.manilvit;
+
+/**
+ * Removes the edges no Minimum Spanning Tree (MST) can use before the engine sees them: self-loops, and every edge
+ * between a node pair but the cheapest. Generated networks often list a link several times at different costs, and
+ * Kruskal would otherwise sort all of them and reject the extra ones one Union-Find lookup at a time.
+ * <p>
+ * One pass probes a {@link LongIntHashMap} keyed by the unordered node pair packed with
+ * {@link LongIntHashMap#pairKey(int, int)}, so no pair objects or boxed values are created. The MST of the reduced
+ * graph has the same total cost as that of the original one.
+ */
+public final class EdgeReducer {
+
+    private EdgeReducer() {
+    }
+
+    /**
+     * Reduces a graph to its cheapest edge per node pair, without self-loops.
+     *
+     * @param edges The edges of the graph.
+     * @return The edges without self-loops and parallel edges, or {@code edges} itself if it has none.
+     */
+    public static EdgeStore reduce(EdgeStore edges) {
+        return reduce(edges, null);
+    }
+
+    /**
+     * Reduces a graph like {@link #reduce(EdgeStore)} and records "ReduceTime" and the "RemovedEdges" counter.
+     * Every node pair keeps the place of its first edge, and of edges of equal cost the first one is kept, so the
+     * order matches what a stable sort of the original edges would see.
+     *
+     * @param edges The edges of the graph.
+     * @param metrics Where to record the phase, or {@code null}.
+     * @return The edges without self-loops and parallel edges, or {@code edges} itself if it has none.
+     */
+    public static EdgeStore reduce(EdgeStore edges, PhaseMetrics metrics) {
+        long start = System.nanoTime();
+        LongIntHashMap pairs = new LongIntHashMap(edges.size());
+        int[] cheapest = new int[edges.size()]; // For every node pair in order of first appearance, its cheapest edge
+        int pairCount = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            int node1 = edges.getNode1(i);
+            int node2 = edges.getNode2(i);
+            if (node1 == node2) {
+                continue; // A self-loop never joins two components
+            }
+            int pair = pairs.putIfAbsent(LongIntHashMap.pairKey(node1, node2), pairCount);
+            if (pair == pairCount) {
+                cheapest[pairCount++] = i;
+            } else if (edges.getCost(i) < edges.getCost(cheapest[pair])) {
+                cheapest[pair] = i;
+            }
+        }
+
+        EdgeStore reduced = edges;
+        if (pairCount < edges.size()) {
+            reduced = new EdgeStore(pairCount);
+            for (int pair = 0; pair < pairCount; pair++) {
+                int i = cheapest[pair];
+                reduced.add(edges.getNode1(i), edges.getNode2(i), edges.getCost(i));
+            }
+        }
+        if (metrics != null) {
+            metrics.addTime("ReduceTime", System.nanoTime() - start);
+            metrics.addCount("RemovedEdges", edges.size() - pairCount);
+        }
+        return reduced;
+    }
+}
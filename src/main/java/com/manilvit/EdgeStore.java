@@ -0,0 +1,241 @@
+package com.manilvit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, column-oriented store of weighted edges.
+ * Instead of allocating one {@link NetworkConnection} object per edge, the endpoints and costs are kept
+ * in three parallel {@code int[]} arrays, which costs 12 bytes per edge and keeps large graphs within a small heap.
+ */
+public class EdgeStore {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] node1;
+    private int[] node2;
+    private int[] cost;
+    private int size;
+
+    /**
+     * Constructs an empty EdgeStore with a default initial capacity.
+     */
+    public EdgeStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty EdgeStore able to hold the given number of edges without growing.
+     *
+     * @param initialCapacity The number of edges to reserve space for.
+     */
+    public EdgeStore(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + initialCapacity);
+        }
+        node1 = new int[initialCapacity];
+        node2 = new int[initialCapacity];
+        cost = new int[initialCapacity];
+    }
+
+    /**
+     * Constructs an EdgeStore backed by existing column arrays, without copying them.
+     *
+     * @param node1 The first-node column.
+     * @param node2 The second-node column.
+     * @param cost The cost column.
+     * @param size The number of leading entries that hold edges.
+     */
+    EdgeStore(int[] node1, int[] node2, int[] cost, int size) {
+        if (size < 0 || size > node1.length || size > node2.length || size > cost.length) {
+            throw new IllegalArgumentException("Size " + size + " does not fit the given columns");
+        }
+        this.node1 = node1;
+        this.node2 = node2;
+        this.cost = cost;
+        this.size = size;
+    }
+
+    /**
+     * Creates an EdgeStore holding the same edges, in the same order, as the given list.
+     *
+     * @param connections The connections to copy.
+     * @return A new EdgeStore with one entry per connection.
+     */
+    public static EdgeStore fromConnections(List<NetworkConnection> connections) {
+        EdgeStore store = new EdgeStore(connections.size());
+        for (NetworkConnection connection : connections) {
+            store.add(connection.getNode1(), connection.getNode2(), connection.getCost());
+        }
+        return store;
+    }
+
+    /**
+     * Appends an edge to the store, growing the backing arrays if necessary.
+     *
+     * @param from The identifier of the first node.
+     * @param to The identifier of the second node.
+     * @param edgeCost The cost of the edge.
+     */
+    public void add(int from, int to, int edgeCost) {
+        if (size == cost.length) {
+            grow();
+        }
+        node1[size] = from;
+        node2[size] = to;
+        cost[size] = edgeCost;
+        size++;
+    }
+
+    /**
+     * Appends a range of the edges of another store, growing the backing arrays if necessary.
+     *
+     * @param other The store to copy from.
+     * @param from The position of the first edge to copy.
+     * @param to The position after the last edge to copy.
+     */
+    void addAll(EdgeStore other, int from, int to) {
+        if (from < 0 || to > other.size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of size " + other.size);
+        }
+        int count = to - from;
+        while (cost.length - size < count) {
+            grow();
+        }
+        System.arraycopy(other.node1, from, node1, size, count);
+        System.arraycopy(other.node2, from, node2, size, count);
+        System.arraycopy(other.cost, from, cost, size, count);
+        size += count;
+    }
+
+    /**
+     * Gets the number of edges in the store.
+     *
+     * @return The number of edges.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the store contains no edges.
+     *
+     * @return {@code true} if there are no edges.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the first node of the edge at the given position.
+     *
+     * @param index The position of the edge.
+     * @return The identifier of the first node.
+     */
+    public int getNode1(int index) {
+        checkIndex(index);
+        return node1[index];
+    }
+
+    /**
+     * Gets the second node of the edge at the given position.
+     *
+     * @param index The position of the edge.
+     * @return The identifier of the second node.
+     */
+    public int getNode2(int index) {
+        checkIndex(index);
+        return node2[index];
+    }
+
+    /**
+     * Gets the cost of the edge at the given position.
+     *
+     * @param index The position of the edge.
+     * @return The cost of the edge.
+     */
+    public int getCost(int index) {
+        checkIndex(index);
+        return cost[index];
+    }
+
+    /**
+     * Replaces the endpoints of the edge at the given position, keeping its cost.
+     *
+     * @param index The position of the edge.
+     * @param from The new identifier of the first node.
+     * @param to The new identifier of the second node.
+     */
+    void setNodes(int index, int from, int to) {
+        checkIndex(index);
+        node1[index] = from;
+        node2[index] = to;
+    }
+
+    /**
+     * Sums the costs of all edges in the store.
+     * The sum is accumulated as a {@code long} so that large trees cannot overflow.
+     *
+     * @return The total cost of the stored edges.
+     */
+    public long totalCost() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += cost[i];
+        }
+        return total;
+    }
+
+    /**
+     * Finds the largest node identifier referenced by any edge.
+     *
+     * @return The largest node identifier, or -1 if the store is empty.
+     */
+    public int maxNodeId() {
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, Math.max(node1[i], node2[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Converts the stored edges into a list of {@link NetworkConnection} objects, preserving order.
+     *
+     * @return A new list with one connection per stored edge.
+     */
+    public List<NetworkConnection> toConnections() {
+        List<NetworkConnection> connections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            connections.add(new NetworkConnection(node1[i], node2[i], cost[i]));
+        }
+        return connections;
+    }
+
+    /**
+     * Returns the backing cost column. Only the first {@link #size()} entries are meaningful.
+     * The array is shared, not copied, so callers must not modify it.
+     *
+     * @return The backing cost array.
+     */
+    int[] costs() {
+        return cost;
+    }
+
+    /**
+     * Grows the backing arrays by roughly half of their current length.
+     */
+    private void grow() {
+        int newCapacity = Math.max(DEFAULT_CAPACITY, cost.length + (cost.length >> 1));
+        node1 = Arrays.copyOf(node1, newCapacity);
+        node2 = Arrays.copyOf(node2, newCapacity);
+        cost = Arrays.copyOf(cost, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
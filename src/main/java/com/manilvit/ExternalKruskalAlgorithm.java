@@ -0,0 +1,243 @@
+package com.manilvit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Kruskal's algorithm for networks whose edge list does not fit in the heap.
+ * <p>
+ * The input is parsed in batches. Each batch is sorted by cost and spilled to a run file in a temporary directory,
+ * so only one batch is in memory at a time. A k-way merge then reads the runs back in cost order and feeds them to
+ * the Union-Find. Besides one batch, memory holds the node identifier mapping, the Union-Find arrays, one read
+ * buffer per run and the MST itself, all proportional to the number of nodes rather than edges.
+ */
+public final class ExternalKruskalAlgorithm {
+
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+    private static final int MIN_READ_BUFFER_SIZE = 1 << 12;
+
+    /**
+     * The most runs merged at once; more are first merged into longer runs, to bound open files and read buffers.
+     */
+    private static final int MAX_MERGE_WIDTH = 256;
+
+    /**
+     * The number of heap bytes one edge of a batch takes while it is parsed, sorted and written.
+     */
+    private static final int BATCH_BYTES_PER_EDGE = 48;
+
+    private ExternalKruskalAlgorithm() {
+    }
+
+    /**
+     * Chooses a batch size that uses about an eighth of the maximum heap.
+     *
+     * @return The number of edges per sorted run.
+     */
+    public static int defaultRunEdges() {
+        long budget = Runtime.getRuntime().maxMemory() / 8 / BATCH_BYTES_PER_EDGE;
+        return (int) Math.max(1 << 14, Math.min(1 << 24, budget));
+    }
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a network file while holding at most {@code runEdges} edges in memory.
+     * Node identifiers may be arbitrary ints; the result uses the identifiers of the input.
+     *
+     * @param input The content of the network file, in any format {@link NetworkObjectParser#parseEdges(InputStream, long)} accepts; it is not closed.
+     * @param expectedBytes The length of the input if known, or -1.
+     * @param spillDirectory The directory in which to create the temporary run files, such as {@code /tmp}.
+     * @param runEdges The number of edges per sorted run.
+     * @param metrics Where to record "SpillTime", "MergeTime", "SpillRuns", "Edges" and "Nodes", or {@code null}.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     * @throws IOException If reading, parsing or spilling fails.
+     */
+    public static EdgeStore findMinimumSpanningTree(InputStream input, long expectedBytes, Path spillDirectory,
+                                                    int runEdges, PhaseMetrics metrics) throws IOException {
+        Files.createDirectories(spillDirectory);
+        Path runDirectory = Files.createTempDirectory(spillDirectory, "mst-runs");
+        try {
+            long spillStart = System.nanoTime();
+            NodeIdCompactor nodeIds = new NodeIdCompactor(NodeIdCompactor.INITIAL_NODES);
+            List<Path> runs = new ArrayList<>();
+            long edgeCount = NetworkObjectParser.parseEdgeBatches(input, expectedBytes, runEdges,
+                    batch -> runs.add(spillRun(batch, nodeIds, runDirectory, runs.size())));
+            long mergeStart = System.nanoTime();
+
+            EdgeStore mst = mergeRuns(runs, nodeIds.nodeCount(), runDirectory);
+            if (metrics != null) {
+                metrics.addTime("SpillTime", mergeStart - spillStart);
+                metrics.addTime("MergeTime", System.nanoTime() - mergeStart);
+                metrics.addCount("SpillRuns", runs.size());
+                metrics.addCount("Edges", edgeCount);
+                metrics.addCount("Nodes", nodeIds.nodeCount());
+            }
+            return nodeIds.restore(mst);
+        } finally {
+            deleteRunDirectory(runDirectory);
+        }
+    }
+
+    /**
+     * Maps a batch to dense node identifiers, sorts it by cost and writes it as a run of (cost, node1, node2) records.
+     */
+    private static Path spillRun(EdgeStore batch, NodeIdCompactor nodeIds, Path runDirectory, int runIndex) throws IOException {
+        int[] order = RadixSort.sortedOrder(batch.costs(), batch.size());
+        Path run = runDirectory.resolve("run-" + runIndex + ".bin");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE))) {
+            for (int index : order) {
+                output.writeInt(batch.getCost(index));
+                output.writeInt(nodeIds.denseId(batch.getNode1(index)));
+                output.writeInt(nodeIds.denseId(batch.getNode2(index)));
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merges the sorted runs and runs Kruskal's algorithm over the merged order, stopping once the tree is complete.
+     */
+    private static EdgeStore mergeRuns(List<Path> runs, int numNodes, Path runDirectory) throws IOException {
+        // Merge passes until few enough runs are left to read them all at once
+        int pass = 0;
+        while (runs.size() > MAX_MERGE_WIDTH) {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += MAX_MERGE_WIDTH) {
+                List<Path> group = runs.subList(from, Math.min(runs.size(), from + MAX_MERGE_WIDTH));
+                Path run = runDirectory.resolve("merge-" + pass + "-" + merged.size() + ".bin");
+                try (RunMerger merger = new RunMerger(group);
+                     DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE))) {
+                    for (RunReader head = merger.next(); head != null; head = merger.next()) {
+                        output.writeInt(head.cost);
+                        output.writeInt(head.node1);
+                        output.writeInt(head.node2);
+                    }
+                }
+                for (Path done : group) {
+                    Files.delete(done);
+                }
+                merged.add(run);
+            }
+            runs = merged;
+            pass++;
+        }
+
+        EdgeStore mst = new EdgeStore(Math.max(0, numNodes - 1));
+        KruskalAlgorithm.UnionFind uf = new KruskalAlgorithm.UnionFind(numNodes);
+        try (RunMerger merger = new RunMerger(runs)) {
+            RunReader head;
+            while (mst.size() < numNodes - 1 && (head = merger.next()) != null) {
+                if (uf.find(head.node1) != uf.find(head.node2)) {
+                    uf.union(head.node1, head.node2);
+                    mst.add(head.node1, head.node2, head.cost);
+                }
+            }
+        }
+        return mst;
+    }
+
+    private static void deleteRunDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Yields the records of several sorted runs in cost order.
+     */
+    private static final class RunMerger implements AutoCloseable {
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heads;
+        private RunReader current;
+
+        RunMerger(List<Path> runs) throws IOException {
+            heads = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparingInt(r -> r.cost));
+            // Share a slice of the heap between the read buffers of all runs
+            int bufferSize = (int) Math.max(MIN_READ_BUFFER_SIZE,
+                    Math.min(RUN_BUFFER_SIZE, Runtime.getRuntime().maxMemory() / 16 / Math.max(1, runs.size())));
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run, bufferSize);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Moves to the next record in cost order.
+         *
+         * @return The run positioned at the record, valid until the next call, or {@code null} when all runs are done.
+         */
+        RunReader next() throws IOException {
+            if (current != null && current.advance()) {
+                heads.add(current);
+            }
+            current = heads.poll();
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                reader.input.close();
+            }
+        }
+    }
+
+    /**
+     * Reads one sorted run record by record.
+     */
+    private static final class RunReader {
+        private final DataInputStream input;
+        private int cost;
+        private int node1;
+        private int node2;
+
+        RunReader(Path run, int bufferSize) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferSize));
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return {@code false} at the end of the run.
+         */
+        boolean advance() throws IOException {
+            try {
+                cost = input.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            node1 = input.readInt();
+            node2 = input.readInt();
+            return true;
+        }
+    }
+}
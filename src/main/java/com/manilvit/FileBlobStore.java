@@ -0,0 +1,61 @@
+package com.manilvit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link BlobStore} backed by a local directory, for local runs and as a filesystem stand-in for S3 in tests.
+ * Keys may contain '/' and are mapped to subdirectories.
+ */
+public class FileBlobStore implements BlobStore {
+
+    private final Path root;
+
+    /**
+     * Constructs a store rooted at the given directory, which is created on first write.
+     *
+     * @param root The directory holding the objects.
+     */
+    public FileBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        try {
+            return Files.readAllBytes(resolve(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Write to a temporary file first, so readers never see a partially written object
+        Path temp = Files.createTempFile(target.getParent(), ".blob", ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String location(String key) {
+        return resolve(key).toUri().toString();
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root.normalize())) {
+            throw new IllegalArgumentException("Key escapes the store directory: " + key);
+        }
+        return path;
+    }
+}
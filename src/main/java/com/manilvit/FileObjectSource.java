@@ -0,0 +1,43 @@
+package com.manilvit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An {@link ObjectSource} backed by a local directory, as a filesystem stand-in for S3.
+ * The object {@code key} of {@code bucket} is the file {@code root/bucket/key}; keys may contain '/'.
+ */
+public class FileObjectSource implements ObjectSource {
+
+    private final Path root;
+
+    /**
+     * Constructs a source rooted at the given directory, which holds one subdirectory per bucket.
+     *
+     * @param root The directory holding the buckets.
+     */
+    public FileObjectSource(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public Content open(String bucket, String key) throws IOException {
+        Path file = resolve(bucket, key);
+        return new Content(Files.newInputStream(file), Files.size(file));
+    }
+
+    @Override
+    public ParallelRangeParser.RangeReader ranges(String bucket, String key, String eTag) {
+        return ParallelRangeParser.file(resolve(bucket, key));
+    }
+
+    private Path resolve(String bucket, String key) {
+        Path directory = root.resolve(bucket).normalize();
+        Path path = directory.resolve(key).normalize();
+        if (!directory.startsWith(root.normalize()) || !path.startsWith(directory)) {
+            throw new IllegalArgumentException("Object escapes the source directory: " + bucket + "/" + key);
+        }
+        return path;
+    }
+}
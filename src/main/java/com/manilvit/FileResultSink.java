@@ -0,0 +1,54 @@
+package com.manilvit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link ResultSink} that appends every message as one line to a local file (JSON Lines), as a filesystem
+ * stand-in for the SQS result queue. The messages of one call are written together, so concurrent callers never
+ * interleave within a line.
+ */
+public class FileResultSink implements ResultSink {
+
+    private final Path file;
+
+    /**
+     * Constructs a sink; the file and its directory are created on first write.
+     *
+     * @param file The file to append to.
+     */
+    public FileResultSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized Map<Integer, String> send(List<String> messages) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String message : messages) {
+                    writer.write(message);
+                    writer.newLine();
+                }
+            }
+            return Map.of();
+        } catch (IOException e) {
+            Map<Integer, String> failures = new TreeMap<>();
+            for (int i = 0; i < messages.size(); i++) {
+                failures.put(i, e.toString());
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.manilvit;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class implements the Filter-Kruskal variant of Kruskal's algorithm to find the Minimum Spanning Tree (MST).
+ * Instead of sorting every edge up front, the edges are partitioned quicksort-style around a pivot cost.
+ * The light part is solved first; afterwards every heavy edge whose endpoints are already connected is filtered out
+ * before the heavy part is processed, and the whole run stops as soon as the tree has {@code numNodes - 1} edges.
+ * On dense graphs most heavy edges are discarded this way without ever being sorted.
+ */
+public class FilterKruskalAlgorithm {
+
+    /**
+     * The number of edges at or below which a partition is radix-sorted and scanned like plain Kruskal.
+     */
+    private static final int BASE_CASE_SIZE = 1 << 12;
+
+    private final EdgeStore edges;
+    private final int[] order;
+    private final int targetSize;
+    private final KruskalAlgorithm.UnionFind uf;
+    private final EdgeStore mst;
+
+    private FilterKruskalAlgorithm(EdgeStore edges, int numNodes) {
+        this.edges = edges;
+        this.order = new int[edges.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.targetSize = Math.max(0, numNodes - 1);
+        this.uf = new KruskalAlgorithm.UnionFind(numNodes);
+        this.mst = new EdgeStore(Math.min(edges.size(), targetSize));
+    }
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a graph using Filter-Kruskal.
+     * The result has the same total cost as {@link KruskalAlgorithm#findMinimumSpanningTree(EdgeStore, int)}.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+        FilterKruskalAlgorithm algorithm = new FilterKruskalAlgorithm(edges, numNodes);
+        algorithm.solve(0, edges.size());
+        return algorithm.mst;
+    }
+
+    /**
+     * Processes the edges at positions {@code [from, to)} of {@link #order} in ascending cost order.
+     * The light part is handled recursively, the heavy part iteratively, so the stack only grows with the light side.
+     */
+    private void solve(int from, int to) {
+        while (!isComplete() && from < to) {
+            if (to - from <= BASE_CASE_SIZE) {
+                kruskal(from, to);
+                return;
+            }
+
+            // Three-way partition into [from, lessEnd) < pivot, [lessEnd, greaterStart) == pivot, [greaterStart, to) > pivot
+            int pivot = pickPivot(from, to);
+            int lessEnd = from;
+            int greaterStart = to;
+            int i = from;
+            while (i < greaterStart) {
+                int cost = edges.getCost(order[i]);
+                if (cost < pivot) {
+                    swap(i++, lessEnd++);
+                } else if (cost > pivot) {
+                    swap(i, --greaterStart);
+                } else {
+                    i++;
+                }
+            }
+
+            solve(from, lessEnd);
+            // Edges with the pivot cost need no sorting among themselves
+            for (int j = lessEnd; j < greaterStart && !isComplete(); j++) {
+                tryAdd(order[j]);
+            }
+            if (isComplete()) {
+                return;
+            }
+
+            from = filter(greaterStart, to);
+        }
+    }
+
+    /**
+     * Radix-sorts a small partition by cost and adds its edges in order, stopping once the tree is complete.
+     */
+    private void kruskal(int from, int to) {
+        int size = to - from;
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = edges.getCost(order[from + i]);
+        }
+        for (int position : RadixSort.sortedOrder(keys, size)) {
+            if (isComplete()) {
+                return;
+            }
+            tryAdd(order[from + position]);
+        }
+    }
+
+    /**
+     * Removes the edges of {@code [from, to)} whose endpoints are already connected.
+     * The surviving edges are moved to the end of the range.
+     *
+     * @return The start of the surviving edges.
+     */
+    private int filter(int from, int to) {
+        int kept = to;
+        for (int i = to - 1; i >= from; i--) {
+            int index = order[i];
+            if (uf.find(edges.getNode1(index)) != uf.find(edges.getNode2(index))) {
+                order[--kept] = index;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Picks the median cost of three random edges in the range as the pivot.
+     */
+    private int pickPivot(int from, int to) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = edges.getCost(order[random.nextInt(from, to)]);
+        int b = edges.getCost(order[random.nextInt(from, to)]);
+        int c = edges.getCost(order[random.nextInt(from, to)]);
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private void tryAdd(int index) {
+        int node1 = edges.getNode1(index);
+        int node2 = edges.getNode2(index);
+        // If nodes are not in the same set, add the edge to the MST and union the nodes
+        if (uf.find(node1) != uf.find(node2)) {
+            uf.union(node1, node2);
+            mst.add(node1, node2, edges.getCost(index));
+        }
+    }
+
+    private boolean isComplete() {
+        return mst.size() >= targetSize;
+    }
+
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+}
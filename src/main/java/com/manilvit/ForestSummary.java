@@ -0,0 +1,105 @@
+package com.manilvit;
+
+/**
+ * The trees of a minimum spanning forest: how many there are, and the cost and edge count of each.
+ * A graph is connected exactly when its MST is a single tree, so this tells a consumer whether, and how, the
+ * network falls apart into regions. It is computed from the forest alone, so cached and delta results have it too.
+ * Trees are ordered by descending edge count, and trees of the same size by their first edge in the forest.
+ * Nodes without any link in the forest, such as a node that only has a self-loop, belong to no tree.
+ */
+public final class ForestSummary {
+
+    private final long[] costs;
+    private final int[] edgeCounts;
+
+    private ForestSummary(long[] costs, int[] edgeCounts) {
+        this.costs = costs;
+        this.edgeCounts = edgeCounts;
+    }
+
+    /**
+     * Splits a forest into its trees.
+     *
+     * @param forest The edges of a minimum spanning forest, with any node identifiers; it must contain no cycle.
+     * @return The summary of the trees.
+     */
+    public static ForestSummary of(EdgeStore forest) {
+        // A forest of m edges has at most 2m nodes
+        IntIntHashMap denseIds = new IntIntHashMap(Math.min(2 * forest.size(), 1 << 24));
+        KruskalAlgorithm.UnionFind uf = new KruskalAlgorithm.UnionFind(2 * forest.size());
+        int[] treeOfEdge = new int[forest.size()]; // First the dense id of the first node of each edge, then its tree
+        int nodeCount = 0;
+        for (int i = 0; i < forest.size(); i++) {
+            int node1 = denseIds.putIfAbsent(forest.getNode1(i), nodeCount);
+            if (node1 == nodeCount) {
+                nodeCount++;
+            }
+            int node2 = denseIds.putIfAbsent(forest.getNode2(i), nodeCount);
+            if (node2 == nodeCount) {
+                nodeCount++;
+            }
+            uf.union(node1, node2);
+            treeOfEdge[i] = node1;
+        }
+
+        // Number the trees in order of their first edge, then total each one
+        int[] treeOfRoot = new int[nodeCount];
+        int treeCount = 0;
+        for (int i = 0; i < forest.size(); i++) {
+            int root = uf.find(treeOfEdge[i]);
+            if (treeOfRoot[root] == 0) {
+                treeOfRoot[root] = ++treeCount; // 0 means not numbered yet
+            }
+            treeOfEdge[i] = treeOfRoot[root] - 1;
+        }
+        long[] costs = new long[treeCount];
+        int[] edgeCounts = new int[treeCount];
+        for (int i = 0; i < forest.size(); i++) {
+            costs[treeOfEdge[i]] += forest.getCost(i);
+            edgeCounts[treeOfEdge[i]]++;
+        }
+
+        // The sort is stable, so trees of the same size stay in order of their first edge
+        int[] negatedCounts = new int[treeCount];
+        for (int t = 0; t < treeCount; t++) {
+            negatedCounts[t] = -edgeCounts[t];
+        }
+        int[] order = RadixSort.sortedOrder(negatedCounts, treeCount);
+        long[] sortedCosts = new long[treeCount];
+        int[] sortedEdgeCounts = new int[treeCount];
+        for (int t = 0; t < treeCount; t++) {
+            sortedCosts[t] = costs[order[t]];
+            sortedEdgeCounts[t] = edgeCounts[order[t]];
+        }
+        return new ForestSummary(sortedCosts, sortedEdgeCounts);
+    }
+
+    /**
+     * Gets the number of trees, which is the number of connected components of the graph that have a link.
+     *
+     * @return The number of trees.
+     */
+    public int treeCount() {
+        return costs.length;
+    }
+
+    /**
+     * Gets the total cost of a tree.
+     *
+     * @param tree The index of the tree, from 0 for the largest.
+     * @return The sum of the costs of its edges.
+     */
+    public long cost(int tree) {
+        return costs[tree];
+    }
+
+    /**
+     * Gets the number of edges of a tree; the tree spans one node more.
+     *
+     * @param tree The index of the tree, from 0 for the largest.
+     * @return The number of edges of the tree.
+     */
+    public int edgeCount(int tree) {
+        return edgeCounts[tree];
+    }
+}
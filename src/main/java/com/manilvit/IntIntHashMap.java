@@ -0,0 +1,157 @@
+package com.manilvit;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code int} keys to {@code int} values using open addressing with linear probing.
+ * Keys and values live in two flat arrays, so no entry objects or boxed integers are ever created.
+ * Any {@code int} can be a key; {@link Integer#MIN_VALUE} marks free slots and is therefore stored separately.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE_KEY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    /**
+     * Constructs an empty map able to hold the given number of entries without resizing.
+     *
+     * @param expectedSize The number of entries to reserve space for.
+     */
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.min(1 << 30, (long) (expectedSize / LOAD_FACTOR) + 1)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value associated with a key.
+     *
+     * @param key The key to look up.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The associated value, or {@code defaultValue}.
+     */
+    public int get(int key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int slot = slot(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE_KEY) {
+                return defaultValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(int key, int value) {
+        insert(key, value, true);
+    }
+
+    /**
+     * Associates a value with a key unless the key is already present.
+     *
+     * @param key The key.
+     * @param value The value to associate if the key is absent.
+     * @return The value associated with the key after the call: the existing one, or {@code value} if it was inserted.
+     */
+    public int putIfAbsent(int key, int value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Gets the number of entries in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int insert(int key, int value, boolean replace) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            } else if (!replace) {
+                return freeKeyValue;
+            }
+            freeKeyValue = value;
+            return value;
+        }
+        int slot = slot(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return value;
+            }
+            if (k == key) {
+                if (replace) {
+                    values[slot] = value;
+                }
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slot(key);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the key bits (the MurmurHash3 finalizer) so that sequential or strided IDs don't cluster.
+     */
+    private int slot(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
@@ -1,8 +1,5 @@
 package com.manilvit;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 /**
  * This class implements Kruskal's algorithm to find the Minimum Spanning Tree (MST) of a graph.
@@ -12,34 +9,74 @@ public class KruskalAlgorithm {
 
     /**
      * Finds the Minimum Spanning Tree (MST) of a graph using Kruskal's algorithm.
+     * This is a thin adapter over {@link #findMinimumSpanningTree(EdgeStore, int)}.
      *
      * @param edges A list of edges in the graph, where each edge is represented by a {@link NetworkConnection}.
      * @param numNodes The number of nodes in the graph.
      * @return A list of edges that form the MST.
      */
     public static List<NetworkConnection> findMinimumSpanningTree(List<NetworkConnection> edges, int numNodes) {
+        return findMinimumSpanningTree(EdgeStore.fromConnections(edges), numNodes).toConnections();
+    }
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a graph stored in columnar form using Kruskal's algorithm.
+     * Edges are ordered with a radix sort on their integer cost, so no per-edge objects or comparators are involved.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+        return findMinimumSpanningTree(edges, numNodes, null);
+    }
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) like {@link #findMinimumSpanningTree(EdgeStore, int)} and records
+     * "SortTime", "UnionFindTime" and "UnionFindOperations" (finds plus unions).
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @param metrics Where to record the phases, or {@code null}.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes, PhaseMetrics metrics) {
+        long sortStart = System.nanoTime();
         // Sort edges by their cost (weight)
-        List<NetworkConnection> sortedEdges = new ArrayList<>(edges);
-        sortedEdges.sort(Comparator.comparingInt(NetworkConnection::getCost));
+        int[] order = RadixSort.sortedOrder(edges.costs(), edges.size());
+        long unionFindStart = System.nanoTime();
 
         // This will hold the edges of the MST
-        List<NetworkConnection> mst = new ArrayList<>();
+        EdgeStore mst = new EdgeStore(Math.max(0, Math.min(edges.size(), numNodes - 1)));
 
         // Create a UnionFind structure to keep track of connected components
         UnionFind uf = new UnionFind(numNodes);
+        long operations = 0;
 
         // Iterate over the sorted edges and add them to the MST if they don't form a cycle
-        for (NetworkConnection edge : sortedEdges) {
-            int node1 = edge.getNode1();
-            int node2 = edge.getNode2();
+        for (int index : order) {
+            // A spanning tree never has more than numNodes - 1 edges, so the remaining edges can be skipped
+            if (mst.size() == numNodes - 1) {
+                break;
+            }
+            int node1 = edges.getNode1(index);
+            int node2 = edges.getNode2(index);
 
             // If nodes are not in the same set, add the edge to the MST and union the nodes
+            operations += 2;
             if (uf.find(node1) != uf.find(node2)) {
                 uf.union(node1, node2);
-                mst.add(edge);
+                operations++;
+                mst.add(node1, node2, edges.getCost(index));
             }
         }
 
+        if (metrics != null) {
+            metrics.addTime("SortTime", unionFindStart - sortStart);
+            metrics.addTime("UnionFindTime", System.nanoTime() - unionFindStart);
+            metrics.addCount("UnionFindOperations", operations);
+        }
+
         // Return the resulting Minimum Spanning Tree
         return mst;
     }
@@ -48,7 +85,7 @@ public class KruskalAlgorithm {
      * A Union-Find (also known as Disjoint Set) data structure to efficiently handle the merging
      * of disjoint sets and checking if two elements are in the same set.
      */
-    private static class UnionFind {
+    static class UnionFind {
         private int[] parent;
         private int[] rank;
 
@@ -0,0 +1,39 @@
+package com.manilvit;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is created on first use and then reused, safely across threads.
+ * The handler creates its AWS clients this way, so an invocation only pays for the clients it needs.
+ *
+ * @param <T> The type of the value.
+ */
+final class Lazy<T> implements Supplier<T> {
+
+    private final Supplier<T> factory;
+    private volatile T value;
+
+    /**
+     * Constructs a lazy value.
+     *
+     * @param factory Creates the value; called at most once.
+     */
+    Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = factory.get();
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,238 @@
+package com.manilvit;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Runs the whole handler pipeline over a local directory of network files, to size {@code lambda_memory} and estimate
+ * the concurrency a release can sustain without deploying it.
+ * <p>
+ * Every file is processed as its own S3 event by {@link S3EventHandler}, reading it through a
+ * {@link FileObjectSource} and writing the result message to a {@link FileResultSink}, or nowhere. A fixed pool of
+ * workers stands in for concurrently running Lambda instances, each with its own handler. All other settings, such as
+ * {@code MST_ENGINE}, are read from the environment as in Lambda. When the run ends, the runner prints the throughput,
+ * the latency percentiles of the files and the peak heap use. The workers share one heap, so run one worker under the
+ * heap of the planned function to size its memory, and several to see how the pipeline scales with cores:
+ * <pre>
+ *   java -Xmx1g -cp NetworkOptimizer.jar com.manilvit.LocalBatchRunner fixture_data --workers 1 --repeat 10
+ * </pre>
+ */
+public final class LocalBatchRunner {
+
+    private static final String USAGE = "Usage: LocalBatchRunner <directory> [--workers N] [--repeat N] [--output results.jsonl] [--verbose]";
+
+    private LocalBatchRunner() {
+    }
+
+    /**
+     * The outcome of a run.
+     *
+     * @param files The number of files processed, counting every repetition.
+     * @param failures The number of files that failed.
+     * @param bytes The number of bytes read.
+     * @param latencies The time each file took in nanoseconds, in ascending order.
+     * @param elapsed The time the whole run took in nanoseconds.
+     * @param peakHeapBytes The sum of the peak use of every heap pool during the run, which bounds the peak heap use.
+     * @param maxHeapBytes The largest heap the JVM may use.
+     */
+    record Report(int files, int failures, long bytes, long[] latencies, long elapsed, long peakHeapBytes, long maxHeapBytes) {
+
+        /**
+         * Gets a latency percentile by the nearest-rank method.
+         *
+         * @param percent The percentile, from 0 to 100.
+         * @return The latency in nanoseconds, or 0 if no file was processed.
+         */
+        long percentile(double percent) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percent / 100 * latencies.length);
+            return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))];
+        }
+    }
+
+    /**
+     * Runs the pipeline over a directory and prints the report; exits with 1 if any file failed.
+     *
+     * @param args The directory, then the options of {@link #USAGE}.
+     * @throws Exception If the directory cannot be read or the run is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        Path directory = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int repeat = 1;
+        Path output = null;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers" -> workers = Integer.parseInt(optionValue(args, ++i));
+                case "--repeat" -> repeat = Integer.parseInt(optionValue(args, ++i));
+                case "--output" -> output = Path.of(optionValue(args, ++i));
+                case "--verbose" -> verbose = true;
+                default -> {
+                    if (directory != null || args[i].startsWith("--")) {
+                        throw new IllegalArgumentException(USAGE);
+                    }
+                    directory = Path.of(args[i]);
+                }
+            }
+        }
+        if (directory == null || workers < 1 || repeat < 1) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        ResultSink sink = output != null ? new FileResultSink(output) : messages -> Map.of();
+        Report report = run(directory, workers, repeat, sink, verbose);
+        double seconds = report.elapsed() / 1e9;
+        System.out.printf("Processed %d files (%d failed) in %.2f s with %d workers%n",
+                report.files(), report.failures(), seconds, workers);
+        System.out.printf("Throughput: %.1f files/s, %.1f MB/s%n", report.files() / seconds, report.bytes() / 1e6 / seconds);
+        System.out.printf("Latency: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n", report.percentile(50) / 1e6,
+                report.percentile(90) / 1e6, report.percentile(99) / 1e6, report.percentile(100) / 1e6);
+        System.out.printf("Peak heap: %d MiB of %d MiB%n", report.peakHeapBytes() >> 20, report.maxHeapBytes() >> 20);
+        if (report.failures() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Processes every file under a directory, and all of them again for each repetition.
+     * The directory is the bucket, and the path of a file relative to it is the key.
+     *
+     * @param directory The directory holding the network files.
+     * @param workers The number of files processed at the same time.
+     * @param repeat How many times every file is processed.
+     * @param sink Where the result messages go.
+     * @param verbose Whether to print the handler's log, including the metrics of every file, to standard error.
+     * @return The report of the run.
+     * @throws IOException If the directory cannot be listed.
+     * @throws InterruptedException If the run is interrupted.
+     */
+    static Report run(Path directory, int workers, int repeat, ResultSink sink, boolean verbose)
+            throws IOException, InterruptedException {
+        Path root = directory.toAbsolutePath().normalize();
+        String bucket = root.getFileName().toString();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).sorted().toList();
+        }
+        long bytes = 0;
+        List<S3EventNotification.S3EventNotificationRecord> records = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String key = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            long size = Files.size(file);
+            bytes += size;
+            // No ETag, so every file is solved rather than taken from the result cache
+            records.add(new S3EventNotification.S3EventNotificationRecord(null, "ObjectCreated:Put", "aws:s3", null, null,
+                    null, null, new S3EventNotification.S3Entity(null,
+                    new S3EventNotification.S3BucketEntity(bucket, null, null),
+                    new S3EventNotification.S3ObjectEntity(key, size, null, null, null), null), null));
+        }
+
+        ObjectSource source = new FileObjectSource(root.getParent());
+        ThreadLocal<S3EventHandler> handlers = ThreadLocal.withInitial(() -> new S3EventHandler(source, sink, bucket));
+        Context context = new LocalContext(verbose);
+        int tasks = records.size() * repeat;
+        long[] latencies = new long[tasks];
+        boolean[] failed = new boolean[tasks];
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            for (int task = 0; task < tasks; task++) {
+                int index = task;
+                futures.add(executor.submit(() -> {
+                    long fileStart = System.nanoTime();
+                    String[] failures = handlers.get().processRecords(List.of(records.get(index % records.size())), context);
+                    latencies[index] = System.nanoTime() - fileStart;
+                    failed[index] = failures[0] != null;
+                }));
+            }
+        } // Closing the executor waits for every file
+        long elapsed = System.nanoTime() - start;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unexpected error processing files", e.getCause());
+            }
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        int failures = 0;
+        for (boolean fileFailed : failed) {
+            failures += fileFailed ? 1 : 0;
+        }
+        Arrays.sort(latencies);
+        return new Report(tasks, failures, bytes * repeat, latencies, elapsed, peakHeap, Runtime.getRuntime().maxMemory());
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        return args[index];
+    }
+
+    /**
+     * A Lambda context for local runs, whose logger writes to standard error or nowhere.
+     */
+    private static final class LocalContext implements Context {
+        private final LambdaLogger logger;
+
+        LocalContext(boolean verbose) {
+            logger = new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    if (verbose) {
+                        System.err.println(message);
+                    }
+                }
+
+                @Override
+                public void log(byte[] message) {
+                    log(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+
+        @Override public String getAwsRequestId() { return "local"; }
+        @Override public String getLogGroupName() { return "local"; }
+        @Override public String getLogStreamName() { return "local"; }
+        @Override public String getFunctionName() { return "NetworkOptimizer"; }
+        @Override public String getFunctionVersion() { return "$LATEST"; }
+        @Override public String getInvokedFunctionArn() { return "local"; }
+        @Override public CognitoIdentity getIdentity() { return null; }
+        @Override public ClientContext getClientContext() { return null; }
+        @Override public int getRemainingTimeInMillis() { return Integer.MAX_VALUE; }
+        @Override public int getMemoryLimitInMB() { return (int) (Runtime.getRuntime().maxMemory() >> 20); }
+        @Override public LambdaLogger getLogger() { return logger; }
+    }
+}
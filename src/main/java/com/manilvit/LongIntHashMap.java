@@ -0,0 +1,231 @@
+package com.manilvit;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code long} keys to {@code int} values using open addressing with linear probing.
+ * It is typically keyed by a node pair packed into one {@code long}, so no pair objects or boxed values are created.
+ * Removal uses backward-shift deletion, which keeps probe sequences short without tombstones.
+ * {@link Long#MIN_VALUE} marks free slots and is therefore stored separately.
+ */
+public class LongIntHashMap {
+
+    private static final long FREE_KEY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    /**
+     * Constructs an empty map able to hold the given number of entries without resizing.
+     *
+     * @param expectedSize The number of entries to reserve space for.
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.min(1 << 30, (long) (expectedSize / LOAD_FACTOR) + 1)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Packs an unordered pair of ints into a key, so that {@code (a, b)} and {@code (b, a)} map to the same entry.
+     *
+     * @param a One element of the pair.
+     * @param b The other element of the pair.
+     * @return The packed key.
+     */
+    public static long pairKey(int a, int b) {
+        int min = Math.min(a, b);
+        int max = Math.max(a, b);
+        return ((long) min << 32) | (max & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the value associated with a key.
+     *
+     * @param key The key to look up.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The associated value, or {@code defaultValue}.
+     */
+    public int get(long key, int defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(long key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associates a value with a key unless the key is already present, probing only once.
+     *
+     * @param key The key.
+     * @param value The value to associate if the key is absent.
+     * @return The value associated with the key after the call: the existing one, or {@code value} if it was inserted.
+     */
+    public int putIfAbsent(long key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                freeKeyValue = value;
+                size++;
+            }
+            return freeKeyValue;
+        }
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes the entry for a key.
+     *
+     * @param key The key to remove.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The value that was associated with the key, or {@code defaultValue}.
+     */
+    public int remove(long key, int defaultValue) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return defaultValue;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        int removed = values[slot];
+        size--;
+
+        // Shift later entries of the probe sequence back into the gap, so lookups never stop early
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next]);
+            // Move the entry if its home slot is not cyclically within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        return removed;
+    }
+
+    /**
+     * Gets the number of entries in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == FREE_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slot(key);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the key bits (the MurmurHash3 64-bit finalizer) so that packed pairs don't cluster.
+     */
+    private int slot(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
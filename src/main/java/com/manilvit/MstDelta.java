@@ -0,0 +1,109 @@
+package com.manilvit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses delta files, which describe changes to a previously uploaded network.
+ * <p>
+ * A delta file is uploaded under the key of the network it changes plus a {@code .delta} suffix, optionally followed
+ * by a numeric sequence tag (for example {@code net.txt.delta} or {@code net.txt.delta.0042}). Other keys containing
+ * {@code .delta}, such as {@code roads.delta.txt}, are ordinary networks. Each non-blank line is one record:
+ * <pre>
+ *   add    node1 node2 cost   adds a link, or sets its cost if the link exists
+ *   remove node1 node2        removes the link between two nodes
+ *   cost   node1 node2 cost   changes the cost of an existing link
+ * </pre>
+ */
+public final class MstDelta {
+
+    private static final String DELTA_SUFFIX = ".delta";
+
+    /**
+     * The kind of change a delta record describes.
+     */
+    public enum Operation {
+        ADD, REMOVE, COST
+    }
+
+    /**
+     * One change to the network.
+     *
+     * @param operation The kind of change.
+     * @param node1 The identifier of the first node.
+     * @param node2 The identifier of the second node.
+     * @param cost The new cost; ignored for {@link Operation#REMOVE}.
+     */
+    public record Update(Operation operation, int node1, int node2, int cost) {
+    }
+
+    private MstDelta() {
+    }
+
+    /**
+     * Gets the key of the network a delta file applies to.
+     *
+     * @param objectKey The key of an uploaded object.
+     * @return The key of the base network, or {@code null} if the object is not a delta file.
+     */
+    public static String baseKey(String objectKey) {
+        String deltaKey = objectKey;
+        int tagStart = objectKey.lastIndexOf('.') + 1;
+        if (tagStart > 0 && tagStart < objectKey.length() && isDigits(objectKey, tagStart)) {
+            deltaKey = objectKey.substring(0, tagStart - 1); // Strip the sequence tag
+        }
+        if (!deltaKey.endsWith(DELTA_SUFFIX) || deltaKey.length() == DELTA_SUFFIX.length()
+                || deltaKey.charAt(deltaKey.length() - DELTA_SUFFIX.length() - 1) == '/') {
+            return null;
+        }
+        return deltaKey.substring(0, deltaKey.length() - DELTA_SUFFIX.length());
+    }
+
+    private static boolean isDigits(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the records of a delta file.
+     *
+     * @param input The content of the delta file; it is not closed.
+     * @return The updates in file order.
+     * @throws IOException If reading fails or a line has an invalid format.
+     */
+    public static List<Update> parse(InputStream input) throws IOException {
+        List<Update> updates = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            try {
+                Operation operation = Operation.valueOf(parts[0].toUpperCase(Locale.ROOT));
+                int expectedParts = operation == Operation.REMOVE ? 3 : 4;
+                if (parts.length != expectedParts) {
+                    throw new IOException("Invalid delta line: " + line);
+                }
+                int cost = operation == Operation.REMOVE ? 0 : Integer.parseInt(parts[3]);
+                updates.add(new Update(operation, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), cost));
+            } catch (IllegalArgumentException e) {
+                // Covers unknown operations as well as NumberFormatException
+                throw new IOException("Invalid delta line: " + line, e);
+            }
+        }
+        return updates;
+    }
+}
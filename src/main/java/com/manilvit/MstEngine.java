@@ -0,0 +1,123 @@
+package com.manilvit;
+
+import java.util.Locale;
+
+/**
+ * The available algorithms for computing a Minimum Spanning Tree (MST) over an {@link EdgeStore}.
+ * All engines produce a tree with the same total cost; they differ only in how they get there.
+ */
+public enum MstEngine {
+
+    /**
+     * Sequential Kruskal's algorithm over radix-sorted edges.
+     */
+    KRUSKAL {
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+            return KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+        }
+
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes, PhaseMetrics metrics) {
+            return KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes, metrics);
+        }
+    },
+
+    /**
+     * Filter-Kruskal: partitions edges around pivot costs, filters heavy edges that would form a cycle
+     * and stops as soon as the tree is complete. Pays off on dense graphs.
+     */
+    FILTER_KRUSKAL {
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+            return FilterKruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+        }
+    },
+
+    /**
+     * Parallel Borůvka's algorithm on the ForkJoin common pool.
+     */
+    BORUVKA {
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+            return BoruvkaAlgorithm.findMinimumSpanningTree(edges, numNodes);
+        }
+    },
+
+    /**
+     * Prim's algorithm with an indexed binary heap over a CSR adjacency. Never chosen automatically: building the
+     * adjacency alone costs about as much as Kruskal's radix sort, and Filter-Kruskal is faster on dense graphs.
+     */
+    PRIM {
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+            return PrimAlgorithm.findMinimumSpanningTree(edges, numNodes);
+        }
+
+        @Override
+        public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes, PhaseMetrics metrics) {
+            return PrimAlgorithm.findMinimumSpanningTree(edges, numNodes, metrics);
+        }
+    };
+
+    /**
+     * The edge count from which {@link #select} prefers the parallel engine when none is configured.
+     */
+    public static final int DEFAULT_PARALLEL_EDGE_THRESHOLD = 1_000_000;
+
+    /**
+     * The average node degree ({@code 2E/V}) from which {@link #select} treats a graph as dense. Filter-Kruskal
+     * overtakes Kruskal from about 32 and is two to three times faster from 256.
+     */
+    public static final int DENSE_AVERAGE_DEGREE = 32;
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a graph with this engine.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @return A new {@link EdgeStore} holding the edges of the MST.
+     */
+    public abstract EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes);
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) with this engine and records the phases the engine distinguishes.
+     * Engines without separate phases record nothing; the caller times the whole call.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @param metrics Where to record the phases, or {@code null}.
+     * @return A new {@link EdgeStore} holding the edges of the MST.
+     */
+    public EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes, PhaseMetrics metrics) {
+        return findMinimumSpanningTree(edges, numNodes);
+    }
+
+    /**
+     * Chooses the engine for a graph from its edge and node counts.
+     * A configured engine name (case-insensitive, such as "filter_kruskal") always wins.
+     * Otherwise, or for "auto", Filter-Kruskal is chosen for dense graphs, whose average degree is at least
+     * {@link #DENSE_AVERAGE_DEGREE}, because most of their edges close a cycle and need never be sorted.
+     * Sparser graphs use Borůvka when they have at least {@code parallelEdgeThreshold} edges and more than one
+     * processor is available, and Kruskal in all other cases.
+     *
+     * @param configured The configured engine name, "auto", or {@code null}.
+     * @param edgeCount The number of edges in the graph.
+     * @param nodeCount The number of distinct nodes in the graph.
+     * @param parallelEdgeThreshold The edge count from which the parallel engine is chosen automatically.
+     * @return The engine to use.
+     * @throws IllegalArgumentException If the configured name is not a known engine.
+     */
+    public static MstEngine select(String configured, int edgeCount, int nodeCount, int parallelEdgeThreshold) {
+        if (configured != null && !configured.isBlank() && !"auto".equalsIgnoreCase(configured.trim())) {
+            return valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        }
+        if (nodeCount > 0 && 2L * edgeCount >= (long) DENSE_AVERAGE_DEGREE * nodeCount) {
+            return FILTER_KRUSKAL;
+        }
+        if (edgeCount >= parallelEdgeThreshold && Runtime.getRuntime().availableProcessors() > 1) {
+            return BORUVKA;
+        }
+        return KRUSKAL;
+    }
+}
@@ -0,0 +1,270 @@
+package com.manilvit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the MST result message straight from the columns of an {@link EdgeStore}, without building one map per edge.
+ * The output is the compact JSON the handler has always sent, with the trees of the forest (see {@link ForestSummary})
+ * after the connections, so a consumer can tell whether the network was connected:
+ * <pre>
+ *   {"total_cost":6,"connections":[{"from":1,"to":2,"cost":3},...],
+ *    "component_count":1,"components":[{"total_cost":6,"edge_count":3}],"s3_file_path":"s3://bucket/key"}
+ * </pre>
+ * Since the exact length is known up front, an inline message is written into an array of exactly that size, and a
+ * large result can be streamed into a compressor through a small fixed buffer.
+ */
+public final class MstJsonWriter {
+
+    private static final byte[] TOTAL_COST = ascii("{\"total_cost\":");
+    private static final byte[] CONNECTIONS = ascii(",\"connections\":[");
+    private static final byte[] FROM = ascii("{\"from\":");
+    private static final byte[] TO = ascii(",\"to\":");
+    private static final byte[] COST = ascii(",\"cost\":");
+    private static final byte[] COMPONENT_COUNT = ascii("],\"component_count\":");
+    private static final byte[] COMPONENTS = ascii(",\"components\":[");
+    private static final byte[] EDGE_COUNT = ascii(",\"edge_count\":");
+    private static final byte[] FILE_PATH = ascii("],\"s3_file_path\":");
+    private static final byte[] HEX_DIGITS = ascii("0123456789abcdef");
+
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_EDGE_BYTES = FROM.length + TO.length + COST.length + 3 * 11 + 2; // Ints have up to 11 characters
+    private static final int MAX_COMPONENT_BYTES = TOTAL_COST.length + 20 + EDGE_COUNT.length + 11 + 2; // Longs have up to 20
+
+    private final byte[] buffer;
+    private final OutputStream output;
+    private int position;
+
+    private MstJsonWriter(byte[] buffer, OutputStream output) {
+        this.buffer = buffer;
+        this.output = output;
+    }
+
+    /**
+     * Computes the length of the message without writing it.
+     *
+     * @param mst The edges of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @return The length of the message in UTF-8 bytes.
+     */
+    public static long length(EdgeStore mst, String filePath) {
+        return length(mst, ForestSummary.of(mst), filePath);
+    }
+
+    /**
+     * Computes the length of the message without writing it, with the trees of the MST already known.
+     *
+     * @param mst The edges of the MST.
+     * @param trees The trees of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @return The length of the message in UTF-8 bytes.
+     */
+    public static long length(EdgeStore mst, ForestSummary trees, String filePath) {
+        long length = TOTAL_COST.length + digits(mst.totalCost()) + CONNECTIONS.length
+                + COMPONENT_COUNT.length + digits(trees.treeCount()) + COMPONENTS.length
+                + FILE_PATH.length + stringLength(filePath) + 1;
+        for (int i = 0; i < mst.size(); i++) {
+            length += FROM.length + digits(mst.getNode1(i)) + TO.length + digits(mst.getNode2(i))
+                    + COST.length + digits(mst.getCost(i)) + 1;
+        }
+        for (int t = 0; t < trees.treeCount(); t++) {
+            length += TOTAL_COST.length + digits(trees.cost(t)) + EDGE_COUNT.length + digits(trees.edgeCount(t)) + 1;
+        }
+        // Commas between the connections and between the components
+        return length + Math.max(0, mst.size() - 1) + Math.max(0, trees.treeCount() - 1);
+    }
+
+    /**
+     * Writes the message into an array of exactly its length.
+     *
+     * @param mst The edges of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @return The message as UTF-8 bytes.
+     */
+    public static byte[] toBytes(EdgeStore mst, String filePath) {
+        return toBytes(mst, ForestSummary.of(mst), filePath);
+    }
+
+    /**
+     * Writes the message into an array of exactly its length, with the trees of the MST already known.
+     *
+     * @param mst The edges of the MST.
+     * @param trees The trees of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @return The message as UTF-8 bytes.
+     */
+    public static byte[] toBytes(EdgeStore mst, ForestSummary trees, String filePath) {
+        long length = length(mst, trees, filePath);
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The message is too large for an array: " + length + " bytes.");
+        }
+        MstJsonWriter writer = new MstJsonWriter(new byte[(int) length], null);
+        try {
+            writer.writeMessage(mst, trees, filePath);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Cannot happen without an output stream
+        }
+        return writer.buffer;
+    }
+
+    /**
+     * Streams the message to an output stream.
+     *
+     * @param mst The edges of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @param output The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public static void write(EdgeStore mst, String filePath, OutputStream output) throws IOException {
+        write(mst, ForestSummary.of(mst), filePath, output);
+    }
+
+    /**
+     * Streams the message to an output stream, with the trees of the MST already known.
+     *
+     * @param mst The edges of the MST.
+     * @param trees The trees of the MST.
+     * @param filePath The path of the network file, sent as {@code s3_file_path}.
+     * @param output The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public static void write(EdgeStore mst, ForestSummary trees, String filePath, OutputStream output) throws IOException {
+        MstJsonWriter writer = new MstJsonWriter(new byte[STREAM_BUFFER_SIZE], output);
+        writer.writeMessage(mst, trees, filePath);
+        writer.flush();
+        output.flush();
+    }
+
+    private void writeMessage(EdgeStore mst, ForestSummary trees, String filePath) throws IOException {
+        writeBytes(TOTAL_COST);
+        writeNumber(mst.totalCost());
+        writeBytes(CONNECTIONS);
+        for (int i = 0; i < mst.size(); i++) {
+            ensureCapacity(MAX_EDGE_BYTES);
+            if (i > 0) {
+                buffer[position++] = ',';
+            }
+            writeBytes(FROM);
+            writeNumber(mst.getNode1(i));
+            writeBytes(TO);
+            writeNumber(mst.getNode2(i));
+            writeBytes(COST);
+            writeNumber(mst.getCost(i));
+            buffer[position++] = '}';
+        }
+        writeBytes(COMPONENT_COUNT);
+        writeNumber(trees.treeCount());
+        writeBytes(COMPONENTS);
+        for (int t = 0; t < trees.treeCount(); t++) {
+            ensureCapacity(MAX_COMPONENT_BYTES);
+            if (t > 0) {
+                buffer[position++] = ',';
+            }
+            writeBytes(TOTAL_COST);
+            writeNumber(trees.cost(t));
+            writeBytes(EDGE_COUNT);
+            writeNumber(trees.edgeCount(t));
+            buffer[position++] = '}';
+        }
+        writeBytes(FILE_PATH);
+        writeString(filePath);
+        ensureCapacity(1);
+        buffer[position++] = '}';
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeNumber(long value) throws IOException {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value; // Sums of ints never reach Long.MIN_VALUE
+        }
+        int end = position + digits(value);
+        int index = end;
+        do {
+            buffer[--index] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        position = end;
+    }
+
+    /**
+     * Writes a JSON string with the escapes Jackson uses: quotes, backslashes and control characters.
+     */
+    private void writeString(String value) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = '"';
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            ensureCapacity(6);
+            if (b == '"' || b == '\\') {
+                buffer[position++] = '\\';
+                buffer[position++] = b;
+            } else if (b >= 0 && b < 0x20) {
+                buffer[position++] = '\\';
+                switch (b) {
+                    case '\n' -> buffer[position++] = 'n';
+                    case '\r' -> buffer[position++] = 'r';
+                    case '\t' -> buffer[position++] = 't';
+                    case '\b' -> buffer[position++] = 'b';
+                    case '\f' -> buffer[position++] = 'f';
+                    default -> {
+                        buffer[position++] = 'u';
+                        buffer[position++] = '0';
+                        buffer[position++] = '0';
+                        buffer[position++] = HEX_DIGITS[b >> 4];
+                        buffer[position++] = HEX_DIGITS[b & 0xF];
+                    }
+                }
+            } else {
+                buffer[position++] = b;
+            }
+        }
+        ensureCapacity(1);
+        buffer[position++] = '"';
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (output != null && position + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        long remaining = Math.abs(value);
+        while (remaining >= 10) {
+            remaining /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static long stringLength(String value) {
+        long length = 2;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            if (b == '"' || b == '\\' || b == '\n' || b == '\r' || b == '\t' || b == '\b' || b == '\f') {
+                length += 2;
+            } else if (b >= 0 && b < 0x20) {
+                length += 6;
+            } else {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,136 @@
+package com.manilvit;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lambda function that answers path queries on the MST of a network from its stored {@link MstQueryIndex}, so a
+ * client that only needs a few bottlenecks does not have to download the whole tree and rebuild it.
+ * <p>
+ * The request names the network file and the node pairs:
+ * <pre>
+ *   {"s3_file_path": "s3://bucket/network.txt", "pairs": [[1, 2], [3, 4]]}
+ * </pre>
+ * and the response holds, pair by pair, the most expensive link on the tree path and the cost of the whole path,
+ * or {@code null} where no tree path joins the nodes:
+ * <pre>
+ *   {"s3_file_path": "s3://bucket/network.txt", "bottlenecks": [5, null], "path_costs": [12, null]}
+ * </pre>
+ * The index is written by {@link S3EventHandler} to {@code MST_INDEX_LOCATION}, which this function reads as well.
+ */
+public class MstQueryHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    private static final String S3_SCHEME = "s3://";
+
+    private static final BlobStore defaultStore = createDefaultStore();
+
+    private final BlobStore indexStore;
+
+    /**
+     * Constructs the handler with the store configured by {@code MST_INDEX_LOCATION}.
+     */
+    public MstQueryHandler() {
+        this(defaultStore);
+    }
+
+    /**
+     * Constructs the handler with a given index store.
+     *
+     * @param indexStore The store holding the indexes.
+     */
+    MstQueryHandler(BlobStore indexStore) {
+        this.indexStore = indexStore;
+    }
+
+    /**
+     * Answers a batch of path queries.
+     *
+     * @param input The request, with {@code s3_file_path} and {@code pairs}.
+     * @param context The AWS Lambda context providing information about the execution environment.
+     * @return The response, with {@code bottlenecks} and {@code path_costs} in the order of the pairs.
+     * @throws IllegalArgumentException If the request is malformed or no index exists for the network.
+     * @throws UncheckedIOException If the index cannot be read.
+     */
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        if (indexStore == null) {
+            throw new IllegalStateException("MST_INDEX_LOCATION is not set.");
+        }
+        if (!(input.get("s3_file_path") instanceof String filePath) || !filePath.startsWith(S3_SCHEME)
+                || filePath.indexOf('/', S3_SCHEME.length()) < 0) {
+            throw new IllegalArgumentException("Expected \"s3_file_path\" as s3://bucket/key, got: " + input.get("s3_file_path"));
+        }
+        String path = filePath.substring(S3_SCHEME.length());
+        int slash = path.indexOf('/');
+        int[][] pairs = parsePairs(input.get("pairs"));
+
+        long loadStart = System.nanoTime();
+        MstQueryIndex index;
+        try {
+            index = MstQueryIndex.load(indexStore, MstQueryIndex.keyOf(path.substring(0, slash), path.substring(slash + 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading the index of " + filePath, e);
+        }
+        if (index == null) {
+            throw new IllegalArgumentException("No index is stored for " + filePath);
+        }
+        long loadTime = System.nanoTime() - loadStart;
+
+        long[] bottlenecks = index.bottlenecks(pairs[0], pairs[1]);
+        long[] pathCosts = index.pathCosts(pairs[0], pairs[1]);
+        context.getLogger().log("Answered " + pairs[0].length + " queries on " + index.nodeCount() + " nodes of "
+                + filePath + "; index loaded in " + loadTime / 1_000_000 + " ms.");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("s3_file_path", filePath);
+        response.put("bottlenecks", toJsonValues(bottlenecks));
+        response.put("path_costs", toJsonValues(pathCosts));
+        return response;
+    }
+
+    /**
+     * Reads the pairs of a request into two columns.
+     */
+    private static int[][] parsePairs(Object pairs) {
+        if (!(pairs instanceof List<?> list)) {
+            throw new IllegalArgumentException("Expected \"pairs\" as a list of [node1, node2] pairs.");
+        }
+        int[][] columns = new int[2][list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            if (!(list.get(i) instanceof List<?> pair) || pair.size() != 2
+                    || !(pair.get(0) instanceof Number node1) || !(pair.get(1) instanceof Number node2)) {
+                throw new IllegalArgumentException("Pair " + i + " is not [node1, node2]: " + list.get(i));
+            }
+            columns[0][i] = node1.intValue();
+            columns[1][i] = node2.intValue();
+        }
+        return columns;
+    }
+
+    private static List<Long> toJsonValues(long[] results) {
+        List<Long> values = new ArrayList<>(results.length);
+        for (long result : results) {
+            values.add(result == MstQueryIndex.NO_PATH ? null : result);
+        }
+        return values;
+    }
+
+    private static BlobStore createDefaultStore() {
+        String location = System.getenv("MST_INDEX_LOCATION");
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        return BlobStore.fromLocation(location, new Lazy<>(() -> S3Client.builder()
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .build()));
+    }
+}
@@ -0,0 +1,398 @@
+package com.manilvit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Answers path queries on a minimum spanning forest without the forest being rebuilt: the bottleneck of two nodes,
+ * the most expensive link on the tree path between them, and the total cost of that path.
+ * <p>
+ * Every tree is rooted at its first node and walked breadth-first, so each node knows its parent, the cost of the link
+ * to it, its depth and the cost of its path from the root. Binary lifting then stores, for every node and every power
+ * of two {@code 2^k}, the ancestor {@code 2^k} links up and the most expensive link on the way there. A query lifts
+ * both nodes to their lowest common ancestor in at most {@code 2 log V} steps, so it takes O(log V) time, and the
+ * tables take O(V log V) memory.
+ * <p>
+ * Only the parent links are persisted, in breadth-first order, which is 12 bytes per node; the tables are rebuilt
+ * when the index is loaded. Layout (all integers little-endian):
+ * <pre>
+ *   magic     4 bytes  "NOQI"
+ *   version   1 byte   1
+ *   reserved  3 bytes  0
+ *   count     int32    number of nodes
+ *   ids       count int32 node identifiers, roots before their descendants
+ *   parents   count int32 positions of the parents in ids, or -1 for a root
+ *   costs     count int32 costs of the links to the parents, 0 for a root
+ * </pre>
+ */
+public final class MstQueryIndex {
+
+    /**
+     * The answer for two nodes that no tree path joins: they are in different trees, one of them is in no tree,
+     * or, for a bottleneck, they are the same node. It lies outside the range of any link cost or path cost.
+     */
+    public static final long NO_PATH = Long.MIN_VALUE;
+
+    private static final String INDEX_FILE = "mst.idx";
+    private static final byte[] MAGIC = {'N', 'O', 'Q', 'I'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int NODE_SIZE = 12;
+
+    // The persisted forest, by breadth-first position
+    private final int[] ids;
+    private final int[] parents;
+    private final int[] costs;
+
+    private final IntIntHashMap positions; // Node identifier -> position
+    private final int[] roots;
+    private final int[] depths;
+    private final long[] distances; // Cost of the path from the root
+    private final int[][] ancestors; // ancestors[k][v]: the node 2^k links above v, or the root
+    private final int[][] maxCosts; // maxCosts[k][v]: the most expensive link on the way there
+
+    private MstQueryIndex(int[] ids, int[] parents, int[] costs) {
+        this.ids = ids;
+        this.parents = parents;
+        this.costs = costs;
+        int nodeCount = ids.length;
+
+        positions = new IntIntHashMap(nodeCount);
+        roots = new int[nodeCount];
+        depths = new int[nodeCount];
+        distances = new long[nodeCount];
+        int maxDepth = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            positions.put(ids[v], v);
+            int parent = parents[v];
+            if (parent < 0) {
+                roots[v] = v;
+            } else {
+                // Parents come first, so their values are already known
+                roots[v] = roots[parent];
+                depths[v] = depths[parent] + 1;
+                distances[v] = distances[parent] + costs[v];
+                maxDepth = Math.max(maxDepth, depths[v]);
+            }
+        }
+
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxDepth));
+        ancestors = new int[levels][nodeCount];
+        maxCosts = new int[levels][nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            boolean root = parents[v] < 0;
+            ancestors[0][v] = root ? v : parents[v];
+            maxCosts[0][v] = root ? Integer.MIN_VALUE : costs[v];
+        }
+        for (int k = 1; k < levels; k++) {
+            int[] half = ancestors[k - 1];
+            int[] halfMax = maxCosts[k - 1];
+            int[] level = ancestors[k];
+            int[] levelMax = maxCosts[k];
+            for (int v = 0; v < nodeCount; v++) {
+                int middle = half[v];
+                level[v] = half[middle];
+                levelMax[v] = Math.max(halfMax[v], halfMax[middle]);
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a minimum spanning forest.
+     *
+     * @param forest The edges of the forest, with any node identifiers, for example a result of
+     *               {@link KruskalAlgorithm#findMinimumSpanningTree(EdgeStore, int)}.
+     * @return The index.
+     * @throws IllegalArgumentException If the edges contain a cycle, a self-loop or a repeated link.
+     */
+    public static MstQueryIndex build(EdgeStore forest) {
+        // Give the nodes dense identifiers; a forest of m edges has at most 2m nodes
+        IntIntHashMap denseIds = new IntIntHashMap(2 * forest.size());
+        int[] nodeIds = new int[2 * forest.size()];
+        EdgeStore dense = new EdgeStore(forest.size());
+        int nodeCount = 0;
+        for (int i = 0; i < forest.size(); i++) {
+            int node1 = denseIds.putIfAbsent(forest.getNode1(i), nodeCount);
+            if (node1 == nodeCount) {
+                nodeIds[nodeCount++] = forest.getNode1(i);
+            }
+            int node2 = denseIds.putIfAbsent(forest.getNode2(i), nodeCount);
+            if (node2 == nodeCount) {
+                nodeIds[nodeCount++] = forest.getNode2(i);
+            }
+            if (node1 == node2) {
+                throw new IllegalArgumentException("A forest has no self-loops: " + forest.getNode1(i));
+            }
+            dense.add(node1, node2, forest.getCost(i));
+        }
+
+        // Walk every tree breadth-first from its first node; the queue becomes the persisted order
+        CsrGraph graph = CsrGraph.build(dense, nodeCount);
+        int[] order = new int[nodeCount];
+        int[] positionOf = new int[nodeCount];
+        Arrays.fill(positionOf, -1);
+        int[] parents = new int[nodeCount];
+        int[] costs = new int[nodeCount];
+        int treeCount = 0;
+        int tail = 0;
+        for (int start = 0; start < nodeCount; start++) {
+            if (positionOf[start] >= 0) {
+                continue;
+            }
+            treeCount++;
+            positionOf[start] = tail;
+            parents[tail] = -1;
+            order[tail++] = start;
+            for (int head = tail - 1; head < tail; head++) {
+                int node = order[head];
+                for (int position = graph.start(node), end = graph.end(node); position < end; position++) {
+                    int neighbour = graph.target(position);
+                    if (positionOf[neighbour] < 0) {
+                        positionOf[neighbour] = tail;
+                        parents[tail] = head;
+                        costs[tail] = graph.cost(position);
+                        order[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        // Each tree of n nodes has n - 1 links, so any extra link closes a cycle
+        if (forest.size() != nodeCount - treeCount) {
+            throw new IllegalArgumentException("The edges contain a cycle: " + forest.size() + " edges over "
+                    + nodeCount + " nodes in " + treeCount + " trees.");
+        }
+
+        int[] ids = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            ids[v] = nodeIds[order[v]];
+        }
+        return new MstQueryIndex(ids, parents, costs);
+    }
+
+    /**
+     * Gets the number of nodes that belong to a tree.
+     *
+     * @return The number of indexed nodes.
+     */
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Tells whether a tree path joins two nodes.
+     *
+     * @param node1 One node.
+     * @param node2 The other node.
+     * @return {@code true} if both nodes are in the same tree.
+     */
+    public boolean connected(int node1, int node2) {
+        int v1 = positions.get(node1, -1);
+        int v2 = positions.get(node2, -1);
+        return v1 >= 0 && v2 >= 0 && roots[v1] == roots[v2];
+    }
+
+    /**
+     * Finds the most expensive link on the tree path between two nodes. In a minimum spanning forest, this is also
+     * the lowest cost that the most expensive link of any path between them in the network can have.
+     *
+     * @param node1 One node.
+     * @param node2 The other node.
+     * @return The highest link cost on the path, or {@link #NO_PATH} if the path has no link.
+     */
+    public long bottleneck(int node1, int node2) {
+        int u = positions.get(node1, -1);
+        int v = positions.get(node2, -1);
+        if (u < 0 || v < 0 || u == v || roots[u] != roots[v]) {
+            return NO_PATH;
+        }
+        if (depths[u] < depths[v]) {
+            int swap = u;
+            u = v;
+            v = swap;
+        }
+        int best = Integer.MIN_VALUE;
+        // Lift the deeper node to the depth of the other one
+        for (int k = 0, lift = depths[u] - depths[v]; lift != 0; k++, lift >>>= 1) {
+            if ((lift & 1) != 0) {
+                best = Math.max(best, maxCosts[k][u]);
+                u = ancestors[k][u];
+            }
+        }
+        if (u == v) {
+            return best;
+        }
+        // Lift both while they stay below their common ancestor, then take the last link of each
+        for (int k = ancestors.length - 1; k >= 0; k--) {
+            if (ancestors[k][u] != ancestors[k][v]) {
+                best = Math.max(best, Math.max(maxCosts[k][u], maxCosts[k][v]));
+                u = ancestors[k][u];
+                v = ancestors[k][v];
+            }
+        }
+        return Math.max(best, Math.max(maxCosts[0][u], maxCosts[0][v]));
+    }
+
+    /**
+     * Finds the total cost of the tree path between two nodes.
+     *
+     * @param node1 One node.
+     * @param node2 The other node.
+     * @return The sum of the link costs on the path, 0 from a node of a tree to itself, or {@link #NO_PATH} if no tree
+     *         path joins the nodes.
+     */
+    public long pathCost(int node1, int node2) {
+        int u = positions.get(node1, -1);
+        int v = positions.get(node2, -1);
+        if (u < 0 || v < 0 || roots[u] != roots[v]) {
+            return NO_PATH;
+        }
+        return distances[u] + distances[v] - 2 * distances[commonAncestor(u, v)];
+    }
+
+    /**
+     * Finds the bottleneck of every node pair in a batch, like {@link #bottleneck(int, int)}.
+     *
+     * @param nodes1 The first node of every pair.
+     * @param nodes2 The second node of every pair.
+     * @return The bottleneck of every pair, in order.
+     * @throws IllegalArgumentException If the arrays have different lengths.
+     */
+    public long[] bottlenecks(int[] nodes1, int[] nodes2) {
+        checkPairs(nodes1, nodes2);
+        long[] results = new long[nodes1.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = bottleneck(nodes1[i], nodes2[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Finds the path cost of every node pair in a batch, like {@link #pathCost(int, int)}.
+     *
+     * @param nodes1 The first node of every pair.
+     * @param nodes2 The second node of every pair.
+     * @return The path cost of every pair, in order.
+     * @throws IllegalArgumentException If the arrays have different lengths.
+     */
+    public long[] pathCosts(int[] nodes1, int[] nodes2) {
+        checkPairs(nodes1, nodes2);
+        long[] results = new long[nodes1.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = pathCost(nodes1[i], nodes2[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Encodes the index in its binary form.
+     *
+     * @return The encoded index.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + NODE_SIZE * ids.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).put(VERSION).put((byte) 0).putShort((short) 0).putInt(ids.length);
+        buffer.asIntBuffer().put(ids).put(parents).put(costs);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an index from its binary form and rebuilds its tables.
+     *
+     * @param bytes The encoded index.
+     * @return The index.
+     * @throws IOException If the data is not an index, is truncated, or does not describe a forest.
+     */
+    public static MstQueryIndex fromBytes(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_SIZE || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("Not an MST query index.");
+        }
+        if (buffer.get(4) != VERSION) {
+            throw new IOException("Unsupported MST query index version: " + buffer.get(4));
+        }
+        int count = buffer.getInt(8);
+        if (count < 0 || (long) count * NODE_SIZE != bytes.length - HEADER_SIZE) {
+            throw new IOException("The number of nodes does not match the data size. Expected: " + count
+                    + ", available bytes: " + (bytes.length - HEADER_SIZE));
+        }
+
+        int[] ids = new int[count];
+        int[] parents = new int[count];
+        int[] costs = new int[count];
+        buffer.position(HEADER_SIZE).asIntBuffer().get(ids).get(parents).get(costs);
+        for (int v = 0; v < count; v++) {
+            // Every parent must come before its child, which also rules out cycles
+            if (parents[v] < -1 || parents[v] >= v) {
+                throw new IOException("Invalid parent " + parents[v] + " of node " + ids[v] + " at position " + v);
+            }
+        }
+        return new MstQueryIndex(ids, parents, costs);
+    }
+
+    /**
+     * Gets the key under which the index of a network is stored.
+     *
+     * @param bucket The bucket of the network file.
+     * @param key The key of the network file.
+     * @return The key of its index.
+     */
+    public static String keyOf(String bucket, String key) {
+        return bucket + "/" + key + "/" + INDEX_FILE;
+    }
+
+    /**
+     * Loads the index persisted under a key.
+     *
+     * @param store The store holding the index.
+     * @param key The key of the index.
+     * @return The index, or {@code null} if nothing is stored under the key.
+     * @throws IOException If reading fails or the stored data is invalid.
+     */
+    public static MstQueryIndex load(BlobStore store, String key) throws IOException {
+        byte[] bytes = store.get(key);
+        return bytes != null ? fromBytes(bytes) : null;
+    }
+
+    /**
+     * Persists the index under a key.
+     *
+     * @param store The store to write to.
+     * @param key The key of the index.
+     * @throws IOException If writing fails.
+     */
+    public void save(BlobStore store, String key) throws IOException {
+        store.put(key, toBytes());
+    }
+
+    private int commonAncestor(int u, int v) {
+        if (depths[u] < depths[v]) {
+            int swap = u;
+            u = v;
+            v = swap;
+        }
+        for (int k = 0, lift = depths[u] - depths[v]; lift != 0; k++, lift >>>= 1) {
+            if ((lift & 1) != 0) {
+                u = ancestors[k][u];
+            }
+        }
+        if (u == v) {
+            return u;
+        }
+        for (int k = ancestors.length - 1; k >= 0; k--) {
+            if (ancestors[k][u] != ancestors[k][v]) {
+                u = ancestors[k][u];
+                v = ancestors[k][v];
+            }
+        }
+        return ancestors[0][u];
+    }
+
+    private static void checkPairs(int[] nodes1, int[] nodes2) {
+        if (nodes1.length != nodes2.length) {
+            throw new IllegalArgumentException("Every pair needs two nodes: " + nodes1.length + " first nodes, "
+                    + nodes2.length + " second nodes.");
+        }
+    }
+}
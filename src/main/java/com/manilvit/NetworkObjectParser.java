@@ -1,7 +1,14 @@
 package com.manilvit;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -10,6 +17,40 @@ import java.util.List;
  */
 public class NetworkObjectParser {
 
+    /**
+     * The shortest possible edge line ("0 0 0" plus a line break), used to bound how many edges a buffer can hold.
+     */
+    private static final int MIN_EDGE_LINE_BYTES = 6;
+
+    /**
+     * The size of the read buffer used when parsing from a stream.
+     */
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The most edges reserved up front when the stream length is unknown and the header cannot be trusted.
+     */
+    private static final int UNKNOWN_SIZE_CAPACITY_LIMIT = 1 << 16;
+
+    /**
+     * The length of an edge line with mid-sized numbers, used to pre-size stores that may grow.
+     */
+    private static final int TYPICAL_EDGE_LINE_BYTES = 16;
+
+    /**
+     * Receives parsed edges batch by batch, for input too large to hold as one {@link EdgeStore}.
+     */
+    public interface EdgeBatchConsumer {
+
+        /**
+         * Takes over one batch of edges.
+         *
+         * @param batch The edges, in file order; the consumer owns the store, which the parser no longer touches.
+         * @throws IOException If the batch cannot be processed; parsing stops.
+         */
+        void accept(EdgeStore batch) throws IOException;
+    }
+
     /**
      * Parses the provided file content to extract network connections.
      *
@@ -58,4 +99,526 @@ public class NetworkObjectParser {
         // Return the list of parsed connections
         return connections;
     }
-}
\ No newline at end of file
+
+    /**
+     * Parses raw file bytes directly into an {@link EdgeStore}, without decoding the content into Strings.
+     * Both the text format and the {@link BinaryEdgeFormat} are accepted.
+     *
+     * @param fileContent The content of the file as ASCII/UTF-8 bytes.
+     * @return An {@link EdgeStore} holding the parsed connections in file order.
+     * @throws IOException If the content has an invalid format.
+     * @see #parseEdges(ByteBuffer)
+     */
+    public static EdgeStore parseEdges(byte[] fileContent) throws IOException {
+        return parseEdges(ByteBuffer.wrap(fileContent));
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer directly into an {@link EdgeStore}.
+     * Input that starts with the {@link BinaryEdgeFormat} magic is decoded as binary; anything else is read as text.
+     * Compressed input (see {@link Compression}) is streamed through a decompressor first.
+     * For text, digits are accumulated in place, so a well-formed edge line costs no allocation at all.
+     * The validation matches {@link #parse(String)}: a malformed line or a header count that doesn't match
+     * the number of connections raises an {@link IOException}, and a non-numeric value raises a
+     * {@link NumberFormatException}. The buffer's position is not changed.
+     *
+     * @param fileContent The content of the file; heap, direct and memory-mapped buffers are all supported.
+     * @return An {@link EdgeStore} holding the parsed connections in file order.
+     * @throws IOException If the content has an invalid format.
+     */
+    public static EdgeStore parseEdges(ByteBuffer fileContent) throws IOException {
+        byte[] head = new byte[Math.min(Compression.MAGIC_LENGTH, fileContent.remaining())];
+        fileContent.get(fileContent.position(), head);
+        if (Compression.fromMagic(head, head.length) != Compression.NONE) {
+            return parseEdges(new ByteBufferInputStream(fileContent.duplicate()), fileContent.remaining());
+        }
+        if (BinaryEdgeFormat.hasMagic(fileContent)) {
+            return BinaryEdgeFormat.read(fileContent);
+        }
+        EdgeLineParser parser = new EdgeLineParser(fileContent.remaining() / MIN_EDGE_LINE_BYTES + 1, null);
+        parser.parseLines(fileContent, fileContent.position(), fileContent.limit(), true);
+        return parser.finish();
+    }
+
+    /**
+     * Parses a stream chunk by chunk into an {@link EdgeStore}.
+     * Only one read buffer is held besides the parsed edges: complete lines are parsed as soon as they arrive,
+     * and a line split across two reads is carried over to the front of the buffer.
+     * Input that starts with the {@link BinaryEdgeFormat} magic is decoded as binary, and gzip or Zstandard input
+     * (see {@link Compression}) is decompressed on the fly.
+     * Validation and exceptions are the same as for {@link #parseEdges(ByteBuffer)}. The stream is not closed.
+     *
+     * @param input The stream with the content of the file.
+     * @param expectedBytes The length of the stream if known (for example the S3 Content-Length), or -1.
+     * @return An {@link EdgeStore} holding the parsed connections in file order.
+     * @throws IOException If reading fails or the content has an invalid format.
+     */
+    public static EdgeStore parseEdges(InputStream input, long expectedBytes) throws IOException {
+        int capacityLimit = expectedBytes >= 0
+                ? (int) Math.min(Integer.MAX_VALUE - 8, expectedBytes / MIN_EDGE_LINE_BYTES + 1)
+                : UNKNOWN_SIZE_CAPACITY_LIMIT;
+        return parseStream(input, expectedBytes, new EdgeLineParser(capacityLimit, null));
+    }
+
+    /**
+     * Parses a stream like {@link #parseEdges(InputStream, long)}, but hands the edges over in batches as they are
+     * parsed, so that no more than one batch is held at a time, for text and binary input alike. The connection count
+     * is validated against the header once the input ends.
+     *
+     * @param input The stream with the content of the file; it is not closed.
+     * @param expectedBytes The length of the stream if known, or -1.
+     * @param batchSize The number of edges per batch; only the last batch may be smaller.
+     * @param consumer Receives the batches in file order.
+     * @return The total number of parsed connections.
+     * @throws IOException If reading fails, the content has an invalid format, or the consumer fails.
+     */
+    public static long parseEdgeBatches(InputStream input, long expectedBytes, int batchSize,
+                                        EdgeBatchConsumer consumer) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        long[] total = new long[1];
+        EdgeBatchConsumer counting = batch -> {
+            total[0] += batch.size();
+            consumer.accept(batch);
+        };
+        EdgeStore last = parseStream(input, expectedBytes, new EdgeLineParser(batchSize, counting));
+        if (!last.isEmpty()) {
+            counting.accept(last);
+        }
+        return total[0];
+    }
+
+    private static EdgeStore parseStream(InputStream input, long expectedBytes, EdgeLineParser parser) throws IOException {
+        byte[] chunk = new byte[STREAM_CHUNK_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(chunk);
+        int filled = input.readNBytes(chunk, 0, Math.max(BinaryEdgeFormat.magicLength(), Compression.MAGIC_LENGTH));
+        Compression compression = Compression.fromMagic(chunk, filled);
+        if (compression != Compression.NONE) {
+            // Decompress on the fly; the decompressed length is unknown, so the stream length no longer bounds anything
+            InputStream compressed = new SequenceInputStream(new ByteArrayInputStream(chunk, 0, filled), input);
+            parser.expectCompressed();
+            try (InputStream decompressed = compression.decompress(compressed)) {
+                return parseStream(decompressed, -1, parser);
+            }
+        }
+        if (BinaryEdgeFormat.hasMagic(chunk, filled)) {
+            // Hand the binary reader the bytes consumed while detecting the format
+            InputStream binary = new SequenceInputStream(new ByteArrayInputStream(chunk, 0, filled), input);
+            return parser.readBinary(binary, expectedBytes);
+        }
+
+        int read;
+        while ((read = input.read(chunk, filled, chunk.length - filled)) != -1) {
+            filled += read;
+            int consumed = parser.parseLines(view, 0, filled, false);
+            if (consumed > 0) {
+                // Move the incomplete last line to the front of the buffer
+                System.arraycopy(chunk, consumed, chunk, 0, filled - consumed);
+                filled -= consumed;
+            } else if (filled == chunk.length) {
+                // A single line is longer than the buffer
+                chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                view = ByteBuffer.wrap(chunk);
+            }
+        }
+        parser.parseLines(view, 0, filled, true);
+        return parser.finish();
+    }
+
+    /**
+     * Parses a local file, such as a download in {@code /tmp}, into an {@link EdgeStore}.
+     * The file is memory-mapped, so its bytes are parsed straight from the page cache without being copied onto the heap;
+     * binary files are decoded with plain int loads. Files too large to map in one piece are streamed instead.
+     *
+     * @param file The path of the file.
+     * @return An {@link EdgeStore} holding the parsed connections in file order.
+     * @throws IOException If reading fails or the content has an invalid format.
+     */
+    public static EdgeStore parseFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                try (InputStream input = Files.newInputStream(file)) {
+                    return parseEdges(input, size);
+                }
+            }
+            return parseEdges(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Parses one byte range of a text file on its own, so that the ranges of a large file can be parsed in parallel.
+     * Only the lines that start inside the range and end inside it are parsed. The bytes in front of the first line
+     * break, which end a line started in an earlier range, and the bytes after the last one, which start a line
+     * continued in the next range, are kept for {@link #joinTextChunks}. The first range also reads the header.
+     *
+     * @param bytes The bytes of the range.
+     * @param first Whether the range starts at the beginning of the file.
+     * @param last Whether the range ends at the end of the file.
+     * @return The parsed lines and the bytes of the lines that cross the range boundaries.
+     * @throws IOException If a line has an invalid format.
+     */
+    static TextChunk parseTextChunk(byte[] bytes, boolean first, boolean last) throws IOException {
+        int lineStart = first ? 0 : firstLineStart(bytes, last);
+        if (lineStart < 0) {
+            // No line starts in this range: all of it belongs to a line that started earlier
+            return new TextChunk(bytes, new EdgeStore(0), new byte[0], false, false, 0);
+        }
+        EdgeLineParser parser = new EdgeLineParser(bytes.length / MIN_EDGE_LINE_BYTES + 1, null);
+        if (!first) {
+            parser.startAfterHeader(0, bytes.length / TYPICAL_EDGE_LINE_BYTES + 1);
+        }
+        int tailStart = parser.parseLines(ByteBuffer.wrap(bytes), lineStart, bytes.length, last);
+        return new TextChunk(Arrays.copyOf(bytes, lineStart), parser.edges != null ? parser.edges : new EdgeStore(0),
+                Arrays.copyOfRange(bytes, tailStart, bytes.length), true, parser.headerRead, parser.expectedCount);
+    }
+
+    /**
+     * Parses the lines that cross range boundaries and joins the edges of all ranges in file order.
+     * The result and the validation are the same as for parsing the whole file with {@link #parseEdges(byte[])}.
+     *
+     * @param chunks The results of {@link #parseTextChunk} for consecutive ranges covering the whole file, in order.
+     * @return An {@link EdgeStore} holding all connections in file order.
+     * @throws IOException If a line has an invalid format, or the connection count does not match the header.
+     */
+    static EdgeStore joinTextChunks(List<TextChunk> chunks) throws IOException {
+        TextChunk first = chunks.get(0);
+        EdgeLineParser stitcher = new EdgeLineParser(chunks.size() * 2 + 1, null);
+        if (first.headerRead) {
+            stitcher.startAfterHeader(first.expectedCount, chunks.size() * 2 + 1);
+        }
+
+        // Parse each line that crosses a boundary between the edges of the range it starts in and those of the next
+        int[] stitchedBefore = new int[chunks.size()];
+        byte[] carry = new byte[0];
+        long chunkEdges = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            TextChunk chunk = chunks.get(i);
+            carry = concat(carry, chunk.head);
+            if (chunk.hasLineStart) {
+                // The head ends with a complete line break, so everything carried over so far can be parsed
+                stitcher.parseLines(ByteBuffer.wrap(carry), 0, carry.length, true);
+                carry = new byte[0];
+            }
+            stitchedBefore[i] = stitcher.edges != null ? stitcher.edges.size() : 0;
+            chunkEdges += chunk.edges.size();
+            carry = concat(carry, chunk.tail);
+        }
+        stitcher.parseLines(ByteBuffer.wrap(carry), 0, carry.length, true);
+        stitcher.handedOver = chunkEdges; // Counted against the header together with the stitched lines
+        EdgeStore stitched = stitcher.finish();
+
+        EdgeStore joined = new EdgeStore((int) Math.min(Integer.MAX_VALUE - 8, chunkEdges + stitched.size()));
+        for (int i = 0; i < chunks.size(); i++) {
+            joined.addAll(stitched, i == 0 ? 0 : stitchedBefore[i - 1], stitchedBefore[i]);
+            joined.addAll(chunks.get(i).edges, 0, chunks.get(i).edges.size());
+        }
+        joined.addAll(stitched, stitchedBefore[chunks.size() - 1], stitched.size());
+        return joined;
+    }
+
+    /**
+     * Finds the start of the first line that begins inside a range that does not start the file.
+     *
+     * @return The index after the first line break, or -1 if the range has none or ends in a '\r' that may be
+     *         the first half of a "\r\n".
+     */
+    private static int firstLineStart(byte[] bytes, boolean last) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+            if (bytes[i] == '\r') {
+                if (i + 1 < bytes.length) {
+                    return bytes[i + 1] == '\n' ? i + 2 : i + 1;
+                }
+                return last ? i + 1 : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    /**
+     * The edges parsed from one byte range of a text file, and the bytes of the lines crossing its boundaries.
+     */
+    static final class TextChunk {
+        private final byte[] head;
+        private final EdgeStore edges;
+        private final byte[] tail;
+        private final boolean hasLineStart;
+        private final boolean headerRead;
+        private final int expectedCount;
+
+        private TextChunk(byte[] head, EdgeStore edges, byte[] tail, boolean hasLineStart, boolean headerRead, int expectedCount) {
+            this.head = head;
+            this.edges = edges;
+            this.tail = tail;
+            this.hasLineStart = hasLineStart;
+            this.headerRead = headerRead;
+            this.expectedCount = expectedCount;
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, such as a memory-mapped compressed file, as a stream.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+
+    /**
+     * An incremental line parser working on raw bytes.
+     * The first line is read as the expected number of connections, every following line as one connection.
+     * Well-formed lines are tokenized in place; anything unusual is re-parsed through the same
+     * trim/split/parseInt logic as {@link #parse(String)}, so both paths report errors identically.
+     */
+    private static final class EdgeLineParser {
+        private int capacityLimit;
+        private final EdgeBatchConsumer batchConsumer;
+        private EdgeStore edges;
+        private long handedOver;
+        private int expectedCount;
+        private boolean headerRead;
+
+        /**
+         * Constructs a parser for input that cannot hold more than the given number of edges.
+         *
+         * @param capacityLimit An upper bound on the number of edges, used to pre-size the store;
+         *                      with a batch consumer, the batch size.
+         * @param batchConsumer Receives every full batch of edges, or {@code null} to keep all edges in one store.
+         */
+        EdgeLineParser(int capacityLimit, EdgeBatchConsumer batchConsumer) {
+            this.capacityLimit = capacityLimit;
+            this.batchConsumer = batchConsumer;
+        }
+
+        /**
+         * Raises the edge bound derived from the input length, because the input turned out to be compressed.
+         * The batch size of a batch consumer is kept.
+         */
+        void expectCompressed() {
+            if (batchConsumer == null) {
+                capacityLimit = (int) Math.min(Integer.MAX_VALUE - 8, (long) capacityLimit * Compression.ESTIMATED_RATIO);
+            }
+        }
+
+        /**
+         * Reads binary input instead of lines, handing it to the batch consumer batch by batch if there is one.
+         *
+         * @param binary The stream positioned at the binary magic.
+         * @param expectedBytes The length of the stream if known, or -1.
+         * @return All edges, or an empty store if they have been handed to the batch consumer.
+         * @throws IOException If reading fails, the data is malformed, or the batch consumer fails.
+         */
+        EdgeStore readBinary(InputStream binary, long expectedBytes) throws IOException {
+            if (batchConsumer == null) {
+                return BinaryEdgeFormat.read(binary, expectedBytes);
+            }
+            BinaryEdgeFormat.readBatches(binary, expectedBytes, capacityLimit, batchConsumer);
+            return new EdgeStore();
+        }
+
+        /**
+         * Starts parsing in the middle of a file, after a header that has been read elsewhere.
+         *
+         * @param expectedCount The connection count from the header.
+         * @param initialCapacity The number of edges to reserve space for.
+         */
+        void startAfterHeader(int expectedCount, int initialCapacity) {
+            this.expectedCount = expectedCount;
+            edges = new EdgeStore(Math.max(0, Math.min(initialCapacity, capacityLimit)));
+            headerRead = true;
+        }
+
+        /**
+         * Parses every complete line in {@code [from, to)}.
+         * Unless {@code endOfInput} is set, a trailing line without a line break is left unparsed.
+         *
+         * @param buffer The buffer holding the bytes, accessed by absolute index.
+         * @param from The index of the first byte to parse.
+         * @param to The index after the last byte to parse.
+         * @param endOfInput Whether no more bytes follow {@code to}.
+         * @return The index of the first byte that has not been consumed.
+         * @throws IOException If a line has an invalid format.
+         */
+        int parseLines(ByteBuffer buffer, int from, int to, boolean endOfInput) throws IOException {
+            int lineStart = from;
+            int i = from;
+            while (i < to) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    parseLine(buffer, lineStart, i);
+                    lineStart = ++i;
+                } else if (b == '\r') {
+                    // "\r\n" is a single line break; at the end of a chunk we need the next byte to decide
+                    if (i + 1 == to && !endOfInput) {
+                        return lineStart;
+                    }
+                    parseLine(buffer, lineStart, i);
+                    i += (i + 1 < to && buffer.get(i + 1) == '\n') ? 2 : 1;
+                    lineStart = i;
+                } else {
+                    i++;
+                }
+            }
+            if (endOfInput && lineStart < to) {
+                parseLine(buffer, lineStart, to); // The last line has no line break
+                lineStart = to;
+            }
+            return lineStart;
+        }
+
+        /**
+         * Validates the number of parsed connections against the header and returns them.
+         *
+         * @return The parsed connections; with a batch consumer, those not handed over yet.
+         * @throws IOException If the header is missing or the connection count does not match it.
+         */
+        EdgeStore finish() throws IOException {
+            if (!headerRead) {
+                throw new IOException("The file content is empty.");
+            }
+            // Check if the actual number of connections matches the expected number of nodes
+            long found = handedOver + edges.size();
+            if (found != expectedCount) {
+                throw new IOException("The number of connections does not match the number of nodes. Expected: " + expectedCount + ", found: " + found);
+            }
+            return edges;
+        }
+
+        private void addEdge(int node1, int node2, int cost) throws IOException {
+            edges.add(node1, node2, cost);
+            if (batchConsumer != null && edges.size() == capacityLimit) {
+                EdgeStore batch = edges;
+                edges = new EdgeStore(capacityLimit);
+                handedOver += batch.size();
+                batchConsumer.accept(batch);
+            }
+        }
+
+        private void parseLine(ByteBuffer buffer, int start, int end) throws IOException {
+            if (!headerRead) {
+                // Read the number of connections from the first line
+                expectedCount = Integer.parseInt(decode(buffer, start, end).trim());
+                edges = new EdgeStore(Math.max(0, Math.min(expectedCount, capacityLimit)));
+                headerRead = true;
+                return;
+            }
+
+            int node1 = 0;
+            int node2 = 0;
+            int cost = 0;
+            int tokens = 0;
+            int pos = start;
+            while (true) {
+                // Skip the whitespace in front of the next token
+                while (pos < end && isSeparator(buffer.get(pos))) {
+                    pos++;
+                }
+                if (pos == end) {
+                    break;
+                }
+                if (tokens == 3) {
+                    parseLineSlow(buffer, start, end); // More than three tokens
+                    return;
+                }
+
+                boolean negative = false;
+                byte b = buffer.get(pos);
+                if (b == '-' || b == '+') {
+                    negative = b == '-';
+                    pos++;
+                }
+                int digitsStart = pos;
+                long value = 0;
+                while (pos < end && (b = buffer.get(pos)) >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > (long) Integer.MAX_VALUE + 1) {
+                        parseLineSlow(buffer, start, end); // Out of int range
+                        return;
+                    }
+                    pos++;
+                }
+                if (pos == digitsStart || (pos < end && !isSeparator(buffer.get(pos)))) {
+                    parseLineSlow(buffer, start, end); // Not a plain decimal number
+                    return;
+                }
+                if (negative) {
+                    value = -value;
+                }
+                if (value > Integer.MAX_VALUE) {
+                    parseLineSlow(buffer, start, end);
+                    return;
+                }
+
+                switch (tokens++) {
+                    case 0 -> node1 = (int) value;
+                    case 1 -> node2 = (int) value;
+                    default -> cost = (int) value;
+                }
+            }
+            if (tokens == 3) {
+                addEdge(node1, node2, cost);
+            } else {
+                parseLineSlow(buffer, start, end);
+            }
+        }
+
+        /**
+         * Parses a line the same way {@link #parse(String)} does. Used only for lines the fast path rejects,
+         * which either turn out to be valid after all or end in the same exception as the String-based parser.
+         */
+        private void parseLineSlow(ByteBuffer buffer, int start, int end) throws IOException {
+            String line = decode(buffer, start, end);
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 3) {
+                addEdge(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } else {
+                // If the line format is invalid, throw an IOException
+                throw new IOException("Invalid line format: " + line);
+            }
+        }
+
+        private static boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+        }
+
+        private static String decode(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
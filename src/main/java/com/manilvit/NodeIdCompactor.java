@@ -0,0 +1,110 @@
+package com.manilvit;
+
+import java.util.Arrays;
+
+/**
+ * Maps arbitrary node identifiers onto the dense range {@code 0..k-1}, where {@code k} is the number of distinct nodes.
+ * The MST engines size their Union-Find arrays by node count, so a single edge such as {@code 1 2000000000 5}
+ * would otherwise cost gigabytes. After compaction, memory is proportional to the number of distinct nodes.
+ */
+public class NodeIdCompactor {
+
+    /**
+     * The number of distinct nodes a compactor reserves space for before it grows.
+     */
+    static final int INITIAL_NODES = 1 << 16;
+
+    private final IntIntHashMap denseIds;
+    private int[] originalIds;
+    private int nodeCount;
+
+    /**
+     * Constructs an empty mapping; identifiers are assigned through {@link #denseId(int)}.
+     *
+     * @param expectedNodes The number of distinct nodes to reserve space for.
+     */
+    NodeIdCompactor(int expectedNodes) {
+        denseIds = new IntIntHashMap(expectedNodes);
+        originalIds = new int[Math.max(1, expectedNodes)];
+    }
+
+    /**
+     * Rewrites the node identifiers of every edge in place to dense identifiers, assigned in order of first appearance.
+     *
+     * @param edges The edges to compact; their node columns are overwritten.
+     * @return The compactor holding the mapping back to the original identifiers.
+     */
+    public static NodeIdCompactor compact(EdgeStore edges) {
+        // The edge count only bounds the node count; dense graphs have far fewer nodes, so start small and grow
+        NodeIdCompactor compactor = new NodeIdCompactor(Math.min(edges.size() + 1, INITIAL_NODES));
+        for (int i = 0; i < edges.size(); i++) {
+            int node1 = compactor.denseId(edges.getNode1(i));
+            int node2 = compactor.denseId(edges.getNode2(i));
+            edges.setNodes(i, node1, node2);
+        }
+        return compactor;
+    }
+
+    /**
+     * Gets the number of distinct nodes seen during compaction, which is the node count to pass to an MST engine.
+     *
+     * @return The number of distinct nodes.
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the original identifier of a dense node identifier.
+     *
+     * @param denseId A dense identifier in {@code 0..nodeCount()-1}.
+     * @return The identifier the node had in the input.
+     */
+    public int originalId(int denseId) {
+        if (denseId < 0 || denseId >= nodeCount) {
+            throw new IndexOutOfBoundsException("Dense id: " + denseId + ", node count: " + nodeCount);
+        }
+        return originalIds[denseId];
+    }
+
+    /**
+     * Rewrites the dense node identifiers of every edge in place back to the original identifiers.
+     *
+     * @param edges Edges using dense identifiers, typically the MST; their node columns are overwritten.
+     * @return The same {@link EdgeStore}, for chaining.
+     */
+    public EdgeStore restore(EdgeStore edges) {
+        for (int i = 0; i < edges.size(); i++) {
+            edges.setNodes(i, originalId(edges.getNode1(i)), originalId(edges.getNode2(i)));
+        }
+        return edges;
+    }
+
+    /**
+     * Gets the dense identifier of a node without assigning one.
+     *
+     * @param originalId The identifier the node has in the input.
+     * @return The dense identifier, or -1 if the node has not been seen.
+     */
+    int denseIdIfPresent(int originalId) {
+        return denseIds.get(originalId, -1);
+    }
+
+    /**
+     * Gets the dense identifier of a node, assigning the next free one if the node has not been seen before.
+     *
+     * @param originalId The identifier the node has in the input.
+     * @return The dense identifier.
+     */
+    int denseId(int originalId) {
+        int denseId = denseIds.putIfAbsent(originalId, nodeCount);
+        if (denseId == nodeCount) {
+            // The node has not been seen before
+            if (nodeCount == originalIds.length) {
+                originalIds = Arrays.copyOf(originalIds, originalIds.length << 1);
+            }
+            originalIds[nodeCount++] = originalId;
+        }
+        return denseId;
+    }
+}
@@ -0,0 +1,46 @@
+package com.manilvit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where the handler reads uploaded network files from.
+ * Implementations exist for S3 and for a local directory, so the whole pipeline can run and be load-tested off AWS.
+ */
+public interface ObjectSource {
+
+    /**
+     * An opened object: a stream over its content and its length.
+     *
+     * @param stream The content; closing the object closes it.
+     * @param length The length of the content in bytes, or -1 if unknown.
+     */
+    record Content(InputStream stream, long length) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    /**
+     * Opens an object as a stream, so it can be parsed without holding it in memory.
+     *
+     * @param bucket The bucket of the object.
+     * @param key The key of the object.
+     * @return The opened object; the caller must close it.
+     * @throws IOException If the object does not exist or cannot be read.
+     */
+    Content open(String bucket, String key) throws IOException;
+
+    /**
+     * Reads an object in byte ranges, for {@link ParallelRangeParser}.
+     *
+     * @param bucket The bucket of the object.
+     * @param key The key of the object.
+     * @param eTag The ETag the object had when it was announced, or {@code null}; a source that supports it fails a
+     *             range of an object overwritten since.
+     * @return The reader.
+     */
+    ParallelRangeParser.RangeReader ranges(String bucket, String key, String eTag);
+}
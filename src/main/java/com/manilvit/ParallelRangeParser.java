@@ -0,0 +1,210 @@
+package com.manilvit;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Downloads an object as byte ranges on several threads and parses every range as soon as it has arrived.
+ * <p>
+ * A single stream downloads at the throughput of one connection, and parsing can only keep pace with it. Here the
+ * object is split into fixed-size ranges that are fetched concurrently, for example with ranged {@code GetObject}
+ * calls, and each range is parsed by the thread that fetched it. The lines that cross range boundaries are parsed
+ * once all ranges are done, and the edges are joined in file order, so the result is exactly that of
+ * {@link NetworkObjectParser#parseEdges(byte[])}. At most {@code parallelism} ranges are held as bytes at a time.
+ * Binary and compressed files cannot be split at line breaks; their ranges are still fetched in parallel, then
+ * decoded as a whole.
+ */
+public final class ParallelRangeParser {
+
+    /**
+     * The default size of one range.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    /**
+     * Reads one byte range of an object.
+     */
+    public interface RangeReader {
+
+        /**
+         * Reads a byte range.
+         *
+         * @param offset The index of the first byte.
+         * @param length The number of bytes, which all lie within the object.
+         * @return The bytes of the range.
+         * @throws IOException If reading fails.
+         */
+        byte[] read(long offset, int length) throws IOException;
+    }
+
+    private ParallelRangeParser() {
+    }
+
+    /**
+     * Reads ranges of an S3 object with ranged {@code GetObject} calls.
+     *
+     * @param s3Client Supplies the S3 client.
+     * @param bucket The bucket of the object.
+     * @param key The key of the object.
+     * @param eTag The ETag the object had when it was announced, or {@code null}. If given, every range is requested
+     *             with {@code If-Match}, so an overwrite during the download fails it rather than mixing two versions.
+     * @return The reader.
+     */
+    public static RangeReader s3(Supplier<S3Client> s3Client, String bucket, String key, String eTag) {
+        String ifMatch = eTag == null || eTag.startsWith("\"") ? eTag : "\"" + eTag + "\""; // Event ETags come unquoted
+        return (offset, length) -> {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .range("bytes=" + offset + "-" + (offset + length - 1))
+                    .ifMatch(ifMatch)
+                    .build();
+            return s3Client.get().getObjectAsBytes(request).asByteArrayUnsafe();
+        };
+    }
+
+    /**
+     * Reads ranges of a local file with positional reads.
+     *
+     * @param file The path of the file.
+     * @return The reader.
+     */
+    public static RangeReader file(Path file) {
+        return (offset, length) -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                    // Positional reads may return fewer bytes than requested
+                }
+                return buffer.position() == length ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        };
+    }
+
+    /**
+     * Downloads and parses an object in parallel ranges.
+     *
+     * @param reader Reads the ranges.
+     * @param size The size of the object in bytes.
+     * @param chunkSize The size of one range; objects up to this size are read with a single request.
+     * @param parallelism The most ranges fetched and parsed at the same time.
+     * @param metrics Where to record "DownloadChunks", or {@code null}.
+     * @return An {@link EdgeStore} holding the parsed connections in file order.
+     * @throws IOException If reading fails or the content has an invalid format.
+     */
+    public static EdgeStore parse(RangeReader reader, long size, int chunkSize, int parallelism, PhaseMetrics metrics) throws IOException {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize + " or parallelism " + parallelism);
+        }
+        int chunkCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (size + chunkSize - 1) / chunkSize));
+        if (metrics != null) {
+            metrics.addCount("DownloadChunks", chunkCount);
+        }
+        if (chunkCount == 1) {
+            return NetworkObjectParser.parseEdges(readRange(reader, 0, (int) size));
+        }
+
+        // The first range tells whether the file is binary or compressed
+        byte[] firstChunk = readRange(reader, 0, chunkSize);
+        if (BinaryEdgeFormat.hasMagic(firstChunk, firstChunk.length)
+                || Compression.fromMagic(firstChunk, firstChunk.length) != Compression.NONE) {
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("The file is too large to decode in one piece: " + size + " bytes.");
+            }
+            byte[] content = new byte[(int) size];
+            forEachRange(reader, size, chunkSize, parallelism, firstChunk,
+                    (index, bytes) -> System.arraycopy(bytes, 0, content, index * chunkSize, bytes.length));
+            return NetworkObjectParser.parseEdges(content);
+        }
+
+        NetworkObjectParser.TextChunk[] chunks = new NetworkObjectParser.TextChunk[chunkCount];
+        forEachRange(reader, size, chunkSize, parallelism, firstChunk,
+                (index, bytes) -> chunks[index] = NetworkObjectParser.parseTextChunk(bytes, index == 0, index == chunkCount - 1));
+        return NetworkObjectParser.joinTextChunks(Arrays.asList(chunks));
+    }
+
+    /**
+     * Fetches every range and passes it to the action, on virtual threads, of which at most {@code parallelism} hold
+     * a range at the same time. After the first failure, ranges that have not started yet are skipped.
+     */
+    private static void forEachRange(RangeReader reader, long size, int chunkSize, int parallelism, byte[] firstChunk,
+                                     RangeAction action) throws IOException {
+        int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> tasks = new ArrayList<>(chunkCount);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < chunkCount; i++) {
+                int index = i;
+                tasks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (!failed.get()) {
+                            long offset = (long) index * chunkSize;
+                            byte[] bytes = index == 0 ? firstChunk : readRange(reader, offset, (int) Math.min(chunkSize, size - offset));
+                            action.accept(index, bytes);
+                        }
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+        } // Closing the executor waits for every range
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime; // Such as an S3Exception, which the handler reports as a download error
+                }
+                throw new IOException("Error reading a range: " + cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading ranges", e);
+            }
+        }
+    }
+
+    private static byte[] readRange(RangeReader reader, long offset, int length) throws IOException {
+        if (length == 0) {
+            return new byte[0]; // An empty range cannot be requested
+        }
+        byte[] bytes = reader.read(offset, length);
+        if (bytes.length != length) {
+            throw new IOException("Expected " + length + " bytes at offset " + offset + ", got " + bytes.length
+                    + "; the object may have changed during the download.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Processes one fetched range.
+     */
+    private interface RangeAction {
+        void accept(int index, byte[] bytes) throws IOException;
+    }
+}
@@ -0,0 +1,160 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.core.JsonProcessingException;
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the timings and counters of processing one record and formats them as one
+ * CloudWatch Embedded Metric Format (EMF) log line. CloudWatch extracts the metrics from the log by itself, so
+ * publishing them needs no API calls.
+ * <p>
+ * Timings are measured in nanoseconds and reported in milliseconds. Adding to a metric that already exists sums
+ * the values, so a phase that runs several times is reported as its total.
+ */
+public class PhaseMetrics {
+
+    /**
+     * The CloudWatch unit of a metric.
+     */
+    public enum Unit {
+        MILLISECONDS("Milliseconds"), BYTES("Bytes"), COUNT("Count");
+
+        private final String cloudWatchName;
+
+        Unit(String cloudWatchName) {
+            this.cloudWatchName = cloudWatchName;
+        }
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, Number> values = new LinkedHashMap<>();
+    private final Map<String, Unit> units = new LinkedHashMap<>();
+    private final Map<String, String> dimensions = new LinkedHashMap<>();
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    /**
+     * Adds the duration of a phase.
+     *
+     * @param name The name of the metric, such as "ParseTime".
+     * @param nanos The duration in nanoseconds, typically the difference of two {@link System#nanoTime()} calls.
+     */
+    public void addTime(String name, long nanos) {
+        add(name, nanos / NANOS_PER_MILLI, Unit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a number of bytes.
+     *
+     * @param name The name of the metric, such as "BytesRead".
+     * @param bytes The number of bytes.
+     */
+    public void addBytes(String name, long bytes) {
+        add(name, bytes, Unit.BYTES);
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name The name of the metric, such as "Edges".
+     * @param count The amount to add.
+     */
+    public void addCount(String name, long count) {
+        add(name, count, Unit.COUNT);
+    }
+
+    /**
+     * Adds every metric of another instance to this one, for a phase that ran in parts, such as one per shard.
+     * Dimensions and properties are not copied.
+     *
+     * @param other The metrics to add.
+     * @throws IllegalArgumentException If a metric is measured in different units.
+     */
+    public void addAll(PhaseMetrics other) {
+        for (Map.Entry<String, Number> value : other.values.entrySet()) {
+            add(value.getKey(), value.getValue(), other.units.get(value.getKey()));
+        }
+    }
+
+    /**
+     * Sets a dimension; metrics are aggregated per combination of dimension values, so keep their cardinality low.
+     *
+     * @param name The name of the dimension.
+     * @param value The value of the dimension.
+     */
+    public void putDimension(String name, String value) {
+        dimensions.put(name, value);
+    }
+
+    /**
+     * Sets a property, which is searchable in the log but not turned into a metric.
+     *
+     * @param name The name of the property.
+     * @param value The value of the property.
+     */
+    public void putProperty(String name, Object value) {
+        properties.put(name, value);
+    }
+
+    /**
+     * Gets the current value of a metric.
+     *
+     * @param name The name of the metric.
+     * @return The value in the metric's unit, or {@code null} if nothing has been recorded under this name.
+     */
+    public Number get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Formats the metrics as one EMF log line.
+     *
+     * @param namespace The CloudWatch namespace of the metrics.
+     * @param timestampMillis The time of the metrics, in milliseconds since the epoch.
+     * @return The JSON object, on a single line.
+     */
+    public String toEmf(String namespace, long timestampMillis) {
+        List<Map<String, String>> metricDefinitions = new ArrayList<>(values.size());
+        for (Map.Entry<String, Unit> unit : units.entrySet()) {
+            metricDefinitions.add(Map.of("Name", unit.getKey(), "Unit", unit.getValue().cloudWatchName));
+        }
+
+        Map<String, Object> directive = new LinkedHashMap<>();
+        directive.put("Namespace", namespace);
+        directive.put("Dimensions", List.of(new ArrayList<>(dimensions.keySet())));
+        directive.put("Metrics", metricDefinitions);
+
+        // The metadata goes under "_aws"; dimension values, metric values and properties are top-level members
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("_aws", Map.of("Timestamp", timestampMillis, "CloudWatchMetrics", List.of(directive)));
+        root.putAll(properties);
+        root.putAll(dimensions);
+        root.putAll(values);
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Metrics cannot be serialized", e); // Only strings and numbers are stored
+        }
+    }
+
+    private void add(String name, Number value, Unit unit) {
+        Unit existing = units.putIfAbsent(name, unit);
+        if (existing != null && existing != unit) {
+            throw new IllegalArgumentException("Metric " + name + " is measured in " + existing + ", not " + unit);
+        }
+        Number current = values.get(name);
+        if (current == null) {
+            values.put(name, value);
+        } else if (current instanceof Long && value instanceof Long) {
+            values.put(name, current.longValue() + value.longValue());
+        } else {
+            values.put(name, current.doubleValue() + value.doubleValue());
+        }
+    }
+}
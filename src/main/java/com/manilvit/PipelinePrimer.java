@@ -0,0 +1,103 @@
+package com.manilvit;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Warms up the processing pipeline before a SnapStart snapshot is taken.
+ * <p>
+ * Without it, the first invocation after a restore still loads and JIT-compiles the parser, the MST engines and
+ * the JSON writer. {@link #beforeCheckpoint} runs a synthetic network through parse, MST and serialization a few
+ * times, and creates the handler's clients, so that all of this is already in the snapshot. Nothing runs on an
+ * ordinary cold start without SnapStart.
+ */
+public class PipelinePrimer implements Resource {
+
+    private static final int PRIMING_EDGES = 20_000;
+    private static final int PRIMING_ROUNDS = 20;
+
+    private final List<Runnable> initializers;
+
+    /**
+     * Constructs a primer.
+     *
+     * @param initializers Extra work to do before the snapshot, such as creating clients.
+     */
+    public PipelinePrimer(List<Runnable> initializers) {
+        this.initializers = initializers;
+    }
+
+    /**
+     * Registers the primer with the global CRaC context.
+     * CRaC only keeps a weak reference, so the caller must keep the primer reachable, for example in a static field.
+     *
+     * @return This primer.
+     */
+    public PipelinePrimer register() {
+        Core.getGlobalContext().register(this);
+        return this;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws IOException {
+        prime(PRIMING_ROUNDS);
+        for (Runnable initializer : initializers) {
+            initializer.run();
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        // Nothing to restore: the primed code and the clients are part of the snapshot
+    }
+
+    /**
+     * Runs a synthetic network through every stage of the handler except the AWS calls.
+     *
+     * @param rounds How many times to run the pipeline.
+     * @return The total length of the produced messages, so the work cannot be optimized away.
+     * @throws IOException If the synthetic network cannot be parsed, which indicates a bug.
+     */
+    public static long prime(int rounds) throws IOException {
+        byte[] file = syntheticNetwork(PRIMING_EDGES, 1);
+        long length = 0;
+        for (int round = 0; round < rounds; round++) {
+            EdgeStore edges = NetworkObjectParser.parseEdges(file);
+            NodeIdCompactor nodeIds = NodeIdCompactor.compact(edges);
+            // Exercise every engine, since the one chosen for a real graph depends on its size
+            MstEngine engine = MstEngine.values()[round % MstEngine.values().length];
+            PhaseMetrics metrics = new PhaseMetrics();
+            EdgeStore mst = nodeIds.restore(engine.findMinimumSpanningTree(edges, nodeIds.nodeCount(), metrics));
+            length += MstJsonWriter.toBytes(mst, "s3://priming/network.txt").length;
+            length += metrics.toEmf("Priming", 0).length();
+        }
+        return length;
+    }
+
+    /**
+     * Generates a connected random network in the text format of uploaded files.
+     *
+     * @param edgeCount The number of connections.
+     * @param seed The seed of the random endpoints and costs.
+     * @return The content of the file.
+     */
+    public static byte[] syntheticNetwork(int edgeCount, long seed) {
+        Random random = new Random(seed);
+        int numNodes = Math.max(2, edgeCount / 4);
+        StringBuilder content = new StringBuilder(edgeCount * 20);
+        content.append(edgeCount).append('\n');
+        for (int i = 0; i < edgeCount; i++) {
+            // A spanning path first, so the network is connected, then random links
+            int node1 = i + 1 < numNodes ? i : random.nextInt(numNodes);
+            int node2 = i + 1 < numNodes ? i + 1 : random.nextInt(numNodes);
+            content.append(node1).append(' ').append(node2).append(' ').append(random.nextInt(1_000_000)).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,193 @@
+package com.manilvit;
+
+import java.util.Arrays;
+
+/**
+ * This class implements Prim's algorithm to find the Minimum Spanning Tree (MST) of a graph.
+ * The tree grows from one node at a time: an indexed binary heap holds, for every node next to the tree, the cost
+ * of its cheapest connection, which is lowered in place whenever a cheaper one is found. The adjacency is kept in
+ * a {@link CsrGraph}. No edge is sorted, and on dense graphs most edges are only read once and never reach the heap.
+ * Building the adjacency costs about as much as Kruskal's radix sort, though, so {@link MstEngine#select} does not
+ * choose Prim by itself; it is there to be configured and compared.
+ * Disconnected graphs yield a spanning forest, one tree per component.
+ */
+public class PrimAlgorithm {
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) of a graph using Prim's algorithm.
+     * The result has the same total cost as {@link KruskalAlgorithm#findMinimumSpanningTree(EdgeStore, int)}.
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes) {
+        return findMinimumSpanningTree(edges, numNodes, null);
+    }
+
+    /**
+     * Finds the Minimum Spanning Tree (MST) like {@link #findMinimumSpanningTree(EdgeStore, int)} and records
+     * "CsrBuildTime", "HeapTime" and "HeapOperations" (inserts, decreases and removals).
+     *
+     * @param edges The edges of the graph.
+     * @param numNodes The number of nodes in the graph.
+     * @param metrics Where to record the phases, or {@code null}.
+     * @return A new {@link EdgeStore} holding the edges of the MST in ascending cost order.
+     */
+    public static EdgeStore findMinimumSpanningTree(EdgeStore edges, int numNodes, PhaseMetrics metrics) {
+        long buildStart = System.nanoTime();
+        CsrGraph graph = CsrGraph.build(edges, numNodes);
+        long heapStart = System.nanoTime();
+
+        int[] bestEdge = new int[numNodes]; // The adjacency position of the cheapest known connection of each node to the tree
+        int[] bestFrom = new int[numNodes]; // The tree node that connection starts from
+        boolean[] inTree = new boolean[numNodes];
+        IndexedMinHeap heap = new IndexedMinHeap(numNodes);
+        EdgeStore tree = new EdgeStore(Math.max(0, Math.min(edges.size(), numNodes - 1)));
+        long operations = 0;
+
+        for (int root = 0; root < numNodes && tree.size() < numNodes - 1; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            // Grow a tree from each node not reached yet, which covers one component
+            int node = root;
+            while (true) {
+                inTree[node] = true;
+                if (node != root) {
+                    int position = bestEdge[node];
+                    int from = bestFrom[node];
+                    // Keep the direction in which the connection was given
+                    if (graph.isReversed(position)) {
+                        tree.add(node, from, graph.cost(position));
+                    } else {
+                        tree.add(from, node, graph.cost(position));
+                    }
+                }
+                for (int position = graph.start(node), end = graph.end(node); position < end; position++) {
+                    int neighbour = graph.target(position);
+                    if (!inTree[neighbour] && heap.offer(neighbour, graph.cost(position))) {
+                        bestEdge[neighbour] = position;
+                        bestFrom[neighbour] = node;
+                        operations++;
+                    }
+                }
+                if (heap.isEmpty()) {
+                    break;
+                }
+                node = heap.poll();
+                operations++;
+            }
+        }
+
+        // Report the tree in ascending cost order, like the other engines
+        int[] order = RadixSort.sortedOrder(tree.costs(), tree.size());
+        EdgeStore mst = new EdgeStore(tree.size());
+        for (int index : order) {
+            mst.add(tree.getNode1(index), tree.getNode2(index), tree.getCost(index));
+        }
+
+        if (metrics != null) {
+            metrics.addTime("CsrBuildTime", heapStart - buildStart);
+            metrics.addTime("HeapTime", System.nanoTime() - heapStart);
+            metrics.addCount("HeapOperations", operations);
+        }
+        return mst;
+    }
+
+    /**
+     * A binary min-heap of nodes keyed by cost, with the position of every node tracked so that its key can be
+     * lowered in place rather than inserting a duplicate entry.
+     */
+    private static final class IndexedMinHeap {
+        private final int[] nodes;
+        private final int[] keys;
+        private final int[] positions; // The index of each node in nodes, or -1 if it is not in the heap
+        private int size;
+
+        IndexedMinHeap(int capacity) {
+            nodes = new int[capacity];
+            keys = new int[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Inserts a node, or lowers its key if it is already in the heap with a higher one.
+         *
+         * @return {@code true} if the node was inserted or its key lowered.
+         */
+        boolean offer(int node, int key) {
+            int position = positions[node];
+            if (position < 0) {
+                position = size++;
+                nodes[position] = node;
+                positions[node] = position;
+            } else if (key >= keys[node]) {
+                return false;
+            }
+            keys[node] = key;
+            siftUp(position);
+            return true;
+        }
+
+        /**
+         * Removes the node with the lowest key.
+         */
+        int poll() {
+            int top = nodes[0];
+            positions[top] = -1;
+            if (--size > 0) {
+                int last = nodes[size];
+                nodes[0] = last;
+                positions[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int position) {
+            int node = nodes[position];
+            int key = keys[node];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                int parentNode = nodes[parent];
+                if (keys[parentNode] <= key) {
+                    break;
+                }
+                nodes[position] = parentNode;
+                positions[parentNode] = position;
+                position = parent;
+            }
+            nodes[position] = node;
+            positions[node] = position;
+        }
+
+        private void siftDown(int position) {
+            int node = nodes[position];
+            int key = keys[node];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[nodes[child + 1]] < keys[nodes[child]]) {
+                    child++;
+                }
+                int childNode = nodes[child];
+                if (keys[childNode] >= key) {
+                    break;
+                }
+                nodes[position] = childNode;
+                positions[childNode] = position;
+                position = child;
+            }
+            nodes[position] = node;
+            positions[node] = position;
+        }
+    }
+}
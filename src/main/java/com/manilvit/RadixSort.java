@@ -0,0 +1,91 @@
+package com.manilvit;
+
+/**
+ * LSD (least significant digit first) radix sort for integer keys.
+ * Rather than moving the keys themselves, the sort produces a permutation of positions, so that columnar data
+ * such as an {@link EdgeStore} can be visited in key order without reordering any of its arrays.
+ */
+final class RadixSort {
+
+    private static final int BITS_PER_PASS = 8;
+    private static final int BUCKETS = 1 << BITS_PER_PASS;
+    private static final int PASSES = Integer.SIZE / BITS_PER_PASS;
+
+    private RadixSort() {
+    }
+
+    /**
+     * Computes the order in which the first {@code size} keys appear when sorted in ascending order.
+     * The sort is stable: positions holding equal keys keep their original relative order.
+     * Passes whose digit is identical for every key (for example the high bytes of small costs) are skipped.
+     *
+     * @param keys The keys to sort by; the array itself is not modified.
+     * @param size The number of leading keys to sort.
+     * @return An array of positions into {@code keys}, ordered by ascending key.
+     */
+    static int[] sortedOrder(int[] keys, int size) {
+        // Count the digits of every pass in a single sweep over the keys
+        int[][] counts = new int[PASSES][BUCKETS];
+        for (int i = 0; i < size; i++) {
+            int key = flipSign(keys[i]);
+            for (int pass = 0; pass < PASSES; pass++) {
+                counts[pass][digit(key, pass)]++;
+            }
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] buffer = null;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] count = counts[pass];
+            if (isTrivialPass(count, size)) {
+                continue; // Every key has the same digit here, so this pass would not change the order
+            }
+            if (buffer == null) {
+                buffer = new int[size];
+            }
+
+            // Turn the digit histogram into starting offsets
+            int offset = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                int c = count[bucket];
+                count[bucket] = offset;
+                offset += c;
+            }
+
+            // Scatter positions into their buckets, preserving the order from the previous pass
+            for (int i = 0; i < size; i++) {
+                int position = order[i];
+                buffer[count[digit(flipSign(keys[position]), pass)]++] = position;
+            }
+
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Flips the sign bit so that negative keys sort before positive ones when digits are compared unsigned.
+     */
+    private static int flipSign(int key) {
+        return key ^ Integer.MIN_VALUE;
+    }
+
+    private static int digit(int key, int pass) {
+        return (key >>> (pass * BITS_PER_PASS)) & (BUCKETS - 1);
+    }
+
+    private static boolean isTrivialPass(int[] count, int size) {
+        for (int c : count) {
+            if (c != 0) {
+                return c == size;
+            }
+        }
+        return true;
+    }
+}
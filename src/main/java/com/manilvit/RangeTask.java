@@ -0,0 +1,55 @@
+package com.manilvit;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs work over a range of positions on the ForkJoin common pool, splitting the range in half while it is larger
+ * than a grain. The work for different positions must be independent, since it runs in no particular order.
+ */
+final class RangeTask extends RecursiveAction {
+
+    /**
+     * Work on a range of positions.
+     */
+    @FunctionalInterface
+    interface Action {
+        void run(int from, int to);
+    }
+
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final Action action;
+
+    private RangeTask(int from, int to, int grain, Action action) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.action = action;
+    }
+
+    /**
+     * Runs an action over {@code [from, to)} on the common pool and waits for it to finish.
+     *
+     * @param from The first position.
+     * @param to The position after the last one.
+     * @param grain The largest range handed to the action in one call.
+     * @param action The work to do.
+     */
+    static void run(int from, int to, int grain, Action action) {
+        if (from < to) {
+            ForkJoinPool.commonPool().invoke(new RangeTask(from, to, grain, action));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > grain) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, action), new RangeTask(middle, to, grain, action));
+            return;
+        }
+        action.run(from, to);
+    }
+}
@@ -0,0 +1,168 @@
+package com.manilvit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches computed MSTs by the content of the file they were computed from, so that re-uploads of identical files
+ * skip downloading, parsing and solving.
+ * <p>
+ * The first tier is an in-memory LRU map bounded by the total number of cached MST edges. It is meant to be held in
+ * static state, so it survives across warm invocations of the same Lambda instance. The optional second tier is a
+ * {@link BlobStore}, which is shared by all instances and survives cold starts; a hit there is promoted to memory.
+ */
+public class ResultCache {
+
+    private static final String KEY_PREFIX = "results/";
+    private static final String KEY_SUFFIX = ".bin";
+
+    private final long maxEdges;
+    private final BlobStore persistentStore;
+    private final LinkedHashMap<String, EdgeStore> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedEdges;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxEdges The most MST edges kept in memory across all entries; 0 disables the memory tier.
+     * @param persistentStore The store backing the cache, or {@code null} for a memory-only cache.
+     */
+    public ResultCache(long maxEdges, BlobStore persistentStore) {
+        this.maxEdges = maxEdges;
+        this.persistentStore = persistentStore;
+    }
+
+    /**
+     * Builds the cache key of an S3 object from its ETag and size.
+     * S3 computes the ETag from the object's content (per part for multipart uploads), so byte-identical uploads
+     * share a key no matter what they are called, and nothing has to be downloaded to compute it.
+     *
+     * @param eTag The ETag of the object, with or without surrounding quotes.
+     * @param size The size of the object in bytes.
+     * @return The cache key, or {@code null} if the ETag is unknown.
+     */
+    public static String keyOf(String eTag, long size) {
+        if (eTag == null || eTag.isBlank()) {
+            return null;
+        }
+        return eTag.replace("\"", "") + "-" + size;
+    }
+
+    /**
+     * Looks up a cached MST, first in memory, then in the persistent store.
+     *
+     * @param key The cache key.
+     * @return The cached MST, or {@code null} on a miss. The returned store must not be modified.
+     */
+    public EdgeStore get(String key) {
+        synchronized (this) {
+            EdgeStore mst = entries.get(key);
+            if (mst != null) {
+                memoryHits.incrementAndGet();
+                return mst;
+            }
+        }
+        if (persistentStore != null) {
+            try {
+                byte[] stored = persistentStore.get(KEY_PREFIX + key + KEY_SUFFIX);
+                if (stored != null) {
+                    EdgeStore mst = NetworkObjectParser.parseEdges(stored);
+                    persistentHits.incrementAndGet();
+                    putInMemory(key, mst);
+                    return mst;
+                }
+            } catch (IOException e) {
+                // A broken or unreachable persistent entry is just a miss; the result will be recomputed and rewritten
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds an MST to the cache and writes it through to the persistent store.
+     *
+     * @param key The cache key.
+     * @param mst The MST to cache; it must not be modified afterwards.
+     * @throws IOException If writing to the persistent store fails.
+     */
+    public void put(String key, EdgeStore mst) throws IOException {
+        putInMemory(key, mst);
+        if (persistentStore != null) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BinaryEdgeFormat.write(mst, output, BinaryEdgeFormat.Encoding.VARINT);
+            persistentStore.put(KEY_PREFIX + key + KEY_SUFFIX, output.toByteArray());
+        }
+    }
+
+    /**
+     * Gets the number of lookups answered from memory.
+     *
+     * @return The number of memory hits.
+     */
+    public long memoryHitCount() {
+        return memoryHits.get();
+    }
+
+    /**
+     * Gets the number of lookups answered from the persistent store.
+     *
+     * @return The number of persistent hits.
+     */
+    public long persistentHitCount() {
+        return persistentHits.get();
+    }
+
+    /**
+     * Gets the number of lookups answered from either tier.
+     *
+     * @return The number of hits.
+     */
+    public long hitCount() {
+        return memoryHits.get() + persistentHits.get();
+    }
+
+    /**
+     * Gets the number of lookups that found nothing.
+     *
+     * @return The number of misses.
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries currently held in memory.
+     *
+     * @return The number of in-memory entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void putInMemory(String key, EdgeStore mst) {
+        if (mst.size() > maxEdges) {
+            return; // Would evict everything else and still not fit
+        }
+        EdgeStore previous = entries.put(key, mst);
+        if (previous != null) {
+            cachedEdges -= previous.size();
+        }
+        cachedEdges += mst.size();
+
+        // Evict the least recently used entries until the edge budget is met again
+        Iterator<Map.Entry<String, EdgeStore>> eldest = entries.entrySet().iterator();
+        while (cachedEdges > maxEdges && eldest.hasNext()) {
+            cachedEdges -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the SQS message for an MST, keeping it below the SQS message size limit.
+ * <p>
+ * Small results are sent inline: {@code total_cost}, {@code connections}, the {@code components} of the forest and
+ * {@code s3_file_path}. Larger results are written to a {@link BlobStore} as gzip-compressed JSON in the same format.
+ * The message then carries only {@code total_cost}, {@code edge_count}, {@code component_count},
+ * {@code s3_file_path} and the {@code result_location} of the full result.
+ */
+public class ResultOffloader {
+
+    /**
+     * The encoding of offloaded results, sent as {@code result_encoding}.
+     */
+    public static final String RESULT_ENCODING = "gzip-json";
+
+    private static final String RESULT_SUFFIX = ".mst.json.gz";
+
+    private final ObjectMapper objectMapper;
+    private final BlobStore store;
+    private final int maxInlineBytes;
+
+    /**
+     * Constructs an offloader.
+     *
+     * @param objectMapper The mapper used to serialize messages.
+     * @param store Where large results are written, or {@code null} to always send results inline.
+     * @param maxInlineBytes The largest message, in UTF-8 bytes, that is sent inline.
+     */
+    public ResultOffloader(ObjectMapper objectMapper, BlobStore store, int maxInlineBytes) {
+        this.objectMapper = objectMapper;
+        this.store = store;
+        this.maxInlineBytes = maxInlineBytes;
+    }
+
+    /**
+     * Builds the message for the MST of an S3 object, writing the full result to the store if it is too large.
+     *
+     * @param mst The edges of the MST.
+     * @param bucket The bucket of the network file.
+     * @param key The key of the network file.
+     * @return The message in JSON format.
+     * @throws IOException If serialization or writing the result fails.
+     */
+    public String toMessage(EdgeStore mst, String bucket, String key) throws IOException {
+        String filePath = "s3://" + bucket + "/" + key;
+        ForestSummary trees = ForestSummary.of(mst);
+        if (store == null || MstJsonWriter.length(mst, trees, filePath) <= maxInlineBytes) {
+            return new String(MstJsonWriter.toBytes(mst, trees, filePath), StandardCharsets.UTF_8);
+        }
+
+        // Compress while writing, so the uncompressed JSON never exists in memory
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 1 << 16)) {
+            MstJsonWriter.write(mst, trees, filePath, gzip);
+        }
+
+        String resultKey = bucket + "/" + key + RESULT_SUFFIX;
+        store.put(resultKey, compressed.toByteArray());
+        return objectMapper.writeValueAsString(Map.of(
+                "total_cost", mst.totalCost(),
+                "edge_count", mst.size(),
+                "component_count", trees.treeCount(),
+                "s3_file_path", filePath,
+                "result_location", store.location(resultKey),
+                "result_encoding", RESULT_ENCODING
+        ));
+    }
+}
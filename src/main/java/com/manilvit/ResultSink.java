@@ -0,0 +1,20 @@
+package com.manilvit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the handler delivers its result messages: the SQS result queue in Lambda, or a file in local runs.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    /**
+     * Delivers messages. A failure only affects the messages it concerns, so the caller can report them individually.
+     *
+     * @param messages The message bodies to deliver.
+     * @return The error of every message that was not delivered, keyed by its index in {@code messages}; empty if all
+     *         were delivered.
+     */
+    Map<Integer, String> send(List<String> messages);
+}
@@ -0,0 +1,74 @@
+package com.manilvit;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BlobStore} backed by a prefix in an S3 bucket.
+ */
+public class S3BlobStore implements BlobStore {
+
+    static final String SCHEME = "s3://";
+
+    private final Supplier<S3Client> s3Client;
+    private final String bucket;
+    private final String prefix;
+
+    /**
+     * Constructs a store for the objects under a prefix of a bucket.
+     *
+     * @param s3Client Supplies the S3 client on first use.
+     * @param bucket The name of the bucket.
+     * @param prefix The key prefix, with or without a trailing '/'; may be empty.
+     */
+    public S3BlobStore(Supplier<S3Client> s3Client, String bucket, String prefix) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(prefix + key)
+                    .build();
+            return s3Client.get().getObjectAsBytes(request).asByteArrayUnsafe();
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            throw new IOException("Error reading " + location(key) + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        try {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(prefix + key)
+                    .build();
+            s3Client.get().putObject(request, RequestBody.fromBytes(data));
+        } catch (S3Exception e) {
+            throw new IOException("Error writing " + location(key) + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String location(String key) {
+        return SCHEME + bucket + "/" + prefix + key;
+    }
+
+    @Override
+    public boolean contains(String bucket, String key) {
+        return this.bucket.equals(bucket) && key.startsWith(prefix);
+    }
+}
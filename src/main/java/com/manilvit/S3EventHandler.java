@@ -5,17 +5,24 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
-import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.services.sqs.model.SqsException;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 /**
  * Lambda function to handle S3 event notifications and process files from S3.
  * The files are parsed, processed using Kruskal's algorithm to find the Minimum Spanning Tree (MST),
@@ -27,14 +34,116 @@ public class S3EventHandler implements RequestHandler<S3EventNotification, Strin
 
     private static final String EXPECTED_BUCKET = System.getenv("EXPECTED_BUCKET");
     private static final String SQS_QUEUE_URL = System.getenv("SQS_QUEUE_URL");
+    private static final String MST_ENGINE = System.getenv("MST_ENGINE"); // "kruskal", "filter_kruskal", "boruvka", "prim" or "auto" (default)
+    private static final int PARALLEL_EDGE_THRESHOLD = intFromEnv("PARALLEL_EDGE_THRESHOLD", MstEngine.DEFAULT_PARALLEL_EDGE_THRESHOLD);
+    // Solve the connected components of graphs from PARALLEL_EDGE_THRESHOLD edges in parallel shards; off by default,
+    // because labelling the components costs a pass and three int arrays per node even for connected graphs
+    private static final boolean COMPONENT_SHARDING = Boolean.parseBoolean(System.getenv("COMPONENT_SHARDING"));
 
+    // Drop self-loops and all but the cheapest of parallel links before the MST engine runs
+    private static final boolean REDUCE_PARALLEL_EDGES = Boolean.parseBoolean(System.getenv("REDUCE_PARALLEL_EDGES"));
 
-    private static final S3Client s3Client = S3Client.builder().build(); // S3 client to interact with S3
-    private static final SqsClient sqsClient = SqsClient.builder().build(); // SQS client to interact with SQS
+    // Files larger than this (by Content-Length) are solved out of core, spilling sorted runs to SPILL_DIRECTORY;
+    // the length of a compressed file is first multiplied by Compression.ESTIMATED_RATIO
+    private static final long EXTERNAL_MEMORY_THRESHOLD_BYTES = longFromEnv("EXTERNAL_MEMORY_THRESHOLD_BYTES",
+            Runtime.getRuntime().maxMemory() / 4);
+    private static final Path SPILL_DIRECTORY = Path.of(System.getenv().getOrDefault("SPILL_DIRECTORY", "/tmp"));
+
+    // Files from this size on (by the size in the event) are downloaded as parallel byte ranges, each parsed as it arrives; 0 disables
+    private static final long PARALLEL_DOWNLOAD_THRESHOLD_BYTES = longFromEnv("PARALLEL_DOWNLOAD_THRESHOLD_BYTES", 64L << 20);
+    private static final int DOWNLOAD_CHUNK_BYTES = intFromEnv("DOWNLOAD_CHUNK_BYTES", ParallelRangeParser.DEFAULT_CHUNK_SIZE);
+    private static final int DOWNLOAD_PARALLELISM = intFromEnv("DOWNLOAD_PARALLELISM", 8);
+
+
+    // The clients are created on first use, with the URLConnection HTTP client, which starts much faster than the Apache one
+    private static final Lazy<S3Client> s3Client = new Lazy<>(() -> S3Client.builder()
+            .httpClientBuilder(UrlConnectionHttpClient.builder())
+            .build()); // S3 client to interact with S3
+    private static final Lazy<SqsBatchSender> sqsBatchSender = new Lazy<>(() -> new SqsBatchSender(SqsClient.builder()
+            .httpClientBuilder(UrlConnectionHttpClient.builder())
+            .build(), SQS_QUEUE_URL)); // SQS client to interact with SQS
     private static final ObjectMapper objectMapper = new ObjectMapper(); // Jackson object mapper for JSON serialization
 
+    // Where results too large for an SQS message are written: "s3://bucket/prefix" or a directory; unset sends every
+    // result inline. There is no default in the upload bucket, where every result would notify the function again
+    private static final String RESULT_OFFLOAD_LOCATION = System.getenv("RESULT_OFFLOAD_LOCATION");
+    private static final BlobStore resultOffloadStore = RESULT_OFFLOAD_LOCATION == null || RESULT_OFFLOAD_LOCATION.isBlank()
+            ? null : BlobStore.fromLocation(RESULT_OFFLOAD_LOCATION, s3Client, EXPECTED_BUCKET);
+    private static final ResultOffloader resultOffloader = new ResultOffloader(objectMapper, resultOffloadStore,
+            intFromEnv("MAX_INLINE_RESULT_BYTES", SqsBatchSender.MAX_BATCH_BYTES));
+
+    // How many records of one event are processed at the same time; each holds its graph in memory, so a file too large
+    // for its share of EXTERNAL_MEMORY_THRESHOLD_BYTES takes every permit and is processed alone
+    private static final int MAX_CONCURRENT_RECORDS = Math.max(1, intFromEnv("MAX_CONCURRENT_RECORDS", 4));
+    private static final int MAX_LOGGED_MESSAGE_CHARS = 512;
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+    private static final String METRICS_NAMESPACE = System.getenv().getOrDefault("METRICS_NAMESPACE", "NetworkOptimizer");
+
+    // Where networks and their MSTs are kept for delta updates: "s3://bucket/prefix" or a local directory; unset disables deltas
+    private static final String MST_STATE_LOCATION = System.getenv("MST_STATE_LOCATION");
+    private static final BlobStore defaultStateStore = MST_STATE_LOCATION == null || MST_STATE_LOCATION.isBlank()
+            ? null : BlobStore.fromLocation(MST_STATE_LOCATION, s3Client, EXPECTED_BUCKET);
+
+    // Results of identical uploads: kept in memory across warm invocations, optionally backed by "s3://bucket/prefix" or a directory
+    private static final String RESULT_CACHE_LOCATION = System.getenv("RESULT_CACHE_LOCATION");
+    private static final BlobStore resultCacheStore = RESULT_CACHE_LOCATION == null || RESULT_CACHE_LOCATION.isBlank()
+            ? null : BlobStore.fromLocation(RESULT_CACHE_LOCATION, s3Client, EXPECTED_BUCKET);
+    private static final ResultCache defaultResultCache = new ResultCache(
+            intFromEnv("RESULT_CACHE_MAX_EDGES", 1_000_000), resultCacheStore);
+
+    // Where path query indexes of the results are written for MstQueryHandler: "s3://bucket/prefix" or a directory; unset disables them
+    private static final String MST_INDEX_LOCATION = System.getenv("MST_INDEX_LOCATION");
+    private static final BlobStore indexStore = MST_INDEX_LOCATION == null || MST_INDEX_LOCATION.isBlank()
+            ? null : BlobStore.fromLocation(MST_INDEX_LOCATION, s3Client, EXPECTED_BUCKET);
+
+    // With SnapStart, warms up the pipeline and creates the clients before the snapshot; kept here because CRaC holds it weakly
+    private static final PipelinePrimer primer = new PipelinePrimer(List.of(s3Client::get, sqsBatchSender::get)).register();
+
+    private final ObjectSource objectSource; // Where the network files are read from
+    private final ResultSink resultSink; // Where the result messages go
+    private final String expectedBucket; // Files from other buckets are skipped
+    private final BlobStore stateStore; // Where networks and their MSTs are kept for delta updates, or null
+    private final ResultCache resultCache; // Results of identical uploads
+
     private LambdaLogger logger; // Logger for Lambda function
 
+    /**
+     * Constructs the handler Lambda uses: files are read from S3 and results are sent to {@code SQS_QUEUE_URL}.
+     */
+    public S3EventHandler() {
+        this(new S3ObjectSource(s3Client), messages -> sqsBatchSender.get().send(messages), EXPECTED_BUCKET);
+    }
+
+    /**
+     * Constructs a handler with other places to read files from and deliver results to, such as local directories.
+     * All other settings are still read from the environment.
+     *
+     * @param objectSource Where the network files are read from.
+     * @param resultSink Where the result messages go.
+     * @param expectedBucket The only bucket whose files are processed.
+     */
+    public S3EventHandler(ObjectSource objectSource, ResultSink resultSink, String expectedBucket) {
+        this(objectSource, resultSink, expectedBucket, defaultStateStore, defaultResultCache);
+    }
+
+    /**
+     * Constructs a handler that also keeps delta state and cached results in given places instead of the configured ones.
+     *
+     * @param objectSource Where the network files are read from.
+     * @param resultSink Where the result messages go.
+     * @param expectedBucket The only bucket whose files are processed.
+     * @param stateStore Where networks and their MSTs are kept for delta updates, or {@code null} to disable deltas.
+     * @param resultCache The cache of results of identical uploads.
+     */
+    S3EventHandler(ObjectSource objectSource, ResultSink resultSink, String expectedBucket,
+                   BlobStore stateStore, ResultCache resultCache) {
+        this.objectSource = objectSource;
+        this.resultSink = resultSink;
+        this.expectedBucket = expectedBucket;
+        this.stateStore = stateStore;
+        this.resultCache = resultCache;
+    }
+
     /**
      * Handles incoming S3 event notifications, processes the files, and sends the results to SQS.
      *
@@ -52,114 +161,412 @@ public class S3EventHandler implements RequestHandler<S3EventNotification, Strin
             return "No records processed.";
         }
 
-        for (S3EventNotification.S3EventNotificationRecord record : records) {
-            String bucketName = record.getS3().getBucket().getName();
-            String objectKey = record.getS3().getObject().getKey();
-
-            if (!EXPECTED_BUCKET.equals(bucketName)) {
-                logger.log("Skipping file from unexpected bucket: " + bucketName);
-                continue;
+        String[] failures = processRecords(records, context);
+        int failed = 0;
+        for (String failure : failures) {
+            if (failure != null) {
+                failed++;
             }
+        }
+        return failed == 0 ? "Processing complete." : "Processing complete. Failed records: " + failed + " of " + records.size() + ".";
+    }
 
-            logger.log("Processing file: " + objectKey + " from bucket: " + bucketName);
+    /**
+     * Processes a batch of records, sends the results to SQS and logs the metrics of each record.
+     * Records are processed concurrently on virtual threads, and a failing record does not stop the others.
+     * This is shared with {@link SqsEventHandler}, which receives the records through a queue.
+     *
+     * @param records The records to process.
+     * @param context The AWS Lambda context providing information about the execution environment.
+     * @return Why each record failed, at the index of the record, or {@code null} for records that succeeded or were
+     *         skipped.
+     */
+    String[] processRecords(List<S3EventNotification.S3EventNotificationRecord> records, Context context) {
+        logger = context.getLogger();
+
+        // Records of the same network stay in event order, so a delta is never applied before its base or an earlier delta
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            groups.computeIfAbsent(orderingKey(records.get(i)), k -> new ArrayList<>()).add(i);
+        }
 
+        String[] messages = new String[records.size()]; // The message of each record, or null if it has none
+        String[] failures = new String[records.size()]; // Why each record failed, or null if it did not
+        PhaseMetrics[] metrics = new PhaseMetrics[records.size()]; // The metrics of each processed record
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_RECORDS, true); // Fair, so a record waiting to run alone is not starved
+        List<Future<?>> tasks = new ArrayList<>(groups.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<Integer> group : groups.values()) {
+                tasks.add(executor.submit(() -> {
+                    for (int index : group) {
+                        int needed = permitsFor(records.get(index));
+                        permits.acquireUninterruptibly(needed);
+                        try {
+                            processRecord(records.get(index), index, messages, failures, metrics);
+                        } finally {
+                            permits.release(needed);
+                        }
+                    }
+                }));
+            }
+        } // Closing the executor waits for every record
+        for (Future<?> task : tasks) {
             try {
-                String fileContent = downloadFile(bucketName, objectKey); // Download the file content from S3
-                logger.log("File content fetched from S3.");
+                task.get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Unexpected error processing records", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while processing records", e);
+            }
+        }
 
-                List<NetworkConnection> connections = NetworkObjectParser.parse(fileContent); // Parse the file content into network connections
-                if (connections.isEmpty()) {
-                    logger.log("Parsed graph is empty.");
-                    return "Parsed graph is empty.";
+        // Send all results together, in as few SQS calls as possible
+        List<Integer> sentRecords = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < messages.length; i++) {
+            if (messages[i] != null) {
+                sentRecords.add(i);
+                batch.add(messages[i]);
+            }
+        }
+        long sendStart = System.nanoTime();
+        Map<Integer, String> sendFailures = batch.isEmpty() ? Map.of() : resultSink.send(batch);
+        long sendTime = System.nanoTime() - sendStart;
+        for (int i = 0; i < batch.size(); i++) {
+            String error = sendFailures.get(i);
+            metrics[sentRecords.get(i)].addTime("SendTime", sendTime); // All messages of an event share the batched sends
+            if (error != null) {
+                logger.log("Error sending message to SQS: " + error);
+                failures[sentRecords.get(i)] = "Error sending message to SQS";
+            } else {
+                logger.log("Message sent to SQS: " + summarize(batch.get(i)));
+            }
+        }
+
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+                logger.log("Record failed: " + records.get(i).getS3().getObject().getKey() + ": " + failures[i]);
+            }
+            if (metrics[i] != null) {
+                metrics[i].addCount("Failures", failures[i] != null ? 1 : 0);
+                logger.log(metrics[i].toEmf(METRICS_NAMESPACE, System.currentTimeMillis())); // One EMF line per record
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Processes one record and stores its outcome at {@code index} in either {@code messages} or {@code failures},
+     * and its metrics in {@code metrics}. Skipped records leave all three empty.
+     */
+    private void processRecord(S3EventNotification.S3EventNotificationRecord record, int index,
+                               String[] messages, String[] failures, PhaseMetrics[] metrics) {
+        String bucketName = record.getS3().getBucket().getName();
+        String objectKey = record.getS3().getObject().getKey();
+
+        if (!bucketName.equals(expectedBucket)) {
+            logger.log("Skipping file from unexpected bucket: " + bucketName);
+            return;
+        }
+
+        if ((stateStore != null && stateStore.contains(bucketName, objectKey))
+                || (resultCacheStore != null && resultCacheStore.contains(bucketName, objectKey))
+                || (resultOffloadStore != null && resultOffloadStore.contains(bucketName, objectKey))
+                || (indexStore != null && indexStore.contains(bucketName, objectKey))) {
+            logger.log("Skipping object written by the handler: " + objectKey);
+            return;
+        }
+
+        logger.log("Processing file: " + objectKey + " from bucket: " + bucketName);
+        PhaseMetrics recordMetrics = new PhaseMetrics();
+        recordMetrics.putProperty("S3FilePath", "s3://" + bucketName + "/" + objectKey);
+        metrics[index] = recordMetrics;
+
+        try {
+            EdgeStore mst;
+            String deltaBaseKey = stateStore != null ? MstDelta.baseKey(objectKey) : null;
+            if (deltaBaseKey != null) {
+                recordMetrics.putDimension("Path", "delta");
+                mst = applyDelta(bucketName, objectKey, record.getS3().getObject().geteTag(), deltaBaseKey,
+                        recordMetrics); // Update the stored MST of the base network
+            } else {
+                // Byte-identical files have the same ETag, so their MST can be reused no matter what they are called.
+                // With delta updates, every upload has to store its own network, and the network a cached result came
+                // from may have changed since, so the cache is bypassed.
+                Long objectSize = record.getS3().getObject().getSizeAsLong();
+                String cacheKey = stateStore == null
+                        ? ResultCache.keyOf(record.getS3().getObject().geteTag(), objectSize != null ? objectSize : -1) : null;
+                long lookupStart = System.nanoTime();
+                mst = cacheKey != null ? resultCache.get(cacheKey) : null;
+                recordMetrics.addTime("CacheLookupTime", System.nanoTime() - lookupStart);
+                if (mst != null) {
+                    logger.log("Result cache hit for ETag: " + cacheKey);
+                    recordMetrics.putDimension("Path", "cache");
+                } else {
+                    recordMetrics.putDimension("Path", "solve");
+                    mst = solveFile(bucketName, objectKey, objectSize != null ? objectSize : -1,
+                            record.getS3().getObject().geteTag(), recordMetrics); // Compute the MST of the whole network
+                    if (mst == null) {
+                        logger.log("Parsed graph is empty.");
+                        failures[index] = "Parsed graph is empty.";
+                        return;
+                    }
+                    if (cacheKey != null) {
+                        resultCache.put(cacheKey, mst);
+                    }
                 }
+                logger.log("Result cache hits: " + resultCache.hitCount() + " (persistent: " + resultCache.persistentHitCount()
+                        + "), misses: " + resultCache.missCount());
+            }
+            // Small results go inline; large ones are stored and the message points to them
+            long serializeStart = System.nanoTime();
+            messages[index] = resultOffloader.toMessage(mst, bucketName, objectKey);
+            recordMetrics.addTime("SerializeTime", System.nanoTime() - serializeStart);
+            recordMetrics.addCount("MstEdges", mst.size());
+
+            if (indexStore != null) {
+                // Index the latest tree of the network, which a delta updates under the key of its base network
+                long indexStart = System.nanoTime();
+                MstQueryIndex.build(mst).save(indexStore, MstQueryIndex.keyOf(bucketName,
+                        deltaBaseKey != null ? deltaBaseKey : objectKey));
+                recordMetrics.addTime("IndexTime", System.nanoTime() - indexStart);
+            }
 
-                // Calculate the number of nodes by finding the maximum node index
-                int numNodes = connections.stream()
-                        .flatMapToInt(conn -> java.util.stream.IntStream.of(conn.getNode1(), conn.getNode2()))
-                        .max()
-                        .orElse(0) + 1;
-
-                // Find the MST using Kruskal's algorithm
-                List<NetworkConnection> mst = KruskalAlgorithm.findMinimumSpanningTree(connections, numNodes);
-                int totalCost = mst.stream().mapToInt(NetworkConnection::getCost).sum(); // Sum the cost of the MST
-
-                // Prepare the message to be sent to SQS
-                List<Map<String, Integer>> formattedConnections = mst.stream()
-                        .map(conn -> Map.of(
-                                "from", conn.getNode1(),
-                                "to", conn.getNode2(),
-                                "cost", conn.getCost()
-                        ))
-                        .toList();
-
-
-
-                Map<String, Object> message = Map.of(
-                        "total_cost", totalCost,
-                        "connections", formattedConnections,
-                        "s3_file_path", "s3://" + bucketName + "/" + objectKey
-                );
-
-                String messageJson = objectMapper.writeValueAsString(message); // Convert the message to JSON
-                sendToSQS(messageJson); // Send the message to SQS
-                logger.log("Message sent to SQS: " + messageJson);
-
-            } catch (S3Exception e) {
-                logger.log("Error downloading file from S3: " + e.getMessage());
-                return "Error downloading file from S3";
-            } catch (SqsException e) {
-                logger.log("Error sending message to SQS: " + e.getMessage());
-                return "Error sending message to SQS";
-            } catch (Exception e) {
-                logger.log("Error processing file: " + e.getMessage());
-                return "Error processing file";
+        } catch (S3Exception e) {
+            logger.log("Error downloading file from S3: " + e.getMessage());
+            failures[index] = "Error downloading file from S3";
+        } catch (Exception e) {
+            logger.log("Error processing file: " + e.getMessage());
+            failures[index] = "Error processing file";
+        }
+    }
+
+    /**
+     * Gets how many of the {@code MAX_CONCURRENT_RECORDS} permits a record needs: one if its file fits its share of the
+     * in-memory budget, and all of them otherwise, so that it runs alone. Files of unknown size are assumed to be large.
+     */
+    private static int permitsFor(S3EventNotification.S3EventNotificationRecord record) {
+        Long size = record.getS3().getObject().getSizeAsLong();
+        if (size == null) {
+            return MAX_CONCURRENT_RECORDS;
+        }
+        long estimate = Compression.fromKey(record.getS3().getObject().getKey()) == Compression.NONE
+                ? size : size * Compression.ESTIMATED_RATIO;
+        return estimate > EXTERNAL_MEMORY_THRESHOLD_BYTES / MAX_CONCURRENT_RECORDS ? MAX_CONCURRENT_RECORDS : 1;
+    }
+
+    /**
+     * Gets the key of the network a record belongs to; records with the same key must be processed in order.
+     */
+    private String orderingKey(S3EventNotification.S3EventNotificationRecord record) {
+        String objectKey = record.getS3().getObject().getKey();
+        String deltaBaseKey = stateStore != null ? MstDelta.baseKey(objectKey) : null;
+        return stateKey(record.getS3().getBucket().getName(), deltaBaseKey != null ? deltaBaseKey : objectKey);
+    }
+
+    /**
+     * Downloads a network file, computes its MST and, if delta updates are enabled, stores both for later deltas.
+     *
+     * @param bucket The name of the S3 bucket.
+     * @param key The key (path) of the S3 object.
+     * @param size The size of the object from the event, or -1 if unknown.
+     * @param eTag The ETag of the object from the event, or {@code null}.
+     * @param metrics Where to record the phases.
+     * @return The edges of the MST, or {@code null} if the file contains no connections.
+     * @throws IOException If the file cannot be read or parsed, or the state cannot be stored.
+     */
+    private EdgeStore solveFile(String bucket, String key, long size, String eTag, PhaseMetrics metrics) throws IOException {
+        EdgeStore connections; // Parse the file content into network connections while it streams in
+        long downloadStart = System.nanoTime();
+        // Compressed files are decompressed as they stream in, which needs no ranges and buffers nothing
+        if (PARALLEL_DOWNLOAD_THRESHOLD_BYTES > 0 && size >= PARALLEL_DOWNLOAD_THRESHOLD_BYTES && size <= EXTERNAL_MEMORY_THRESHOLD_BYTES
+                && Compression.fromKey(key) == Compression.NONE) {
+            // Ranges are fetched and parsed concurrently, so ParseTime covers the whole download
+            logger.log("Downloading file in ranges of " + DOWNLOAD_CHUNK_BYTES + " bytes. Bucket: " + bucket + ", Key: " + key);
+            connections = ParallelRangeParser.parse(objectSource.ranges(bucket, key, eTag), size,
+                    DOWNLOAD_CHUNK_BYTES, DOWNLOAD_PARALLELISM, metrics);
+            metrics.addTime("ParseTime", System.nanoTime() - downloadStart);
+            metrics.addBytes("BytesRead", size);
+        } else {
+            try (ObjectSource.Content file = openFile(bucket, key)) {
+                // The body streams in while it is parsed, so DownloadTime is the time to the response and ParseTime includes the transfer
+                long parseStart = System.nanoTime();
+                metrics.addTime("DownloadTime", parseStart - downloadStart);
+                InputStream body = new BufferedInputStream(file.stream(), STREAM_BUFFER_SIZE);
+                Compression compression = Compression.peek(body); // Decompression itself happens in the parser
+                metrics.putProperty("Compression", compression.name());
+                long contentLength = file.length();
+                long contentEstimate = contentLength < 0 ? -1
+                        : compression == Compression.NONE ? contentLength : contentLength * Compression.ESTIMATED_RATIO;
+                if (contentEstimate > EXTERNAL_MEMORY_THRESHOLD_BYTES) {
+                    return solveOutOfCore(body, contentLength, metrics);
+                }
+                connections = NetworkObjectParser.parseEdges(body, contentLength);
+                metrics.addTime("ParseTime", System.nanoTime() - parseStart);
+                metrics.addBytes("BytesRead", Math.max(0, contentLength));
             }
         }
-        return "Processing complete.";
+        logger.log("File content parsed. Connections: " + connections.size());
+        metrics.addCount("Edges", connections.size());
+
+        if (connections.isEmpty()) {
+            return null;
+        }
+        if (REDUCE_PARALLEL_EDGES) {
+            connections = EdgeReducer.reduce(connections, metrics);
+            logger.log("Removed self-loops and parallel links: " + metrics.get("RemovedEdges"));
+        }
+
+        // Map the node identifiers to a dense range, so memory depends on the number of nodes rather than the largest id
+        long compactStart = System.nanoTime();
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(connections);
+        int numNodes = nodeIds.nodeCount();
+        metrics.addTime("CompactTime", System.nanoTime() - compactStart);
+        metrics.addCount("Nodes", numNodes);
+
+        // Find the MST with the configured engine, or the one that suits the graph size and density
+        MstEngine engine = MstEngine.select(MST_ENGINE, connections.size(), numNodes, PARALLEL_EDGE_THRESHOLD);
+        logger.log("Computing MST with engine: " + engine);
+        metrics.putProperty("Engine", engine.name());
+        long mstStart = System.nanoTime();
+        EdgeStore forest = COMPONENT_SHARDING && connections.size() >= PARALLEL_EDGE_THRESHOLD
+                ? ComponentSharding.findMinimumSpanningForest(connections, numNodes, engine, metrics)
+                : engine.findMinimumSpanningTree(connections, numNodes, metrics);
+        EdgeStore mst = nodeIds.restore(forest);
+        metrics.addTime("MstTime", System.nanoTime() - mstStart);
+
+        if (stateStore != null) {
+            long saveStart = System.nanoTime();
+            DynamicMst.restore(nodeIds.restore(connections), mst).save(stateStore, stateKey(bucket, key));
+            metrics.addTime("StateSaveTime", System.nanoTime() - saveStart);
+            logger.log("MST state stored for delta updates.");
+        }
+        return mst;
     }
 
     /**
-     * Downloads the file from the specified S3 bucket.
+     * Computes the MST of a file too large for the heap by spilling sorted runs to disk and merging them.
+     * The graph is never held in memory, so no state is stored for delta updates.
+     */
+    private EdgeStore solveOutOfCore(InputStream fileStream, long contentLength, PhaseMetrics metrics) throws IOException {
+        logger.log("File content exceeds " + EXTERNAL_MEMORY_THRESHOLD_BYTES + " bytes; computing MST out of core in " + SPILL_DIRECTORY);
+        metrics.putProperty("Engine", "EXTERNAL_KRUSKAL");
+        metrics.addBytes("BytesRead", contentLength);
+        long mstStart = System.nanoTime();
+        EdgeStore mst = ExternalKruskalAlgorithm.findMinimumSpanningTree(fileStream, contentLength, SPILL_DIRECTORY,
+                ExternalKruskalAlgorithm.defaultRunEdges(), metrics);
+        metrics.addTime("MstTime", System.nanoTime() - mstStart);
+        if (stateStore != null) {
+            logger.log("MST state is not stored for files solved out of core.");
+        }
+        return mst.isEmpty() && metrics.get("Edges").longValue() == 0 ? null : mst;
+    }
+
+    /**
+     * Applies a delta file to the stored MST of its base network and stores the updated state.
+     * The state is stored before the result is sent, so a delta whose result could not be sent comes back as a retry;
+     * the state records the key and ETag of every applied delta, and a retry only sends the current MST again.
+     *
+     * @param bucket The name of the S3 bucket.
+     * @param key The key of the delta file.
+     * @param eTag The ETag of the delta file from the event, or {@code null}, in which case retries are not recognised.
+     * @param baseKey The key of the network the delta applies to.
+     * @param metrics Where to record the phases.
+     * @return The edges of the updated MST.
+     * @throws IOException If there is no stored state for the network, or the delta cannot be read or parsed.
+     */
+    private EdgeStore applyDelta(String bucket, String key, String eTag, String baseKey, PhaseMetrics metrics) throws IOException {
+        String stateKey = stateKey(bucket, baseKey);
+        long loadStart = System.nanoTime();
+        DynamicMst state = DynamicMst.load(stateStore, stateKey);
+        metrics.addTime("StateLoadTime", System.nanoTime() - loadStart);
+        if (state == null) {
+            throw new IOException("No stored MST for " + baseKey + "; upload the full network first.");
+        }
+        String deltaId = eTag == null || eTag.isBlank() ? null : key + "@" + eTag.replace("\"", "");
+        if (deltaId != null && state.hasApplied(deltaId)) {
+            logger.log("Delta " + key + " has already been applied to the MST of " + baseKey + "; sending the current MST again.");
+            metrics.addCount("DeltaRetries", 1);
+            return state.treeEdges();
+        }
+
+        List<MstDelta.Update> updates;
+        long downloadStart = System.nanoTime();
+        try (ObjectSource.Content file = openFile(bucket, key)) {
+            long parseStart = System.nanoTime();
+            metrics.addTime("DownloadTime", parseStart - downloadStart);
+            updates = MstDelta.parse(file.stream());
+            metrics.addTime("ParseTime", System.nanoTime() - parseStart);
+        }
+        long updateStart = System.nanoTime();
+        state.apply(updates);
+        metrics.addTime("UpdateTime", System.nanoTime() - updateStart);
+        metrics.addCount("DeltaUpdates", updates.size());
+        if (deltaId != null) {
+            state.recordApplied(deltaId);
+        }
+        long saveStart = System.nanoTime();
+        state.save(stateStore, stateKey);
+        metrics.addTime("StateSaveTime", System.nanoTime() - saveStart);
+        logger.log("Applied " + updates.size() + " updates to the MST of " + baseKey + ".");
+        return state.treeEdges();
+    }
+
+    private static String stateKey(String bucket, String key) {
+        return bucket + "/" + key;
+    }
+
+    /**
+     * Opens a file of the object source as a stream, so it can be parsed without holding the whole object in memory.
      *
      * @param bucket The name of the S3 bucket.
      * @param key The key (path) of the S3 object.
-     * @return The content of the file as a string.
+     * @return The opened file; the caller must close it.
      * @throws S3Exception If there is an error downloading the file from S3.
+     * @throws IOException If the file cannot be opened from another source.
      */
-    private String downloadFile(String bucket, String key) throws S3Exception {
-        try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(key)
-                    .build();
-            logger.log("Downloading file from S3. Bucket: " + bucket + ", Key: " + key);
-            ResponseBytes<GetObjectResponse> objectBytes = s3Client.getObjectAsBytes(getObjectRequest); // Get file as bytes
-            logger.log("File successfully downloaded. Size: " + objectBytes.asUtf8String().length() + " bytes.");
-            return objectBytes.asUtf8String(); // Return the file content as a string
-        } catch (S3Exception s3e) {
-            throw s3e; // Rethrow the S3 exception
-        } catch (Exception e) {
-            throw new RuntimeException("Error downloading file from S3: " + e.getMessage(), e); // Handle any other errors
-        }
+    private ObjectSource.Content openFile(String bucket, String key) throws IOException {
+        logger.log("Downloading file. Bucket: " + bucket + ", Key: " + key);
+        ObjectSource.Content file = objectSource.open(bucket, key);
+        logger.log("File stream opened. Size: " + file.length() + " bytes.");
+        return file;
     }
 
     /**
-     * Sends a message to an SQS queue.
+     * Shortens a message for the log, so a large MST is not written to CloudWatch in full.
      *
-     * @param messageJson The message to be sent in JSON format.
-     * @throws SqsException If there is an error sending the message to SQS.
+     * @param message The message to log.
+     * @return The message, or its beginning followed by its length.
      */
-    private void sendToSQS(String messageJson) throws SqsException {
-        try {
-            SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-                    .queueUrl(SQS_QUEUE_URL)
-                    .messageBody(messageJson)
-                    .build();
-            sqsClient.sendMessage(sendMessageRequest); // Send the message to SQS
-        } catch (SqsException e) {
-            throw e; // Rethrow the SQS exception
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error sending message to SQS", e); // Handle any other errors
+    private static String summarize(String message) {
+        if (message.length() <= MAX_LOGGED_MESSAGE_CHARS) {
+            return message;
         }
+        return message.substring(0, MAX_LOGGED_MESSAGE_CHARS) + "... (" + message.length() + " characters)";
+    }
+
+    /**
+     * Reads an integer setting from an environment variable.
+     *
+     * @param name The name of the environment variable.
+     * @param defaultValue The value to use when the variable is not set.
+     * @return The configured value, or the default.
+     */
+    private static int intFromEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Reads a long setting from an environment variable.
+     *
+     * @param name The name of the environment variable.
+     * @param defaultValue The value to use when the variable is not set.
+     * @return The configured value, or the default.
+     */
+    private static long longFromEnv(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
     }
-}
\ No newline at end of file
+}
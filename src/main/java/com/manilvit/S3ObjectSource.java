@@ -0,0 +1,41 @@
+package com.manilvit;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.util.function.Supplier;
+
+/**
+ * An {@link ObjectSource} that reads objects from S3 with {@code GetObject} calls.
+ */
+public class S3ObjectSource implements ObjectSource {
+
+    private final Supplier<S3Client> s3Client;
+
+    /**
+     * Constructs a source.
+     *
+     * @param s3Client Supplies the S3 client; it is only called when an object is read.
+     */
+    public S3ObjectSource(Supplier<S3Client> s3Client) {
+        this.s3Client = s3Client;
+    }
+
+    @Override
+    public Content open(String bucket, String key) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+        ResponseInputStream<GetObjectResponse> stream = s3Client.get().getObject(request);
+        Long contentLength = stream.response().contentLength();
+        return new Content(stream, contentLength != null ? contentLength : -1);
+    }
+
+    @Override
+    public ParallelRangeParser.RangeReader ranges(String bucket, String key, String eTag) {
+        return ParallelRangeParser.s3(s3Client, bucket, key, eTag);
+    }
+}
@@ -0,0 +1,93 @@
+package com.manilvit;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sends messages to an SQS queue in as few {@code SendMessageBatch} calls as possible.
+ * A batch holds at most 10 messages whose bodies add up to at most 256 KiB, which are the SQS limits.
+ * A failure only affects the messages it concerns, so the caller can report them individually.
+ */
+public class SqsBatchSender implements ResultSink {
+
+    static final int MAX_BATCH_ENTRIES = 10;
+    static final int MAX_BATCH_BYTES = 256 * 1024;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+
+    /**
+     * Constructs a sender for one queue.
+     *
+     * @param sqsClient The client used to send the batches.
+     * @param queueUrl The URL of the SQS queue.
+     */
+    public SqsBatchSender(SqsClient sqsClient, String queueUrl) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+    }
+
+    /**
+     * Sends messages, grouping consecutive ones into batches.
+     *
+     * @param messages The message bodies to send.
+     * @return The error of every message that was not sent, keyed by its index in {@code messages}; empty if all were sent.
+     */
+    @Override
+    public Map<Integer, String> send(List<String> messages) {
+        Map<Integer, String> failures = new TreeMap<>();
+        int start = 0;
+        while (start < messages.size()) {
+            int end = start;
+            long batchBytes = 0;
+            while (end < messages.size() && end - start < MAX_BATCH_ENTRIES) {
+                int messageBytes = messages.get(end).getBytes(StandardCharsets.UTF_8).length;
+                if (end > start && batchBytes + messageBytes > MAX_BATCH_BYTES) {
+                    break; // An oversized message still gets a batch of its own, so SQS reports it as that message's failure
+                }
+                batchBytes += messageBytes;
+                end++;
+            }
+            sendBatch(messages, start, end, failures);
+            start = end;
+        }
+        return failures;
+    }
+
+    private void sendBatch(List<String> messages, int start, int end, Map<Integer, String> failures) {
+        // The entry id is the message index, so failures can be mapped back to the messages
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .messageBody(messages.get(i))
+                    .build());
+        }
+        SendMessageBatchRequest request = SendMessageBatchRequest.builder()
+                .queueUrl(queueUrl)
+                .entries(entries)
+                .build();
+        try {
+            SendMessageBatchResponse response = sqsClient.sendMessageBatch(request);
+            for (BatchResultErrorEntry error : response.failed()) {
+                failures.put(Integer.parseInt(error.id()), error.code() + ": " + error.message());
+            }
+        } catch (SdkException e) {
+            // The whole call failed: SQS rejected it, for example because the batch is too long, or the client gave up
+            // on it, for example after a timeout. Either way the batch fails, but the other batches are still sent
+            for (int i = start; i < end; i++) {
+                failures.put(i, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.manilvit;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
+import com.amazonaws.services.lambda.runtime.serialization.events.LambdaEventSerializers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lambda function to handle S3 event notifications delivered through an SQS queue.
+ * A burst of uploads then reaches the function as a few batches of up to the configured batch size, instead of one
+ * invocation per file, and every batch is processed like one {@link S3EventHandler} event: with the same clients,
+ * the same warm buffers and results sent to SQS together.
+ * <p>
+ * The event source mapping must report batch item failures. Only the messages whose files failed are returned, so
+ * only they become visible again and are retried; messages that cannot be read as S3 notifications fail as well,
+ * which sends them to the dead-letter queue once their receive count is exhausted.
+ */
+public class SqsEventHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final PojoSerializer<S3EventNotification> notificationSerializer =
+            LambdaEventSerializers.serializerFor(S3EventNotification.class, SqsEventHandler.class.getClassLoader());
+
+    private final S3EventHandler recordHandler = new S3EventHandler();
+
+    /**
+     * Handles a batch of SQS messages, each holding an S3 event notification.
+     *
+     * @param input The SQS messages.
+     * @param context The AWS Lambda context providing information about the execution environment.
+     * @return The messages to retry.
+     */
+    @Override
+    public SQSBatchResponse handleRequest(SQSEvent input, Context context) {
+        LambdaLogger logger = context.getLogger();
+        List<SQSEvent.SQSMessage> messages = input.getRecords() != null ? input.getRecords() : List.of();
+        boolean[] failed = new boolean[messages.size()];
+
+        // The records of all messages are processed as one batch; remember which message each came from
+        List<S3EventNotification.S3EventNotificationRecord> records = new ArrayList<>();
+        List<Integer> recordMessages = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            SQSEvent.SQSMessage message = messages.get(i);
+            List<S3EventNotification.S3EventNotificationRecord> messageRecords;
+            try {
+                messageRecords = parseNotification(message.getBody());
+            } catch (RuntimeException e) {
+                logger.log("Message " + message.getMessageId() + " is not an S3 event notification: " + e.getMessage());
+                failed[i] = true;
+                continue;
+            }
+            for (S3EventNotification.S3EventNotificationRecord record : messageRecords) {
+                records.add(record);
+                recordMessages.add(i);
+            }
+        }
+        logger.log("Received " + messages.size() + " messages with " + records.size() + " records.");
+
+        if (!records.isEmpty()) {
+            String[] failures = recordHandler.processRecords(records, context);
+            for (int i = 0; i < failures.length; i++) {
+                if (failures[i] != null) {
+                    failed[recordMessages.get(i)] = true; // A message is retried as a whole, with all of its records
+                }
+            }
+        }
+
+        List<SQSBatchResponse.BatchItemFailure> itemFailures = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            if (failed[i]) {
+                itemFailures.add(new SQSBatchResponse.BatchItemFailure(messages.get(i).getMessageId()));
+            }
+        }
+        if (!itemFailures.isEmpty()) {
+            logger.log("Messages to retry: " + itemFailures.size() + " of " + messages.size() + ".");
+        }
+        return new SQSBatchResponse(itemFailures);
+    }
+
+    /**
+     * Reads the records of an S3 event notification from a message body.
+     * The test event S3 sends when a notification is configured has no records.
+     *
+     * @param body The message body.
+     * @return The records, possibly none.
+     * @throws RuntimeException If the body is not an S3 event notification.
+     */
+    static List<S3EventNotification.S3EventNotificationRecord> parseNotification(String body) {
+        if (body == null || body.isBlank()) {
+            throw new IllegalArgumentException("Empty message body");
+        }
+        S3EventNotification notification = notificationSerializer.fromJson(body);
+        List<S3EventNotification.S3EventNotificationRecord> records = notification != null ? notification.getRecords() : null;
+        if (records == null || records.isEmpty()) {
+            if (!body.contains("s3:TestEvent")) {
+                throw new IllegalArgumentException("No Records in message body");
+            }
+            return List.of();
+        }
+        return records;
+    }
+}
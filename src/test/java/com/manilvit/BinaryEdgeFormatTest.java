@@ -0,0 +1,109 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BinaryEdgeFormat} and its detection in {@link NetworkObjectParser}.
+ */
+public class BinaryEdgeFormatTest {
+
+    private static EdgeStore sampleEdges() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(1, 2, 3);
+        edges.add(2, 2_000_000_000, -1);
+        edges.add(Integer.MIN_VALUE, 4, Integer.MAX_VALUE);
+        return edges;
+    }
+
+    private static byte[] encode(EdgeStore edges, BinaryEdgeFormat.Encoding encoding) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryEdgeFormat.write(edges, output, encoding);
+        return output.toByteArray();
+    }
+
+    /**
+     * Test that both encodings round-trip through the byte, stream and memory-mapped entry points of the parser.
+     */
+    @Test
+    public void testRoundTrip(@TempDir Path tempDir) throws IOException {
+        EdgeStore edges = sampleEdges();
+        for (BinaryEdgeFormat.Encoding encoding : BinaryEdgeFormat.Encoding.values()) {
+            byte[] bytes = encode(edges, encoding);
+            Path file = Files.write(tempDir.resolve("graph-" + encoding + ".bin"), bytes);
+
+            assertEquals(edges.toConnections(), NetworkObjectParser.parseEdges(bytes).toConnections());
+            assertEquals(edges.toConnections(), NetworkObjectParser.parseEdges(new ByteArrayInputStream(bytes), -1).toConnections());
+            assertEquals(edges.toConnections(), NetworkObjectParser.parseFile(file).toConnections());
+        }
+        assertEquals(12 + 3 * 12, encode(edges, BinaryEdgeFormat.Encoding.FIXED).length, "Fixed encoding should use 12 bytes per edge");
+    }
+
+    /**
+     * Test that batched reading hands over full batches in file order, and still rejects trailing bytes at the end.
+     */
+    @Test
+    public void testReadBatches() throws IOException {
+        EdgeStore edges = sampleEdges();
+        edges.add(5, 6, 7);
+        edges.add(6, 7, 8);
+        for (BinaryEdgeFormat.Encoding encoding : BinaryEdgeFormat.Encoding.values()) {
+            byte[] bytes = encode(edges, encoding);
+            List<EdgeStore> batches = new ArrayList<>();
+            long count = NetworkObjectParser.parseEdgeBatches(new ByteArrayInputStream(bytes), bytes.length, 2, batches::add);
+
+            assertEquals(5, count);
+            assertEquals(List.of(2, 2, 1), batches.stream().map(EdgeStore::size).toList());
+            List<NetworkConnection> joined = new ArrayList<>();
+            batches.forEach(batch -> joined.addAll(batch.toConnections()));
+            assertEquals(edges.toConnections(), joined);
+
+            byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+            assertThrows(IOException.class, () -> BinaryEdgeFormat.readBatches(new ByteArrayInputStream(trailing), -1, 2, batch -> {
+            }));
+        }
+    }
+
+    /**
+     * Test that text input is still parsed as text, including from a memory-mapped file.
+     */
+    @Test
+    public void testTextIsNotDetectedAsBinary(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("graph.txt"), "1\n1 2 3\n", StandardCharsets.US_ASCII);
+
+        EdgeStore edges = NetworkObjectParser.parseFile(file);
+        assertEquals(1, edges.size(), "Expected 1 connection");
+        assertEquals(3, edges.getCost(0));
+    }
+
+    /**
+     * Test that truncated data, extra bytes and an impossible edge count are rejected.
+     */
+    @Test
+    public void testInvalidBinaryData() throws IOException {
+        byte[] varint = encode(sampleEdges(), BinaryEdgeFormat.Encoding.VARINT);
+        byte[] fixed = encode(sampleEdges(), BinaryEdgeFormat.Encoding.FIXED);
+
+        assertThrows(IOException.class, () -> NetworkObjectParser.parseEdges(Arrays.copyOf(varint, varint.length - 1)));
+        assertThrows(IOException.class,
+                () -> NetworkObjectParser.parseEdges(new ByteArrayInputStream(Arrays.copyOf(varint, varint.length - 1)), -1));
+        assertThrows(IOException.class, () -> NetworkObjectParser.parseEdges(Arrays.copyOf(fixed, fixed.length + 1)));
+
+        byte[] hugeCount = fixed.clone();
+        hugeCount[11] = 0x7F;
+        Exception exception = assertThrows(IOException.class, () -> NetworkObjectParser.parseEdges(hugeCount));
+        assertTrue(exception.getMessage().contains("does not match"), "The error message should mention 'does not match'");
+    }
+}
@@ -0,0 +1,45 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BlobStore}.
+ */
+public class BlobStoreTest {
+
+    /**
+     * Test that an S3 store only contains the objects under its prefix, and a bucket root contains the whole bucket.
+     */
+    @Test
+    public void testS3Contains() {
+        BlobStore state = BlobStore.fromLocation("s3://networks/mst-state", () -> null);
+        assertTrue(state.contains("networks", "mst-state/networks/a.txt/mst.bin"));
+        assertFalse(state.contains("networks", "a.txt"));
+        assertFalse(state.contains("networks", "mst-state.txt"), "The prefix should end at a '/'");
+        assertFalse(state.contains("other", "mst-state/a.txt"));
+        assertEquals("s3://networks/mst-state/a.txt", state.location("a.txt"));
+
+        BlobStore root = BlobStore.fromLocation("s3://state-bucket", () -> null);
+        assertTrue(root.contains("state-bucket", "a.txt"));
+        assertFalse(root.contains("networks", "a.txt"));
+    }
+
+    /**
+     * Test that a store at the root of the input bucket is rejected, since the handler would skip every upload.
+     */
+    @Test
+    public void testRejectsRootOfInputBucket(@TempDir Path tempDir) {
+        assertThrows(IllegalArgumentException.class, () -> BlobStore.fromLocation("s3://networks", () -> null, "networks"));
+        assertThrows(IllegalArgumentException.class, () -> BlobStore.fromLocation("s3://networks/", () -> null, "networks"));
+
+        assertFalse(BlobStore.fromLocation("s3://networks/mst-state/", () -> null, "networks").contains("networks", "a.txt"));
+        assertFalse(BlobStore.fromLocation("s3://state-bucket", () -> null, "networks").contains("networks", "a.txt"));
+        assertFalse(BlobStore.fromLocation(tempDir.toString(), () -> null, "networks").contains("networks", "a.txt"));
+        assertNotNull(BlobStore.fromLocation("s3://networks", () -> null, null), "An unknown input bucket cannot be checked");
+    }
+}
@@ -0,0 +1,105 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BoruvkaAlgorithm} and {@link MstEngine}.
+ */
+public class BoruvkaAlgorithmTest {
+
+    /**
+     * Test for a simple connected graph.
+     * Graph with 4 nodes and edges:
+     *   (0,1,3), (1,2,1), (2,3,4), (0,3,2)
+     * Expected MST: 3 edges with a total cost of 6.
+     */
+    @Test
+    public void testSimpleGraphMST() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 3);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 4);
+        edges.add(0, 3, 2);
+        EdgeStore mst = BoruvkaAlgorithm.findMinimumSpanningTree(edges, 4);
+
+        assertEquals(3, mst.size(), "MST should contain n-1 edges for a connected graph");
+        assertEquals(6, mst.totalCost(), "Total cost of MST should be 6");
+    }
+
+    /**
+     * Test for a graph where every edge has the same cost and there is a self-loop.
+     * Ties must not create a cycle, so the MST still has exactly n-1 edges.
+     */
+    @Test
+    public void testEqualCostsAndSelfLoop() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 1);
+        edges.add(2, 0, 1);
+        edges.add(2, 2, 0);
+        EdgeStore mst = BoruvkaAlgorithm.findMinimumSpanningTree(edges, 3);
+
+        assertEquals(2, mst.size(), "MST should contain 2 edges for a graph with 3 nodes");
+        assertEquals(2, mst.totalCost(), "Total cost of MST should be 2");
+    }
+
+    /**
+     * Test for a disconnected graph.
+     * Expect a spanning forest with one edge per component.
+     */
+    @Test
+    public void testDisconnectedGraph() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 5);
+        edges.add(2, 3, 7);
+        EdgeStore mst = BoruvkaAlgorithm.findMinimumSpanningTree(edges, 5);
+
+        assertEquals(2, mst.size(), "MST for a disconnected graph should contain fewer than n-1 edges");
+        assertEquals(12, mst.totalCost());
+    }
+
+    /**
+     * Test that random graphs large enough to be split across threads give the same total cost as Kruskal.
+     */
+    @Test
+    public void testRandomGraphsMatchKruskal() {
+        Random random = new Random(42);
+        for (int round = 0; round < 5; round++) {
+            int numNodes = 1 + random.nextInt(5_000);
+            int numEdges = random.nextInt(60_000);
+            EdgeStore edges = new EdgeStore(numEdges);
+            for (int i = 0; i < numEdges; i++) {
+                edges.add(random.nextInt(numNodes), random.nextInt(numNodes), random.nextInt(1_000) - 100);
+            }
+
+            EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+            EdgeStore actual = BoruvkaAlgorithm.findMinimumSpanningTree(edges, numNodes);
+
+            assertEquals(expected.size(), actual.size(), "Both engines should select the same number of edges");
+            assertEquals(expected.totalCost(), actual.totalCost(), "Both engines should find the same total cost");
+        }
+    }
+
+    /**
+     * Test that a configured engine always wins, that "auto" picks Filter-Kruskal for dense graphs whatever their
+     * size and falls back to Kruskal for small sparse ones.
+     */
+    @Test
+    public void testEngineSelection() {
+        assertEquals(MstEngine.BORUVKA, MstEngine.select("boruvka", 10, 8, 1_000));
+        assertEquals(MstEngine.KRUSKAL, MstEngine.select(" Kruskal ", 10_000, 100, 1_000));
+        assertEquals(MstEngine.PRIM, MstEngine.select("prim", 10, 8, 1_000));
+        assertEquals(MstEngine.KRUSKAL, MstEngine.select("auto", 10, 8, 1_000));
+        assertEquals(MstEngine.KRUSKAL, MstEngine.select(null, 10, 8, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> MstEngine.select("dijkstra", 10, 8, 1_000));
+
+        int dense = MstEngine.DENSE_AVERAGE_DEGREE;
+        assertEquals(MstEngine.FILTER_KRUSKAL, MstEngine.select(null, 500 * dense, 1_000, 1_000_000));
+        assertEquals(MstEngine.FILTER_KRUSKAL, MstEngine.select("auto", 50_000 * dense, 100_000, 1_000));
+        assertEquals(MstEngine.KRUSKAL, MstEngine.select(null, 500 * dense - 1, 1_000, 1_000_000));
+    }
+}
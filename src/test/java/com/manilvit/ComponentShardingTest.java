@@ -0,0 +1,116 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ComponentSharding} and {@link ForestSummary}.
+ */
+public class ComponentShardingTest {
+
+    /**
+     * Builds a graph of separate connected regions: region {@code r} holds the nodes {@code r, r + regions,
+     * r + 2 * regions...}, so the regions are interleaved in the node range. One more node has only a self-loop.
+     */
+    private static EdgeStore regions(Random random, int regions, int nodesPerRegion, int edgeCount) {
+        EdgeStore edges = new EdgeStore(edgeCount + regions * nodesPerRegion);
+        for (int node = regions; node < regions * nodesPerRegion; node++) {
+            edges.add(node - regions, node, 1_000); // A costly chain, so the random edges decide most of the forest
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            int region = random.nextInt(regions);
+            int node1 = region + regions * random.nextInt(nodesPerRegion);
+            int node2 = region + regions * random.nextInt(nodesPerRegion);
+            edges.add(node1, node2, random.nextInt(1_000) - 100);
+        }
+        int isolated = regions * nodesPerRegion;
+        edges.add(isolated, isolated, 5);
+        return edges;
+    }
+
+    /**
+     * Test that components are labelled in order of their lowest node and agree with a sequential Union-Find.
+     */
+    @Test
+    public void testLabel() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(4, 1, 1);
+        edges.add(3, 0, 1);
+        edges.add(1, 5, 1);
+        int[] component = ComponentSharding.label(edges, 7);
+        assertArrayEquals(new int[]{0, 1, 2, 0, 1, 1, 3}, component);
+
+        Random random = new Random(22);
+        EdgeStore graph = regions(random, 30, 200, 20_000);
+        int numNodes = graph.maxNodeId() + 1;
+        int[] labels = ComponentSharding.label(graph, numNodes);
+        KruskalAlgorithm.UnionFind uf = new KruskalAlgorithm.UnionFind(numNodes);
+        for (int i = 0; i < graph.size(); i++) {
+            uf.union(graph.getNode1(i), graph.getNode2(i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            int node1 = random.nextInt(numNodes);
+            int node2 = random.nextInt(numNodes);
+            assertEquals(uf.find(node1) == uf.find(node2), labels[node1] == labels[node2]);
+        }
+    }
+
+    /**
+     * Test that solving shard by shard gives the forest Kruskal finds on the whole graph, with every engine, both for
+     * graphs that fit one shard and for graphs split into several.
+     */
+    @Test
+    public void testForestMatchesKruskal() {
+        Random random = new Random(23);
+        int[][] shapes = {{1, 50, 200}, {12, 40, 1_000}, {500, 8, 6_000}, {40, 3_000, 4 * ComponentSharding.MIN_SHARD_EDGES}};
+        for (int[] shape : shapes) {
+            EdgeStore edges = regions(random, shape[0], shape[1], shape[2]);
+            int numNodes = edges.maxNodeId() + 1;
+            EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+            for (MstEngine engine : MstEngine.values()) {
+                PhaseMetrics metrics = new PhaseMetrics();
+                EdgeStore forest = ComponentSharding.findMinimumSpanningForest(edges, numNodes, engine, metrics);
+
+                String label = engine + " on " + shape[0] + " regions";
+                assertEquals(expected.size(), forest.size(), label);
+                assertEquals(expected.totalCost(), forest.totalCost(), label);
+                assertEquals(shape[0] + 1, metrics.get("Components").intValue(), label + ": the isolated node is a component");
+                assertEquals(ForestSummary.of(expected).treeCount(), ForestSummary.of(forest).treeCount(), label);
+                if (shape[2] > ComponentSharding.MIN_SHARD_EDGES) {
+                    assertTrue(metrics.get("Shards").intValue() > 1, label + " should be split into shards");
+                }
+                if (engine == MstEngine.KRUSKAL) {
+                    assertTrue(metrics.get("UnionFindOperations").longValue() > 0, label + " should keep the engine metrics");
+                    assertNotNull(metrics.get("SortTime"), label);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that the summary lists every tree by descending size, then in order of its first edge.
+     */
+    @Test
+    public void testForestSummary() {
+        EdgeStore forest = new EdgeStore();
+        forest.add(100, 200, 4);
+        forest.add(7, 8, 1);
+        forest.add(8, 9, -3);
+        forest.add(300, 100, 6);
+        forest.add(-1, Integer.MIN_VALUE, 2);
+        ForestSummary trees = ForestSummary.of(forest);
+
+        assertEquals(3, trees.treeCount());
+        assertEquals(2, trees.edgeCount(0));
+        assertEquals(10, trees.cost(0), "The tree of the first edge comes first among trees of the same size");
+        assertEquals(2, trees.edgeCount(1));
+        assertEquals(-2, trees.cost(1));
+        assertEquals(1, trees.edgeCount(2));
+        assertEquals(2, trees.cost(2));
+
+        assertEquals(0, ForestSummary.of(new EdgeStore()).treeCount());
+    }
+}
@@ -0,0 +1,115 @@
+package com.manilvit;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Compression} and compressed input to {@link NetworkObjectParser}.
+ */
+public class CompressionTest {
+
+    private static final byte[] TEXT = "4\n1 2 3\n2 3 1\r\n3 4 4\n1 4 2\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static byte[] compress(Compression compression, byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = compression == Compression.GZIP ? new GZIPOutputStream(compressed) : new ZstdOutputStream(compressed)) {
+            output.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void assertSameEdges(EdgeStore expected, EdgeStore actual) {
+        assertEquals(expected.size(), actual.size(), "Edge count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getNode1(i), actual.getNode1(i));
+            assertEquals(expected.getNode2(i), actual.getNode2(i));
+            assertEquals(expected.getCost(i), actual.getCost(i));
+        }
+    }
+
+    /**
+     * Test that formats are recognised from magic bytes and from key suffixes.
+     */
+    @Test
+    public void testDetection() throws IOException {
+        byte[] gzip = compress(Compression.GZIP, TEXT);
+        byte[] zstd = compress(Compression.ZSTD, TEXT);
+        assertEquals(Compression.GZIP, Compression.fromMagic(gzip, gzip.length));
+        assertEquals(Compression.ZSTD, Compression.fromMagic(zstd, zstd.length));
+        assertEquals(Compression.NONE, Compression.fromMagic(TEXT, TEXT.length));
+        assertEquals(Compression.NONE, Compression.fromMagic(zstd, 3));
+
+        assertEquals(Compression.GZIP, Compression.fromKey("networks/big.txt.GZ"));
+        assertEquals(Compression.ZSTD, Compression.fromKey("networks/big.txt.zst"));
+        assertEquals(Compression.NONE, Compression.fromKey("networks/big.txt"));
+    }
+
+    /**
+     * Test that gzip and Zstandard files parse to the same edges as the plain file, from a stream, from an array,
+     * from a memory-mapped file, in batches and in parallel ranges.
+     */
+    @Test
+    public void testParseCompressed(@TempDir Path tempDir) throws IOException {
+        EdgeStore expected = NetworkObjectParser.parseEdges(TEXT);
+        for (Compression compression : new Compression[]{Compression.GZIP, Compression.ZSTD}) {
+            byte[] compressed = compress(compression, TEXT);
+            Path file = Files.write(tempDir.resolve("network." + compression), compressed);
+
+            assertSameEdges(expected, NetworkObjectParser.parseEdges(new ByteArrayInputStream(compressed), compressed.length));
+            assertSameEdges(expected, NetworkObjectParser.parseEdges(compressed));
+            assertSameEdges(expected, NetworkObjectParser.parseFile(file));
+            assertSameEdges(expected, ParallelRangeParser.parse(ParallelRangeParser.file(file), compressed.length, 8, 2, null));
+
+            EdgeStore batches = new EdgeStore();
+            long count = NetworkObjectParser.parseEdgeBatches(new ByteArrayInputStream(compressed), compressed.length, 3,
+                    batch -> batches.addAll(batch, 0, batch.size()));
+            assertEquals(expected.size(), count);
+            assertSameEdges(expected, batches);
+        }
+    }
+
+    /**
+     * Test that binary edge files and concatenated gzip members are read through the decompressor as well.
+     */
+    @Test
+    public void testBinaryAndMultiMember() throws IOException {
+        EdgeStore expected = NetworkObjectParser.parseEdges(TEXT);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryEdgeFormat.write(expected, binary, BinaryEdgeFormat.Encoding.VARINT);
+        byte[] compressedBinary = compress(Compression.ZSTD, binary.toByteArray());
+        assertSameEdges(expected, NetworkObjectParser.parseEdges(new ByteArrayInputStream(compressedBinary), compressedBinary.length));
+
+        // gzip allows a file to be several gzip files appended to each other
+        int split = 14;
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.write(compress(Compression.GZIP, Arrays.copyOf(TEXT, split)));
+        members.write(compress(Compression.GZIP, Arrays.copyOfRange(TEXT, split, TEXT.length)));
+        assertSameEdges(expected, NetworkObjectParser.parseEdges(members.toByteArray()));
+    }
+
+    /**
+     * Test that a truncated compressed file fails instead of yielding part of the network.
+     */
+    @Test
+    public void testTruncated() throws IOException {
+        for (Compression compression : new Compression[]{Compression.GZIP, Compression.ZSTD}) {
+            byte[] compressed = compress(compression, TEXT);
+            byte[] truncated = Arrays.copyOf(compressed, compressed.length - 6);
+            assertThrows(IOException.class, () -> NetworkObjectParser.parseEdges(new ByteArrayInputStream(truncated), truncated.length),
+                    compression.name());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit and stress tests for {@link ConcurrentUnionFind}.
+ */
+public class ConcurrentUnionFindTest {
+
+    private static final int THREADS = 8;
+
+    /**
+     * Test that on one thread every answer matches the sequential {@link KruskalAlgorithm.UnionFind}.
+     */
+    @Test
+    public void testMatchesSequentialUnionFind() {
+        Random random = new Random(20);
+        int size = 2_000;
+        ConcurrentUnionFind concurrent = new ConcurrentUnionFind(size);
+        KruskalAlgorithm.UnionFind sequential = new KruskalAlgorithm.UnionFind(size);
+        assertEquals(size, concurrent.size());
+
+        for (int i = 0; i < 5_000; i++) {
+            int node1 = random.nextInt(size);
+            int node2 = random.nextInt(size);
+            boolean separate = sequential.find(node1) != sequential.find(node2);
+            assertEquals(!separate, concurrent.sameSet(node1, node2));
+            assertEquals(separate, concurrent.union(node1, node2), "union should report whether it merged two sets");
+            sequential.union(node1, node2);
+            assertTrue(concurrent.sameSet(node1, node2));
+            assertEquals(concurrent.find(node1), concurrent.find(node2));
+        }
+    }
+
+    /**
+     * Stress test: threads union the same random edges in different orders, all starting at once, so many of them
+     * race to link the same roots. Exactly one thread must win each merge, and the final sets must be those of the
+     * sequential structure.
+     */
+    @Test
+    public void testConcurrentUnions() throws Exception {
+        Random random = new Random(21);
+        for (int round = 0; round < 10; round++) {
+            int size = 1 + random.nextInt(50_000);
+            int[] node1 = new int[size];
+            int[] node2 = new int[size];
+            KruskalAlgorithm.UnionFind sequential = new KruskalAlgorithm.UnionFind(size);
+            int merges = 0;
+            for (int i = 0; i < size; i++) {
+                node1[i] = random.nextInt(size);
+                node2[i] = random.nextInt(size);
+                if (sequential.find(node1[i]) != sequential.find(node2[i])) {
+                    sequential.union(node1[i], node2[i]);
+                    merges++;
+                }
+            }
+
+            ConcurrentUnionFind concurrent = new ConcurrentUnionFind(size);
+            AtomicInteger wins = new AtomicInteger();
+            runConcurrently(thread -> {
+                // Each thread walks the edges from its own offset, alternating direction
+                for (int step = 0; step < size; step++) {
+                    int i = (thread * size / THREADS + (thread % 2 == 0 ? step : size - step)) % size;
+                    if (concurrent.union(node1[i], node2[i])) {
+                        wins.incrementAndGet();
+                    }
+                }
+            });
+
+            assertEquals(merges, wins.get(), "Each merge should be reported by exactly one thread");
+            for (int i = 0; i < size; i++) {
+                int other = random.nextInt(size);
+                assertEquals(sequential.find(i) == sequential.find(other), concurrent.sameSet(i, other));
+                assertTrue(concurrent.sameSet(i, sequential.find(i)));
+            }
+        }
+    }
+
+    /**
+     * Stress test: threads discard cycle-forming edges of a graph while other threads are still linking its
+     * spanning tree. An edge may only be discarded once both ends are connected, and once seen connected two
+     * nodes must stay connected.
+     */
+    @Test
+    public void testConcurrentFiltering() throws Exception {
+        int size = 100_000;
+        Random random = new Random(22);
+        // A random spanning tree to link, and random edges to filter against it
+        int[] parent = new int[size];
+        for (int i = 1; i < size; i++) {
+            parent[i] = random.nextInt(i);
+        }
+        int[][] queries = new int[THREADS / 2][];
+        for (int thread = 0; thread < queries.length; thread++) {
+            queries[thread] = random.ints(2 * size, 0, size).toArray();
+        }
+
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(size);
+        runConcurrently(thread -> {
+            if (thread < THREADS / 2) {
+                for (int i = 1 + thread; i < size; i += THREADS / 2) {
+                    uf.union(i, parent[i]);
+                }
+                return;
+            }
+            int[] pairs = queries[thread - THREADS / 2];
+            boolean[] seenConnected = new boolean[size];
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    boolean connected = uf.sameSet(pairs[i], pairs[i + 1]);
+                    assertTrue(connected || !seenConnected[i / 2], "Connected nodes should stay connected");
+                    seenConnected[i / 2] |= connected;
+                }
+            }
+        });
+
+        for (int i = 0; i < size; i++) {
+            assertTrue(uf.sameSet(0, i), "Linking a spanning tree should connect every node");
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(id);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(); // Rethrows assertion failures from the threads
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DynamicMst} and {@link MstDelta}.
+ */
+public class DynamicMstTest {
+
+    /**
+     * Test the example graph with each kind of update.
+     * Graph with 4 nodes and edges:
+     *   (1,2,3), (2,3,1), (3,4,4), (1,4,2)
+     * Initial MST cost is 6.
+     */
+    @Test
+    public void testSingleUpdates() {
+        EdgeStore graph = new EdgeStore();
+        graph.add(1, 2, 3);
+        graph.add(2, 3, 1);
+        graph.add(3, 4, 4);
+        graph.add(1, 4, 2);
+        DynamicMst state = DynamicMst.build(graph);
+        assertEquals(6, state.treeCost(), "Initial MST cost should be 6");
+
+        state.addLink(2, 4, 1); // The tree path 2-1-4 has (1,2,3) as its most expensive link
+        assertEquals(4, state.treeCost(), "A cheaper link should replace the most expensive link on its tree path");
+
+        state.removeLink(2, 4); // The tree is reconnected through (1,2,3)
+        assertEquals(6, state.treeCost(), "Removing a tree link should reconnect with the cheapest alternative");
+
+        state.changeCost(1, 2, 10); // (3,4,4) becomes the cheapest way to reconnect
+        assertEquals(7, state.treeCost(), "A more expensive tree link should be replaced if possible");
+
+        state.addLink(5, 6, 9); // A new, separate component
+        assertEquals(4, state.treeSize());
+        assertEquals(16, state.treeCost());
+
+        assertThrows(IllegalArgumentException.class, () -> state.removeLink(1, 3));
+    }
+
+    /**
+     * Test that random sequences of updates keep the same MST cost as recomputing from scratch.
+     */
+    @Test
+    public void testRandomUpdatesMatchRecompute() {
+        Random random = new Random(3);
+        int numNodes = 60;
+        EdgeStore graph = new EdgeStore();
+        for (int i = 0; i < 200; i++) {
+            graph.add(random.nextInt(numNodes), random.nextInt(numNodes), random.nextInt(100));
+        }
+        DynamicMst state = DynamicMst.build(graph);
+
+        for (int step = 0; step < 500; step++) {
+            EdgeStore links = state.graphEdges();
+            int choice = random.nextInt(3);
+            if (choice == 0 || links.isEmpty()) {
+                state.addLink(random.nextInt(numNodes + 5), random.nextInt(numNodes + 5), random.nextInt(100));
+            } else {
+                int link = random.nextInt(links.size());
+                if (choice == 1) {
+                    state.removeLink(links.getNode1(link), links.getNode2(link));
+                } else {
+                    state.changeCost(links.getNode1(link), links.getNode2(link), random.nextInt(100));
+                }
+            }
+
+            EdgeStore current = state.graphEdges();
+            NodeIdCompactor nodeIds = NodeIdCompactor.compact(current);
+            EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(current, nodeIds.nodeCount());
+            assertEquals(expected.totalCost(), state.treeCost(), "Step " + step + " should match a full recompute");
+            assertEquals(expected.size(), state.treeSize(), "Step " + step + " should keep the same number of tree links");
+            assertEquals(state.treeCost(), state.treeEdges().totalCost());
+        }
+    }
+
+    /**
+     * Test updates on a long chain, whose tree paths and re-rooted subtrees are deep, against a full recompute.
+     */
+    @Test
+    public void testDeepTreeUpdatesMatchRecompute() {
+        Random random = new Random(7);
+        int numNodes = 2000;
+        EdgeStore graph = new EdgeStore();
+        for (int i = 0; i < numNodes - 1; i++) {
+            graph.add(i, i + 1, 50 + random.nextInt(50));
+        }
+        DynamicMst state = DynamicMst.build(graph);
+
+        for (int step = 0; step < 300; step++) {
+            int from = random.nextInt(numNodes);
+            int to = random.nextInt(numNodes);
+            switch (step % 3) {
+                case 0 -> state.addLink(from, to, random.nextInt(100)); // Often swaps out a chain link far away
+                case 1 -> state.changeCost(step % (numNodes - 1), step % (numNodes - 1) + 1, random.nextInt(200));
+                default -> state.addLink(from, numNodes + step, random.nextInt(100)); // Joins a new node to the tree
+            }
+        }
+        EdgeStore current = state.graphEdges();
+        EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(current, NodeIdCompactor.compact(current).nodeCount());
+        assertEquals(expected.totalCost(), state.treeCost());
+        assertEquals(expected.size(), state.treeSize());
+        assertEquals(state.treeCost(), state.treeEdges().totalCost());
+    }
+
+    /**
+     * Test that the state survives a round trip through a local store and that deltas are parsed and applied.
+     */
+    @Test
+    public void testPersistAndApplyDelta(@TempDir Path tempDir) throws IOException {
+        EdgeStore graph = new EdgeStore();
+        graph.add(1, 2, 3);
+        graph.add(1, 2, 8); // Parallel link, collapsed to the cheapest one
+        graph.add(2, 3, 1);
+        graph.add(3, 3, 0); // Self-loop, dropped
+        BlobStore store = new FileBlobStore(tempDir);
+        DynamicMst.build(graph).save(store, "bucket/net.txt");
+
+        DynamicMst loaded = DynamicMst.load(store, "bucket/net.txt");
+        assertNotNull(loaded, "The stored state should be found");
+        assertEquals(4, loaded.treeCost());
+        assertNull(DynamicMst.load(store, "bucket/other.txt"), "Nothing should be found for an unknown network");
+
+        String delta = """
+                add 3 1 2
+                cost 2 3 5
+
+                remove 1 2
+                """;
+        List<MstDelta.Update> updates = MstDelta.parse(new ByteArrayInputStream(delta.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, updates.size(), "Blank lines should be skipped");
+        loaded.apply(updates);
+        assertEquals(7, loaded.treeCost());
+        assertEquals(2, loaded.graphEdges().size());
+
+        assertThrows(IOException.class,
+                () -> MstDelta.parse(new ByteArrayInputStream("move 1 2\n".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class,
+                () -> MstDelta.parse(new ByteArrayInputStream("remove 1 2 3\n".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Test that applied deltas are persisted with the state, and that only the most recent ones are remembered.
+     */
+    @Test
+    public void testAppliedDeltasArePersisted(@TempDir Path tempDir) throws IOException {
+        EdgeStore graph = new EdgeStore();
+        graph.add(1, 2, 3);
+        DynamicMst state = DynamicMst.build(graph);
+        for (int i = 0; i <= DynamicMst.MAX_APPLIED_DELTAS; i++) {
+            state.recordApplied("net.txt.delta." + i + "@etag" + i);
+        }
+        BlobStore store = new FileBlobStore(tempDir);
+        state.save(store, "bucket/net.txt");
+
+        DynamicMst loaded = DynamicMst.load(store, "bucket/net.txt");
+        assertFalse(loaded.hasApplied("net.txt.delta.0@etag0"), "The oldest delta should have been forgotten");
+        assertTrue(loaded.hasApplied("net.txt.delta.1@etag1"));
+        assertTrue(loaded.hasApplied("net.txt.delta." + DynamicMst.MAX_APPLIED_DELTAS + "@etag" + DynamicMst.MAX_APPLIED_DELTAS));
+        assertFalse(DynamicMst.build(graph).hasApplied("net.txt.delta.1@etag1"));
+    }
+
+    /**
+     * Test how delta file keys are mapped to the key of their base network.
+     */
+    @Test
+    public void testDeltaBaseKey() {
+        assertEquals("net.txt", MstDelta.baseKey("net.txt.delta"));
+        assertEquals("dir/net.txt", MstDelta.baseKey("dir/net.txt.delta.0042"));
+        assertNull(MstDelta.baseKey("net.txt"));
+        assertNull(MstDelta.baseKey("net.deltas"));
+        assertNull(MstDelta.baseKey("roads.delta.txt"), "A network whose name contains .delta. is not a delta");
+        assertNull(MstDelta.baseKey("network.delta.v2.gz"));
+        assertNull(MstDelta.baseKey("net.txt.delta.0042.gz"));
+        assertNull(MstDelta.baseKey("net.txt.delta."));
+        assertNull(MstDelta.baseKey(".delta"));
+        assertNull(MstDelta.baseKey("dir/.delta.7"));
+    }
+}
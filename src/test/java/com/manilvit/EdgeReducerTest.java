@@ -0,0 +1,85 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EdgeReducer}.
+ */
+public class EdgeReducerTest {
+
+    /**
+     * Test that each node pair keeps the place of its first edge and the first of its cheapest edges.
+     */
+    @Test
+    public void testReduce() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(1, 2, 9);
+        edges.add(3, 3, 1);
+        edges.add(2, 3, 4);
+        edges.add(2, 1, 5);
+        edges.add(3, 2, 4);
+        edges.add(Integer.MIN_VALUE, 0, 7); // Packs to Long.MIN_VALUE, the free slot marker of the map
+        edges.add(0, Integer.MIN_VALUE, 6);
+        edges.add(1, 2, 5);
+        PhaseMetrics metrics = new PhaseMetrics();
+        EdgeStore reduced = EdgeReducer.reduce(edges, metrics);
+
+        assertEquals(3, reduced.size());
+        assertEquals(2, reduced.getNode1(0));
+        assertEquals(1, reduced.getNode2(0));
+        assertEquals(5, reduced.getCost(0));
+        assertEquals(2, reduced.getNode1(1), "Of equal costs, the first edge is kept");
+        assertEquals(3, reduced.getNode2(1));
+        assertEquals(4, reduced.getCost(1));
+        assertEquals(0, reduced.getNode1(2));
+        assertEquals(6, reduced.getCost(2));
+        assertEquals(5, metrics.get("RemovedEdges").intValue());
+
+        EdgeStore simple = new EdgeStore();
+        simple.add(1, 2, 3);
+        simple.add(Integer.MIN_VALUE, 0, 7);
+        simple.add(2, 3, 3);
+        assertSame(simple, EdgeReducer.reduce(simple), "A graph without parallel edges is not copied");
+        assertEquals(0, EdgeReducer.reduce(new EdgeStore()).size());
+    }
+
+    /**
+     * Test on random multigraphs that only the cheapest edge of each pair is left and the MST cost does not change.
+     */
+    @Test
+    public void testMatchesMst() {
+        Random random = new Random(25);
+        for (int round = 0; round < 50; round++) {
+            int numNodes = 2 + random.nextInt(round < 25 ? 10 : 2_000);
+            EdgeStore edges = new EdgeStore();
+            int edgeCount = random.nextInt(5 * numNodes);
+            Map<Long, Integer> cheapest = new HashMap<>();
+            for (int i = 0; i < edgeCount; i++) {
+                int node1 = random.nextInt(numNodes);
+                int node2 = random.nextInt(numNodes);
+                int cost = random.nextInt(100) - 20;
+                edges.add(node1, node2, cost);
+                if (node1 != node2) {
+                    cheapest.merge(LongIntHashMap.pairKey(node1, node2), cost, Math::min);
+                }
+            }
+            PhaseMetrics metrics = new PhaseMetrics();
+            EdgeStore reduced = EdgeReducer.reduce(edges, metrics);
+
+            assertEquals(cheapest.size(), reduced.size());
+            assertEquals(edges.size() - reduced.size(), metrics.get("RemovedEdges").intValue());
+            for (int i = 0; i < reduced.size(); i++) {
+                assertEquals(cheapest.remove(LongIntHashMap.pairKey(reduced.getNode1(i), reduced.getNode2(i))),
+                        reduced.getCost(i), "Every pair appears once, with its lowest cost");
+            }
+            assertEquals(KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes).totalCost(),
+                    KruskalAlgorithm.findMinimumSpanningTree(reduced, numNodes).totalCost());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ExternalKruskalAlgorithm}.
+ */
+public class ExternalKruskalAlgorithmTest {
+
+    private static byte[] toText(EdgeStore edges) {
+        StringBuilder content = new StringBuilder().append(edges.size()).append('\n');
+        for (int i = 0; i < edges.size(); i++) {
+            content.append(edges.getNode1(i)).append(' ').append(edges.getNode2(i)).append(' ').append(edges.getCost(i)).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static EdgeStore randomGraph(int numNodes, int edgeCount, long seed) {
+        Random random = new Random(seed);
+        EdgeStore edges = new EdgeStore();
+        for (int i = 0; i < edgeCount; i++) {
+            // Sparse, large identifiers and costs with many ties
+            edges.add(random.nextInt(numNodes) * 1000, random.nextInt(numNodes) * 1000, random.nextInt(100) - 10);
+        }
+        return edges;
+    }
+
+    private static long inMemoryCost(EdgeStore graph) {
+        EdgeStore copy = EdgeStore.fromConnections(graph.toConnections());
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(copy);
+        return KruskalAlgorithm.findMinimumSpanningTree(copy, nodeIds.nodeCount()).totalCost();
+    }
+
+    /**
+     * Test that spilling many small runs gives the same MST cost as the in-memory algorithm, for a single run,
+     * for a number of runs that fits one merge, and for one that needs an extra merge pass.
+     */
+    @Test
+    public void testMatchesInMemoryKruskal(@TempDir Path tempDir) throws IOException {
+        EdgeStore graph = randomGraph(2_000, 30_000, 5);
+        byte[] file = toText(graph);
+        long expected = inMemoryCost(graph);
+
+        for (int runEdges : new int[]{100_000, 1_000, 100}) {
+            PhaseMetrics metrics = new PhaseMetrics();
+            EdgeStore mst = ExternalKruskalAlgorithm.findMinimumSpanningTree(
+                    new ByteArrayInputStream(file), file.length, tempDir, runEdges, metrics);
+
+            assertEquals(expected, mst.totalCost(), "Run size " + runEdges + " should not change the MST cost");
+            assertEquals((30_000 + runEdges - 1) / runEdges, metrics.get("SpillRuns").longValue());
+            assertEquals(30_000L, metrics.get("Edges"));
+            for (int i = 1; i < mst.size(); i++) {
+                assertTrue(mst.getCost(i - 1) <= mst.getCost(i), "MST edges should be in ascending cost order");
+            }
+            assertEquals(0, mst.getNode1(0) % 1000, "The original node identifiers should be restored");
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Run files should be deleted");
+        }
+    }
+
+    /**
+     * Test that binary input in either encoding is spilled in runs of the run size, like text, rather than decoded in
+     * one piece, and gives the same MST cost.
+     */
+    @Test
+    public void testBinaryInputInRuns(@TempDir Path tempDir) throws IOException {
+        EdgeStore graph = randomGraph(1_000, 10_000, 13);
+        long expected = inMemoryCost(graph);
+        for (BinaryEdgeFormat.Encoding encoding : BinaryEdgeFormat.Encoding.values()) {
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            BinaryEdgeFormat.write(graph, binary, encoding);
+            PhaseMetrics metrics = new PhaseMetrics();
+            EdgeStore mst = ExternalKruskalAlgorithm.findMinimumSpanningTree(
+                    new ByteArrayInputStream(binary.toByteArray()), binary.size(), tempDir, 1_000, metrics);
+
+            assertEquals(expected, mst.totalCost(), encoding + " input should give the same MST cost");
+            assertEquals(10L, metrics.get("SpillRuns"), encoding + " input should be spilled in runs of 1,000 edges");
+            assertEquals(10_000L, metrics.get("Edges"));
+        }
+    }
+
+    /**
+     * Test that binary input and parse errors are handled, and that run files are deleted after an error.
+     */
+    @Test
+    public void testBinaryInputAndErrors(@TempDir Path tempDir) throws IOException {
+        EdgeStore graph = randomGraph(500, 3_000, 9);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryEdgeFormat.write(graph, binary, BinaryEdgeFormat.Encoding.VARINT);
+        EdgeStore mst = ExternalKruskalAlgorithm.findMinimumSpanningTree(
+                new ByteArrayInputStream(binary.toByteArray()), binary.size(), tempDir, 256, null);
+        assertEquals(inMemoryCost(graph), mst.totalCost());
+
+        byte[] wrongCount = "5\n1 2 3\n2 3 4\n".getBytes(StandardCharsets.US_ASCII);
+        IOException e = assertThrows(IOException.class, () -> ExternalKruskalAlgorithm.findMinimumSpanningTree(
+                new ByteArrayInputStream(wrongCount), wrongCount.length, tempDir, 1, null));
+        assertTrue(e.getMessage().contains("Expected: 5, found: 2"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Run files should be deleted after an error");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FilterKruskalAlgorithm}.
+ */
+public class FilterKruskalAlgorithmTest {
+
+    /**
+     * Test for a simple connected graph.
+     * Graph with 4 nodes and edges:
+     *   (0,1,3), (1,2,1), (2,3,4), (0,3,2)
+     * Expected MST: edges (1,2,1), (0,3,2), (0,1,3) in ascending cost order.
+     */
+    @Test
+    public void testSimpleGraphMST() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 3);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 4);
+        edges.add(0, 3, 2);
+        EdgeStore mst = FilterKruskalAlgorithm.findMinimumSpanningTree(edges, 4);
+
+        assertEquals(3, mst.size(), "MST should contain n-1 edges for a connected graph");
+        assertEquals(6, mst.totalCost(), "Total cost of MST should be 6");
+        assertEquals(KruskalAlgorithm.findMinimumSpanningTree(edges, 4).toConnections(), mst.toConnections());
+    }
+
+    /**
+     * Test that sparse, dense and all-equal-cost random graphs give the same MST cost as Kruskal
+     * and that the edges come out in ascending cost order.
+     */
+    @Test
+    public void testRandomGraphsMatchKruskal() {
+        Random random = new Random(7);
+        int[][] shapes = {{20_000, 30_000, 1_000}, {300, 80_000, 1_000_000}, {2_000, 50_000, 1}};
+        for (int[] shape : shapes) {
+            int numNodes = shape[0];
+            EdgeStore edges = new EdgeStore(shape[1]);
+            for (int i = 0; i < shape[1]; i++) {
+                edges.add(random.nextInt(numNodes), random.nextInt(numNodes), random.nextInt(shape[2]));
+            }
+
+            EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+            EdgeStore actual = FilterKruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+
+            assertEquals(expected.size(), actual.size(), "Both engines should select the same number of edges");
+            assertEquals(expected.totalCost(), actual.totalCost(), "Both engines should find the same total cost");
+            for (int i = 1; i < actual.size(); i++) {
+                assertTrue(actual.getCost(i - 1) <= actual.getCost(i), "MST edges should be in ascending cost order");
+            }
+        }
+    }
+
+    /**
+     * Test for a disconnected graph.
+     * Expect the algorithm to process every edge and return a forest.
+     */
+    @Test
+    public void testDisconnectedGraph() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 5);
+        edges.add(2, 3, 7);
+        EdgeStore mst = FilterKruskalAlgorithm.findMinimumSpanningTree(edges, 4);
+
+        assertEquals(2, mst.size(), "MST for a disconnected graph should contain fewer than n-1 edges");
+    }
+}
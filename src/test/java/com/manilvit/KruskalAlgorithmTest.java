@@ -109,4 +109,66 @@ public class KruskalAlgorithmTest {
         // Expect 2 edges since the graph is disconnected
         assertEquals(2, mst.size(), "MST for a disconnected graph should contain fewer than n-1 edges");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the columnar entry point returns the same tree as the list-based API.
+     * Graph with 4 nodes and edges:
+     *   (0,1,3), (1,2,1), (2,3,4), (0,3,2)
+     * Expected MST edges in ascending cost order: (1,2,1), (0,3,2), (0,1,3).
+     */
+    @Test
+    public void testEdgeStoreMatchesListApi() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 3);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 4);
+        edges.add(0, 3, 2);
+        EdgeStore mst = KruskalAlgorithm.findMinimumSpanningTree(edges, 4);
+
+        assertEquals(3, mst.size(), "MST should contain n-1 edges for a connected graph");
+        assertEquals(6, mst.totalCost(), "Total cost of MST should be 6");
+        assertEquals(List.of(
+                new NetworkConnection(1, 2, 1),
+                new NetworkConnection(0, 3, 2),
+                new NetworkConnection(0, 1, 3)
+        ), mst.toConnections(), "MST edges should be returned in ascending cost order");
+        assertEquals(KruskalAlgorithm.findMinimumSpanningTree(edges.toConnections(), 4), mst.toConnections());
+    }
+
+    /**
+     * Test that the radix sort orders negative and very large costs correctly.
+     * Graph with 3 nodes forming a triangle with costs MAX_VALUE, -5 and 1_000_000.
+     * Expected MST: the two cheapest edges with a total cost of 999_995.
+     */
+    @Test
+    public void testNegativeAndLargeCosts() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, Integer.MAX_VALUE);
+        edges.add(1, 2, -5);
+        edges.add(0, 2, 1_000_000);
+        EdgeStore mst = KruskalAlgorithm.findMinimumSpanningTree(edges, 3);
+
+        assertEquals(2, mst.size(), "MST should contain 2 edges for a graph with 3 nodes");
+        assertEquals(-5, mst.getCost(0), "The negative edge should be taken first");
+        assertEquals(999_995, mst.totalCost(), "Total cost of MST should be 999995");
+    }
+
+    /**
+     * Test that the phases of the algorithm are recorded.
+     * Triangle with 3 nodes: two edges are taken, then the tree is complete and the third edge is never examined.
+     * Expected union-find operations: 2 finds for each of the 2 examined edges plus 2 unions.
+     */
+    @Test
+    public void testMetrics() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 2);
+        edges.add(0, 2, 3);
+        PhaseMetrics metrics = new PhaseMetrics();
+        KruskalAlgorithm.findMinimumSpanningTree(edges, 3, metrics);
+
+        assertEquals(6L, metrics.get("UnionFindOperations"));
+        assertNotNull(metrics.get("SortTime"));
+        assertNotNull(metrics.get("UnionFindTime"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LocalBatchRunner}.
+ */
+public class LocalBatchRunnerTest {
+
+    /**
+     * Test that every file is processed once per repetition, results are written as lines, and failures are counted.
+     */
+    @Test
+    public void testRun(@TempDir Path tempDir) throws IOException, InterruptedException {
+        Path networks = tempDir.resolve("networks");
+        Files.createDirectories(networks.resolve("north"));
+        Files.writeString(networks.resolve("a.txt"), "2\n1 2 5\n2 3 4\n");
+        Files.writeString(networks.resolve("north/b.txt"), "1\n7 8 1\n");
+        Files.writeString(networks.resolve("broken.txt"), "2\n1 2\n");
+        Path output = tempDir.resolve("out/results.jsonl");
+
+        LocalBatchRunner.Report report = LocalBatchRunner.run(networks, 2, 3, new FileResultSink(output), false);
+
+        assertEquals(9, report.files());
+        assertEquals(3, report.failures(), "The broken file fails every time");
+        assertEquals(9, report.latencies().length);
+        assertTrue(report.percentile(50) > 0);
+        assertTrue(report.percentile(50) <= report.percentile(99));
+        assertEquals(report.latencies()[8], report.percentile(100));
+        assertTrue(report.peakHeapBytes() > 0);
+
+        List<String> results = Files.readAllLines(output);
+        assertEquals(6, results.size());
+        assertEquals(3, results.stream().filter(line -> line.contains("\"s3_file_path\":\"s3://networks/north/b.txt\"")).count());
+        assertTrue(results.stream().allMatch(line -> line.startsWith("{\"total_cost\":")));
+    }
+}
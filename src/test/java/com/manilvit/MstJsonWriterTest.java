@@ -0,0 +1,90 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MstJsonWriter}.
+ */
+public class MstJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Serializes the message the way the handler used to, with Jackson, in the writer's key order.
+     */
+    private String jacksonMessage(EdgeStore mst, String filePath) throws IOException {
+        List<Map<String, Integer>> connections = new ArrayList<>();
+        for (int i = 0; i < mst.size(); i++) {
+            Map<String, Integer> connection = new LinkedHashMap<>();
+            connection.put("from", mst.getNode1(i));
+            connection.put("to", mst.getNode2(i));
+            connection.put("cost", mst.getCost(i));
+            connections.add(connection);
+        }
+        ForestSummary trees = ForestSummary.of(mst);
+        List<Map<String, Number>> components = new ArrayList<>();
+        for (int t = 0; t < trees.treeCount(); t++) {
+            Map<String, Number> component = new LinkedHashMap<>();
+            component.put("total_cost", trees.cost(t));
+            component.put("edge_count", trees.edgeCount(t));
+            components.add(component);
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("total_cost", mst.totalCost());
+        message.put("connections", connections);
+        message.put("component_count", trees.treeCount());
+        message.put("components", components);
+        message.put("s3_file_path", filePath);
+        return objectMapper.writeValueAsString(message);
+    }
+
+    /**
+     * Test that the output is byte for byte what Jackson produces, including extreme values and escaped characters.
+     */
+    @Test
+    public void testMatchesJackson() throws IOException {
+        EdgeStore mst = new EdgeStore();
+        mst.add(0, 1, 0);
+        mst.add(-5, Integer.MAX_VALUE, -7);
+        mst.add(Integer.MIN_VALUE, 42, Integer.MAX_VALUE);
+        String filePath = "s3://bucket/dir/\"quoted\" \\ tab\t\u0001 ünïcode.txt";
+
+        String expected = jacksonMessage(mst, filePath);
+        assertEquals(expected, new String(MstJsonWriter.toBytes(mst, filePath), StandardCharsets.UTF_8));
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, MstJsonWriter.length(mst, filePath));
+
+        EdgeStore empty = new EdgeStore();
+        assertEquals(jacksonMessage(empty, "s3://b/k"), new String(MstJsonWriter.toBytes(empty, "s3://b/k"), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test that streaming a result larger than the internal buffer gives the same output as writing it to an array.
+     */
+    @Test
+    public void testStreamingLargeResult() throws IOException {
+        Random random = new Random(3);
+        EdgeStore mst = new EdgeStore();
+        for (int i = 0; i < 50_000; i++) {
+            mst.add(i, random.nextInt(), random.nextInt(1_000_000));
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MstJsonWriter.write(mst, "s3://bucket/large.txt", output);
+
+        byte[] bytes = MstJsonWriter.toBytes(mst, "s3://bucket/large.txt");
+        assertArrayEquals(bytes, output.toByteArray());
+        assertEquals(jacksonMessage(mst, "s3://bucket/large.txt"), new String(bytes, StandardCharsets.UTF_8));
+    }
+}
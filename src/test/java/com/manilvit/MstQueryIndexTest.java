@@ -0,0 +1,178 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MstQueryIndex} and {@link MstQueryHandler}.
+ */
+public class MstQueryIndexTest {
+
+    /**
+     * Finds the tree path between two nodes by a breadth-first search, as {@code {bottleneck, cost}}.
+     */
+    private static long[] walk(EdgeStore forest, int from, int to) {
+        Map<Integer, List<int[]>> adjacency = new HashMap<>();
+        for (int i = 0; i < forest.size(); i++) {
+            adjacency.computeIfAbsent(forest.getNode1(i), k -> new ArrayList<>()).add(new int[]{forest.getNode2(i), forest.getCost(i)});
+            adjacency.computeIfAbsent(forest.getNode2(i), k -> new ArrayList<>()).add(new int[]{forest.getNode1(i), forest.getCost(i)});
+        }
+        if (!adjacency.containsKey(from)) {
+            return new long[]{MstQueryIndex.NO_PATH, MstQueryIndex.NO_PATH}; // A node in no tree has no path at all
+        }
+        Map<Integer, long[]> reached = new HashMap<>(); // Node -> {bottleneck, cost} from the start
+        reached.put(from, new long[]{MstQueryIndex.NO_PATH, 0});
+        ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            long[] path = reached.get(node);
+            for (int[] link : adjacency.getOrDefault(node, List.of())) {
+                if (!reached.containsKey(link[0])) {
+                    reached.put(link[0], new long[]{Math.max(path[0], link[1]), path[1] + link[1]});
+                    queue.add(link[0]);
+                }
+            }
+        }
+        return reached.getOrDefault(to, new long[]{MstQueryIndex.NO_PATH, MstQueryIndex.NO_PATH});
+    }
+
+    /**
+     * Test the answers on a small forest, including pairs without a path.
+     */
+    @Test
+    public void testQueries() {
+        EdgeStore forest = new EdgeStore();
+        forest.add(10, 20, 3);
+        forest.add(20, 30, 7);
+        forest.add(20, 40, -2);
+        forest.add(-5, Integer.MIN_VALUE, 4);
+        MstQueryIndex index = MstQueryIndex.build(forest);
+
+        assertEquals(6, index.nodeCount());
+        assertEquals(7, index.bottleneck(30, 10));
+        assertEquals(10, index.pathCost(30, 10));
+        assertEquals(7, index.bottleneck(40, 30));
+        assertEquals(5, index.pathCost(40, 30));
+        assertEquals(-2, index.bottleneck(20, 40));
+        assertEquals(4, index.bottleneck(Integer.MIN_VALUE, -5));
+        assertEquals(0, index.pathCost(20, 20));
+        assertEquals(MstQueryIndex.NO_PATH, index.bottleneck(20, 20), "A node has no link to itself");
+        assertEquals(MstQueryIndex.NO_PATH, index.bottleneck(10, -5));
+        assertEquals(MstQueryIndex.NO_PATH, index.pathCost(10, -5));
+        assertEquals(MstQueryIndex.NO_PATH, index.pathCost(10, 99), "99 is in no tree");
+        assertTrue(index.connected(30, 40));
+        assertFalse(index.connected(30, -5));
+
+        assertArrayEquals(new long[]{7, MstQueryIndex.NO_PATH}, index.bottlenecks(new int[]{30, 10}, new int[]{10, 99}));
+        assertThrows(IllegalArgumentException.class, () -> index.pathCosts(new int[]{1}, new int[0]));
+    }
+
+    /**
+     * Test random queries on MSTs of random networks, deep paths included, against a walk of the tree.
+     */
+    @Test
+    public void testMatchesTreeWalk() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            int numNodes = 2 + random.nextInt(round < 10 ? 30 : 2_000);
+            EdgeStore graph = new EdgeStore();
+            int edgeCount = random.nextInt(3 * numNodes);
+            for (int i = 0; i < edgeCount; i++) {
+                graph.add(random.nextInt(numNodes), random.nextInt(numNodes), random.nextInt(200) - 50);
+            }
+            if (round % 4 == 0) {
+                graph = new EdgeStore();
+                for (int node = 1; node < numNodes; node++) {
+                    graph.add(node - 1, node, random.nextInt(1_000)); // A single path, as deep as a tree gets
+                }
+            }
+            EdgeStore forest = KruskalAlgorithm.findMinimumSpanningTree(graph, numNodes);
+            MstQueryIndex index = MstQueryIndex.build(forest);
+            for (int query = 0; query < 100; query++) {
+                int from = random.nextInt(numNodes);
+                int to = random.nextInt(numNodes);
+                long[] expected = walk(forest, from, to);
+                String pair = from + "-" + to + " in round " + round;
+                assertEquals(expected[0], index.bottleneck(from, to), pair);
+                assertEquals(expected[1], index.pathCost(from, to), pair);
+            }
+        }
+    }
+
+    /**
+     * Test that an encoded index answers like the original, and that cycles and corrupt data are rejected.
+     */
+    @Test
+    public void testEncoding() throws IOException {
+        Random random = new Random(24);
+        EdgeStore graph = new EdgeStore();
+        for (int i = 0; i < 5_000; i++) {
+            graph.add(random.nextInt(1_000) * 7, random.nextInt(1_000) * 7, random.nextInt());
+        }
+        EdgeStore forest = KruskalAlgorithm.findMinimumSpanningTree(graph, 7_000);
+        MstQueryIndex index = MstQueryIndex.build(forest);
+        byte[] bytes = index.toBytes();
+        assertEquals(12 + 12 * index.nodeCount(), bytes.length);
+
+        MstQueryIndex decoded = MstQueryIndex.fromBytes(bytes);
+        int[] nodes1 = new int[1_000];
+        int[] nodes2 = new int[1_000];
+        for (int i = 0; i < nodes1.length; i++) {
+            nodes1[i] = random.nextInt(1_000) * 7;
+            nodes2[i] = random.nextInt(1_000) * 7;
+        }
+        assertArrayEquals(index.bottlenecks(nodes1, nodes2), decoded.bottlenecks(nodes1, nodes2));
+        assertArrayEquals(index.pathCosts(nodes1, nodes2), decoded.pathCosts(nodes1, nodes2));
+        assertEquals(0, MstQueryIndex.fromBytes(MstQueryIndex.build(new EdgeStore()).toBytes()).nodeCount());
+
+        assertThrows(IOException.class, () -> MstQueryIndex.fromBytes(Arrays.copyOf(bytes, bytes.length - 4)));
+        assertThrows(IOException.class, () -> MstQueryIndex.fromBytes("3\n1 2 3\n".getBytes()));
+        byte[] cyclic = bytes.clone();
+        cyclic[12 + 4 * index.nodeCount()] = 5; // The parent of the first root now comes after it
+        assertThrows(IOException.class, () -> MstQueryIndex.fromBytes(cyclic));
+
+        EdgeStore triangle = new EdgeStore();
+        triangle.add(1, 2, 1);
+        triangle.add(2, 3, 1);
+        triangle.add(3, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> MstQueryIndex.build(triangle));
+    }
+
+    /**
+     * Test that the query handler answers from a stored index and rejects networks without one.
+     */
+    @Test
+    public void testQueryHandler(@TempDir Path tempDir) throws IOException {
+        BlobStore store = new FileBlobStore(tempDir);
+        EdgeStore forest = new EdgeStore();
+        forest.add(1, 2, 5);
+        forest.add(2, 3, 7);
+        forest.add(8, 9, 1);
+        MstQueryIndex.build(forest).save(store, MstQueryIndex.keyOf("bucket", "networks/a.txt"));
+
+        MstQueryHandler handler = new MstQueryHandler(store);
+        Map<String, Object> response = handler.handleRequest(Map.of(
+                "s3_file_path", "s3://bucket/networks/a.txt",
+                "pairs", List.of(List.of(1, 3), List.of(3, 2), List.of(1, 9))), new TestContext());
+        assertEquals("s3://bucket/networks/a.txt", response.get("s3_file_path"));
+        assertEquals(Arrays.asList(7L, 7L, null), response.get("bottlenecks"));
+        assertEquals(Arrays.asList(12L, 7L, null), response.get("path_costs"));
+
+        assertThrows(IllegalArgumentException.class, () -> handler.handleRequest(Map.of(
+                "s3_file_path", "s3://bucket/networks/b.txt", "pairs", List.of()), new TestContext()));
+        assertThrows(IllegalArgumentException.class, () -> handler.handleRequest(Map.of(
+                "s3_file_path", "s3://bucket/networks/a.txt", "pairs", List.of(List.of(1))), new TestContext()));
+    }
+}
@@ -2,7 +2,10 @@ package com.manilvit;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -101,4 +104,90 @@ public class NetworkObjectParserTest {
         assertNotNull(connections, "The list of connections should not be null");
         assertEquals(3, connections.size(), "Expected 3 connections after trimming whitespace");
     }
+
+    /**
+     * Test case to parse valid bytes and check that the edge store matches the String-based parser.
+     */
+    @Test
+    public void testParseEdgesMatchesParse() throws IOException {
+        String fileContent = """
+            3
+             1   2  3
+            2 3    -1
+            3 4 +4
+            """;
+        EdgeStore edges = NetworkObjectParser.parseEdges(fileContent.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, edges.size(), "Expected 3 connections");
+        assertEquals(NetworkObjectParser.parse(fileContent), edges.toConnections());
+    }
+
+    /**
+     * Test case for Windows and old Mac line breaks and a missing final line break.
+     */
+    @Test
+    public void testParseEdgesLineBreaks() throws IOException {
+        byte[] fileContent = "2\r\n1 2 3\r2 3 1".getBytes(StandardCharsets.US_ASCII);
+        EdgeStore edges = NetworkObjectParser.parseEdges(fileContent);
+
+        assertEquals(2, edges.size(), "Expected 2 connections");
+        assertEquals(2, edges.getNode1(1));
+        assertEquals(1, edges.getCost(1));
+    }
+
+    /**
+     * Test case to ensure the byte parser keeps the same validation as the String-based parser.
+     */
+    @Test
+    public void testParseEdgesValidation() {
+        Exception invalid = assertThrows(IOException.class,
+                () -> NetworkObjectParser.parseEdges("2\n1 2 3\ninvalid_line\n".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(invalid.getMessage().contains("Invalid line format"), "The error message should mention 'Invalid line format'");
+
+        Exception tooMany = assertThrows(IOException.class,
+                () -> NetworkObjectParser.parseEdges("1\n1 2 3 4\n".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(tooMany.getMessage().contains("Invalid line format"), "The error message should mention 'Invalid line format'");
+
+        Exception mismatch = assertThrows(IOException.class,
+                () -> NetworkObjectParser.parseEdges("3\n1 2 3\n2 3 1\n".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(mismatch.getMessage().contains("does not match the number of nodes"), "The error message should mention 'does not match the number of nodes'");
+
+        assertThrows(NumberFormatException.class,
+                () -> NetworkObjectParser.parseEdges("not_a_number\n1 2 3\n".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(NumberFormatException.class,
+                () -> NetworkObjectParser.parseEdges("1\n1 2 2147483648\n".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(NumberFormatException.class,
+                () -> NetworkObjectParser.parseEdges("1\n1 2 3x\n".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Test case to parse a stream that delivers one byte per read, so every line and "\r\n" is split across reads.
+     */
+    @Test
+    public void testParseEdgesFromTrickleStream() throws IOException {
+        byte[] fileContent = "3\r\n1 2 3\r\n2 3 1\r\n3 4 4".getBytes(StandardCharsets.US_ASCII);
+        InputStream trickle = new ByteArrayInputStream(fileContent) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        EdgeStore edges = NetworkObjectParser.parseEdges(trickle, -1);
+
+        assertEquals(NetworkObjectParser.parseEdges(fileContent).toConnections(), edges.toConnections());
+        assertEquals(3, edges.size(), "Expected 3 connections");
+    }
+
+    /**
+     * Test case for a stream with a line longer than the read buffer.
+     */
+    @Test
+    public void testParseEdgesFromStreamWithLongLine() throws IOException {
+        String fileContent = "1\n1" + " ".repeat(200_000) + "2 3\n";
+        byte[] bytes = fileContent.getBytes(StandardCharsets.US_ASCII);
+        EdgeStore edges = NetworkObjectParser.parseEdges(new ByteArrayInputStream(bytes), bytes.length);
+
+        assertEquals(1, edges.size(), "Expected 1 connection");
+        assertEquals(3, edges.getCost(0));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link NodeIdCompactor} and {@link IntIntHashMap}.
+ */
+public class NodeIdCompactorTest {
+
+    /**
+     * Test that very large and negative identifiers are mapped to 0..k-1 and restored after the MST.
+     */
+    @Test
+    public void testCompactAndRestore() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(1, 2_000_000_000, 5);
+        edges.add(2_000_000_000, -7, 1);
+        edges.add(-7, 1, 3);
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(edges);
+
+        assertEquals(3, nodeIds.nodeCount(), "Expected 3 distinct nodes");
+        assertEquals(List.of(
+                new NetworkConnection(0, 1, 5),
+                new NetworkConnection(1, 2, 1),
+                new NetworkConnection(2, 0, 3)
+        ), edges.toConnections(), "Identifiers should be assigned in order of first appearance");
+
+        EdgeStore mst = nodeIds.restore(KruskalAlgorithm.findMinimumSpanningTree(edges, nodeIds.nodeCount()));
+        assertEquals(List.of(
+                new NetworkConnection(2_000_000_000, -7, 1),
+                new NetworkConnection(-7, 1, 3)
+        ), mst.toConnections(), "The MST should use the original identifiers");
+    }
+
+    /**
+     * Test that compaction grows past the initial reservation when a graph has more nodes than that.
+     */
+    @Test
+    public void testCompactGrowsPastInitialNodes() {
+        int numNodes = NodeIdCompactor.INITIAL_NODES * 3;
+        EdgeStore edges = new EdgeStore();
+        for (int i = 0; i < numNodes; i++) {
+            edges.add(i * 7, (i + 1) * 7, i);
+        }
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(edges);
+
+        assertEquals(numNodes + 1, nodeIds.nodeCount());
+        assertEquals(numNodes - 1, edges.getNode1(numNodes - 1));
+        assertEquals((numNodes - 1) * 7, nodeIds.originalId(numNodes - 1));
+        assertEquals(numNodes * 7, nodeIds.originalId(numNodes));
+    }
+
+    /**
+     * Test that the map grows past its initial capacity and handles the key used to mark free slots.
+     */
+    @Test
+    public void testIntIntHashMap() {
+        IntIntHashMap map = new IntIntHashMap(2);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 31, i);
+        }
+        assertEquals(10_000, map.size());
+        assertEquals(1234, map.get(1234 * 31, -1));
+        assertEquals(-1, map.get(5, -1));
+
+        assertEquals(-1, map.get(Integer.MIN_VALUE, -1));
+        assertEquals(42, map.putIfAbsent(Integer.MIN_VALUE, 42));
+        assertEquals(42, map.putIfAbsent(Integer.MIN_VALUE, 43), "An existing value should not be replaced");
+        assertEquals(0, map.putIfAbsent(0, 99), "An existing value should be returned");
+        assertEquals(10_001, map.size());
+    }
+}
@@ -0,0 +1,189 @@
+package com.manilvit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ParallelRangeParser}.
+ */
+public class ParallelRangeParserTest {
+
+    private static void assertSameEdges(EdgeStore expected, EdgeStore actual) {
+        assertEquals(expected.size(), actual.size(), "Edge count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getNode1(i), actual.getNode1(i), "Node 1 of edge " + i);
+            assertEquals(expected.getNode2(i), actual.getNode2(i), "Node 2 of edge " + i);
+            assertEquals(expected.getCost(i), actual.getCost(i), "Cost of edge " + i);
+        }
+    }
+
+    /**
+     * Generates a text file with mixed line breaks, padding and number lengths, so that range boundaries fall
+     * inside numbers, between '\r' and '\n', and inside runs of whitespace.
+     */
+    private static byte[] messyNetwork(int edgeCount, long seed) {
+        Random random = new Random(seed);
+        String[] lineBreaks = {"\n", "\r\n", "\r"};
+        StringBuilder content = new StringBuilder().append(edgeCount).append('\n');
+        for (int i = 0; i < edgeCount; i++) {
+            content.append(random.nextBoolean() ? "" : "  ")
+                    .append(random.nextInt(1 << random.nextInt(30))).append(random.nextBoolean() ? " " : "\t ")
+                    .append(random.nextInt(1000)).append(' ')
+                    .append(random.nextInt(2_000_000) - 1_000_000)
+                    .append(i + 1 < edgeCount || random.nextBoolean() ? lineBreaks[random.nextInt(lineBreaks.length)] : "");
+        }
+        return content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Test that parsing in ranges gives the same edges, in the same order, as parsing the whole file, for range
+     * sizes from a single byte up to most of the file.
+     */
+    @Test
+    public void testMatchesSequentialParse(@TempDir Path tempDir) throws IOException {
+        for (long seed = 1; seed <= 3; seed++) {
+            byte[] content = messyNetwork(300, seed);
+            Path file = Files.write(tempDir.resolve("network-" + seed + ".txt"), content);
+            EdgeStore expected = NetworkObjectParser.parseEdges(content);
+
+            for (int chunkSize : new int[]{1, 2, 3, 5, 7, 16, 31, 64, 100, 1000, content.length - 1, content.length}) {
+                EdgeStore parsed = ParallelRangeParser.parse(ParallelRangeParser.file(file), content.length, chunkSize, 4, null);
+                assertSameEdges(expected, parsed);
+            }
+        }
+    }
+
+    /**
+     * Test that a header longer than the first range is still read.
+     */
+    @Test
+    public void testHeaderAcrossRanges(@TempDir Path tempDir) throws IOException {
+        byte[] content = "  0000003\r\n1 2 3\r\n2 3 1\r\n3 4 4".getBytes(StandardCharsets.US_ASCII);
+        Path file = Files.write(tempDir.resolve("network.txt"), content);
+
+        EdgeStore parsed = ParallelRangeParser.parse(ParallelRangeParser.file(file), content.length, 4, 2, null);
+
+        assertSameEdges(NetworkObjectParser.parseEdges(content), parsed);
+    }
+
+    /**
+     * Test that format errors are reported as they are for the whole file, including in lines that cross ranges.
+     */
+    @Test
+    public void testInvalidContent(@TempDir Path tempDir) throws IOException {
+        byte[] wrongCount = "3\n1 2 3\n2 3 1\n".getBytes(StandardCharsets.US_ASCII);
+        Path countFile = Files.write(tempDir.resolve("count.txt"), wrongCount);
+        IOException countError = assertThrows(IOException.class,
+                () -> ParallelRangeParser.parse(ParallelRangeParser.file(countFile), wrongCount.length, 5, 2, null));
+        assertEquals("The number of connections does not match the number of nodes. Expected: 3, found: 2", countError.getMessage());
+
+        byte[] badLine = "2\n1 2 3\n2 3 1 7\n".getBytes(StandardCharsets.US_ASCII);
+        Path lineFile = Files.write(tempDir.resolve("line.txt"), badLine);
+        IOException lineError = assertThrows(IOException.class,
+                () -> ParallelRangeParser.parse(ParallelRangeParser.file(lineFile), badLine.length, 10, 2, null));
+        assertTrue(lineError.getMessage().contains("Invalid line format: 2 3 1 7"), lineError.getMessage());
+    }
+
+    /**
+     * Test that a binary file is fetched in ranges and decoded as a whole.
+     */
+    @Test
+    public void testBinaryFile(@TempDir Path tempDir) throws IOException {
+        EdgeStore edges = NetworkObjectParser.parseEdges(messyNetwork(500, 4));
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryEdgeFormat.write(edges, binary, BinaryEdgeFormat.Encoding.VARINT);
+        Path file = Files.write(tempDir.resolve("network.bin"), binary.toByteArray());
+
+        PhaseMetrics metrics = new PhaseMetrics();
+        EdgeStore parsed = ParallelRangeParser.parse(ParallelRangeParser.file(file), binary.size(), 97, 3, metrics);
+
+        assertSameEdges(edges, parsed);
+        assertEquals((long) (binary.size() + 96) / 97, metrics.get("DownloadChunks"));
+    }
+
+    /**
+     * Test that a range shorter than requested, as when the object is replaced during the download, fails the parse.
+     */
+    @Test
+    public void testShortRange() {
+        byte[] content = "2\n1 2 3\n2 3 1\n".getBytes(StandardCharsets.US_ASCII);
+        ParallelRangeParser.RangeReader truncating = (offset, length) ->
+                Arrays.copyOfRange(content, (int) offset, (int) Math.min(offset + length, content.length - 2));
+
+        IOException e = assertThrows(IOException.class,
+                () -> ParallelRangeParser.parse(truncating, content.length, 4, 2, null));
+        assertTrue(e.getMessage().contains("may have changed"), e.getMessage());
+    }
+
+    /**
+     * Test the ranged GetObject calls against a local HTTP server standing in for S3, which answers Range requests.
+     */
+    @Test
+    public void testS3RangedGetObject() throws IOException {
+        byte[] content = messyNetwork(2_000, 5);
+        List<String> ranges = new CopyOnWriteArrayList<>();
+        List<String> conditions = new CopyOnWriteArrayList<>();
+        Pattern rangePattern = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/bucket/network.txt", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range);
+            conditions.add(exchange.getRequestHeaders().getFirst("If-Match"));
+            Matcher matcher = rangePattern.matcher(range);
+            assertTrue(matcher.matches(), range);
+            int from = Integer.parseInt(matcher.group(1));
+            int to = Math.min(Integer.parseInt(matcher.group(2)), content.length - 1);
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + content.length);
+            exchange.getResponseHeaders().add("ETag", "\"abc123\"");
+            exchange.sendResponseHeaders(206, to - from + 1);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(content, from, to - from + 1);
+            }
+        });
+        server.start();
+        try (S3Client s3 = S3Client.builder()
+                .endpointOverride(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .build()) {
+            EdgeStore parsed = ParallelRangeParser.parse(ParallelRangeParser.s3(() -> s3, "bucket", "network.txt", "abc123"),
+                    content.length, 4096, 4, null);
+
+            assertSameEdges(NetworkObjectParser.parseEdges(content), parsed);
+        } finally {
+            server.stop(0);
+        }
+
+        int chunkCount = (content.length + 4095) / 4096;
+        assertEquals(chunkCount, ranges.size(), "One request per range");
+        assertTrue(ranges.contains("bytes=0-4095"), ranges.toString());
+        assertTrue(ranges.contains("bytes=" + (chunkCount - 1) * 4096 + "-" + (content.length - 1)), ranges.toString());
+        assertTrue(conditions.stream().allMatch("\"abc123\""::equals), conditions.toString());
+    }
+}
@@ -0,0 +1,88 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.JsonNode;
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PhaseMetrics}.
+ */
+public class PhaseMetricsTest {
+
+    /**
+     * Test that the log line has the EMF structure: metadata under "_aws" and every declared metric as a top-level member.
+     */
+    @Test
+    public void testEmfStructure() throws IOException {
+        PhaseMetrics metrics = new PhaseMetrics();
+        metrics.putDimension("Path", "solve");
+        metrics.putProperty("S3FilePath", "s3://bucket/net.txt");
+        metrics.addTime("ParseTime", 1_500_000);
+        metrics.addTime("ParseTime", 500_000);
+        metrics.addBytes("BytesRead", 2048);
+        metrics.addCount("Edges", 10);
+
+        String line = metrics.toEmf("NetworkOptimizer", 1_700_000_000_000L);
+        assertFalse(line.contains("\n"), "EMF entries must fit on one log line");
+
+        JsonNode root = new ObjectMapper().readTree(line);
+        JsonNode aws = root.get("_aws");
+        assertEquals(1_700_000_000_000L, aws.get("Timestamp").asLong());
+        JsonNode directive = aws.get("CloudWatchMetrics").get(0);
+        assertEquals("NetworkOptimizer", directive.get("Namespace").asText());
+        assertEquals("Path", directive.get("Dimensions").get(0).get(0).asText());
+
+        List<String> declared = new ArrayList<>();
+        for (JsonNode metric : directive.get("Metrics")) {
+            declared.add(metric.get("Name").asText() + ":" + metric.get("Unit").asText());
+            assertTrue(root.has(metric.get("Name").asText()), "Every declared metric needs a value");
+        }
+        assertEquals(List.of("ParseTime:Milliseconds", "BytesRead:Bytes", "Edges:Count"), declared);
+
+        assertEquals(2.0, root.get("ParseTime").asDouble(), 1e-9, "Times of the same phase should be summed");
+        assertEquals(2048, root.get("BytesRead").asLong());
+        assertEquals("solve", root.get("Path").asText());
+        assertEquals("s3://bucket/net.txt", root.get("S3FilePath").asText());
+    }
+
+    /**
+     * Test that a metric keeps the unit it was first recorded with.
+     */
+    @Test
+    public void testUnitMismatch() {
+        PhaseMetrics metrics = new PhaseMetrics();
+        metrics.addCount("Edges", 1);
+        metrics.addCount("Edges", 2);
+        assertEquals(3L, metrics.get("Edges"));
+        assertNull(metrics.get("Nodes"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.addBytes("Edges", 1));
+    }
+
+    /**
+     * Test that the metrics of parts are summed with their units.
+     */
+    @Test
+    public void testAddAll() {
+        PhaseMetrics total = new PhaseMetrics();
+        total.addCount("Edges", 1);
+        PhaseMetrics part = new PhaseMetrics();
+        part.addCount("Edges", 2);
+        part.addTime("SortTime", 2_000_000);
+        part.putDimension("Path", "solve");
+        total.addAll(part);
+        total.addAll(part);
+
+        assertEquals(5L, total.get("Edges"));
+        assertEquals(4.0, total.get("SortTime").doubleValue(), 1e-9);
+        assertFalse(total.toEmf("NetworkOptimizer", 0).contains("\"Path\""), "Dimensions should not be copied");
+        PhaseMetrics bytes = new PhaseMetrics();
+        bytes.addBytes("Edges", 1);
+        assertThrows(IllegalArgumentException.class, () -> total.addAll(bytes));
+    }
+}
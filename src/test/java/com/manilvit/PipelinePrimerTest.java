@@ -0,0 +1,40 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PipelinePrimer}.
+ */
+public class PipelinePrimerTest {
+
+    /**
+     * Test that the synthetic network is a valid, connected network file.
+     */
+    @Test
+    public void testSyntheticNetwork() throws IOException {
+        EdgeStore edges = NetworkObjectParser.parseEdges(PipelinePrimer.syntheticNetwork(1000, 7));
+        assertEquals(1000, edges.size());
+
+        NodeIdCompactor nodeIds = NodeIdCompactor.compact(edges);
+        EdgeStore mst = KruskalAlgorithm.findMinimumSpanningTree(edges, nodeIds.nodeCount());
+        assertEquals(nodeIds.nodeCount() - 1, mst.size(), "The network should be connected");
+    }
+
+    /**
+     * Test that priming runs every stage and the initializers without touching AWS.
+     */
+    @Test
+    public void testBeforeCheckpoint() throws IOException {
+        assertTrue(PipelinePrimer.prime(MstEngine.values().length) > 0);
+
+        AtomicInteger initialized = new AtomicInteger();
+        new PipelinePrimer(List.of(initialized::incrementAndGet, initialized::incrementAndGet)).beforeCheckpoint(null);
+        assertEquals(2, initialized.get());
+    }
+}
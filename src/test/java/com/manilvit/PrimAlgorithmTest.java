@@ -0,0 +1,126 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PrimAlgorithm} and {@link CsrGraph}.
+ */
+public class PrimAlgorithmTest {
+
+    /**
+     * Test for a simple connected graph.
+     * Graph with 4 nodes and edges:
+     *   (0,1,3), (1,2,1), (2,3,4), (0,3,2)
+     * Expected MST: edges (1,2,1), (0,3,2), (0,1,3) in ascending cost order, as they were given.
+     */
+    @Test
+    public void testSimpleGraphMST() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 3);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 4);
+        edges.add(0, 3, 2);
+        EdgeStore mst = PrimAlgorithm.findMinimumSpanningTree(edges, 4);
+
+        assertEquals(3, mst.size(), "MST should contain n-1 edges for a connected graph");
+        assertEquals(6, mst.totalCost(), "Total cost of MST should be 6");
+        assertEquals(KruskalAlgorithm.findMinimumSpanningTree(edges, 4).toConnections(), mst.toConnections());
+    }
+
+    /**
+     * Property test: on many random graphs, sparse to complete, with disconnected parts, self-loops, parallel
+     * edges, negative costs and ties, Prim selects as many edges as Kruskal with the same total cost, in ascending
+     * cost order, each an input edge in its input direction, and without a cycle.
+     */
+    @Test
+    public void testRandomGraphsMatchKruskal() {
+        Random random = new Random(19);
+        for (int round = 0; round < 500; round++) {
+            int numNodes = 1 + random.nextInt(round < 400 ? 40 : 2_000);
+            int edgeCount = random.nextInt(Math.min(numNodes * numNodes, 20_000) + 1);
+            int costRange = random.nextBoolean() ? 3 : 1_000_000;
+            EdgeStore edges = new EdgeStore(edgeCount);
+            Map<Long, Integer> given = new HashMap<>();
+            for (int i = 0; i < edgeCount; i++) {
+                int node1 = random.nextInt(numNodes);
+                int node2 = random.nextInt(numNodes);
+                int cost = random.nextInt(costRange) - costRange / 2;
+                edges.add(node1, node2, cost);
+                given.merge(edgeKey(node1, node2, cost), 1, Integer::sum);
+            }
+
+            EdgeStore expected = KruskalAlgorithm.findMinimumSpanningTree(edges, numNodes);
+            EdgeStore actual = PrimAlgorithm.findMinimumSpanningTree(edges, numNodes);
+
+            String graph = "Graph " + round + " with " + numNodes + " nodes and " + edgeCount + " edges";
+            assertEquals(expected.size(), actual.size(), graph + ": both engines should select the same number of edges");
+            assertEquals(expected.totalCost(), actual.totalCost(), graph + ": both engines should find the same total cost");
+            KruskalAlgorithm.UnionFind components = new KruskalAlgorithm.UnionFind(numNodes);
+            for (int i = 0; i < actual.size(); i++) {
+                int node1 = actual.getNode1(i);
+                int node2 = actual.getNode2(i);
+                if (i > 0) {
+                    assertTrue(actual.getCost(i - 1) <= actual.getCost(i), graph + ": MST edges should be in ascending cost order");
+                }
+                long key = edgeKey(node1, node2, actual.getCost(i));
+                assertTrue(given.containsKey(key), graph + ": MST edges should be input edges as given");
+                given.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+                assertNotEquals(components.find(node1), components.find(node2), graph + ": MST edges should not form a cycle");
+                components.union(node1, node2);
+            }
+        }
+    }
+
+    private static long edgeKey(int node1, int node2, int cost) {
+        return ((long) node1 << 43) | ((long) node2 << 32) | (cost & 0xFFFF_FFFFL); // Nodes stay below 2^11
+    }
+
+    /**
+     * Test for a disconnected graph with an isolated node and a self-loop.
+     * Expect a forest with one tree per component.
+     */
+    @Test
+    public void testDisconnectedGraph() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 1, 5);
+        edges.add(3, 3, 1);
+        edges.add(3, 4, 7);
+        edges.add(4, 2, 6);
+        EdgeStore mst = PrimAlgorithm.findMinimumSpanningTree(edges, 6);
+
+        assertEquals(3, mst.size(), "MST for a disconnected graph should contain fewer than n-1 edges");
+        assertEquals(18, mst.totalCost());
+        assertEquals(new NetworkConnection(4, 2, 6), mst.toConnections().get(1), "Edges should keep their input direction");
+    }
+
+    /**
+     * Test that the adjacency lists both directions of every edge except self-loops and rejects unknown nodes.
+     */
+    @Test
+    public void testCsrGraph() {
+        EdgeStore edges = new EdgeStore();
+        edges.add(0, 2, -4);
+        edges.add(1, 1, 9);
+        edges.add(2, 1, 3);
+        CsrGraph graph = CsrGraph.build(edges, 3);
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(1, graph.end(0) - graph.start(0));
+        assertEquals(1, graph.end(1) - graph.start(1));
+        assertEquals(2, graph.end(2) - graph.start(2));
+        int position = graph.start(2);
+        assertEquals(0, graph.target(position));
+        assertEquals(-4, graph.cost(position));
+        assertTrue(graph.isReversed(position), "The edge was given from 0 to 2");
+        assertEquals(1, graph.target(position + 1));
+        assertFalse(graph.isReversed(position + 1), "The edge was given from 2 to 1");
+
+        assertThrows(IllegalArgumentException.class, () -> CsrGraph.build(edges, 2));
+    }
+}
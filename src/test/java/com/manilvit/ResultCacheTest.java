@@ -0,0 +1,65 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ResultCache}.
+ */
+public class ResultCacheTest {
+
+    private static EdgeStore tree(int edges) {
+        EdgeStore mst = new EdgeStore();
+        for (int i = 0; i < edges; i++) {
+            mst.add(i, i + 1, i);
+        }
+        return mst;
+    }
+
+    /**
+     * Test that the least recently used entries are evicted once the edge budget is exceeded.
+     */
+    @Test
+    public void testLruEviction() throws IOException {
+        ResultCache cache = new ResultCache(5, null);
+        cache.put("a", tree(2));
+        cache.put("b", tree(2));
+        assertNotNull(cache.get("a"), "Entry a should be cached"); // a is now the most recently used entry
+        cache.put("c", tree(2));
+
+        assertNull(cache.get("b"), "Entry b should have been evicted");
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        cache.put("huge", tree(6));
+        assertNull(cache.get("huge"), "An entry larger than the whole budget should not be kept in memory");
+
+        assertEquals(3, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Test that a fresh cache, as after a cold start, finds results written by another instance in the persistent tier.
+     */
+    @Test
+    public void testPersistentTier(@TempDir Path tempDir) throws IOException {
+        EdgeStore mst = tree(3);
+        new ResultCache(100, new FileBlobStore(tempDir)).put(ResultCache.keyOf("\"abc123\"", 42), mst);
+
+        ResultCache coldCache = new ResultCache(100, new FileBlobStore(tempDir));
+        EdgeStore cached = coldCache.get(ResultCache.keyOf("abc123", 42));
+        assertNotNull(cached, "The result should be found in the persistent tier");
+        assertEquals(mst.toConnections(), cached.toConnections());
+        assertNotNull(coldCache.get(ResultCache.keyOf("abc123", 42)));
+
+        assertEquals(1, coldCache.persistentHitCount());
+        assertEquals(1, coldCache.memoryHitCount(), "A persistent hit should be promoted to memory");
+        assertNull(coldCache.get(ResultCache.keyOf("abc123", 43)), "A different size should not match");
+        assertNull(ResultCache.keyOf(null, 42));
+    }
+}
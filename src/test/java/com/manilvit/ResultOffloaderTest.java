@@ -0,0 +1,80 @@
+package com.manilvit;
+
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.JsonNode;
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ResultOffloader}, using a local directory as a stand-in for S3.
+ */
+public class ResultOffloaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static EdgeStore path(int edges) {
+        EdgeStore mst = new EdgeStore();
+        for (int i = 0; i < edges; i++) {
+            mst.add(i, i + 1, 2);
+        }
+        return mst;
+    }
+
+    /**
+     * Test that a small result is sent inline in the original format and nothing is stored.
+     */
+    @Test
+    public void testSmallResultInline(@TempDir Path tempDir) throws IOException {
+        ResultOffloader offloader = new ResultOffloader(objectMapper, new FileBlobStore(tempDir), 1024);
+
+        JsonNode message = objectMapper.readTree(offloader.toMessage(path(3), "bucket", "net.txt"));
+
+        assertEquals(6, message.get("total_cost").asLong());
+        assertEquals("s3://bucket/net.txt", message.get("s3_file_path").asText());
+        assertEquals(3, message.get("connections").size());
+        assertEquals(1, message.get("connections").get(0).get("to").asInt());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Nothing should be stored for an inline result");
+        }
+    }
+
+    /**
+     * Test that a large result is stored as gzip-compressed JSON and the message only points to it.
+     */
+    @Test
+    public void testLargeResultOffloaded(@TempDir Path tempDir) throws IOException {
+        FileBlobStore store = new FileBlobStore(tempDir);
+        ResultOffloader offloader = new ResultOffloader(objectMapper, store, 1024);
+
+        String messageJson = offloader.toMessage(path(10_000), "bucket", "dir/net.txt");
+        JsonNode message = objectMapper.readTree(messageJson);
+
+        assertTrue(messageJson.length() < 1024, "The pointer message should be small");
+        assertEquals(20_000, message.get("total_cost").asLong());
+        assertEquals(10_000, message.get("edge_count").asInt());
+        assertEquals(1, message.get("component_count").asInt());
+        assertEquals(ResultOffloader.RESULT_ENCODING, message.get("result_encoding").asText());
+        assertFalse(message.has("connections"));
+
+        assertEquals(store.location("bucket/dir/net.txt.mst.json.gz"), message.get("result_location").asText());
+        Path stored = Path.of(URI.create(message.get("result_location").asText()));
+        JsonNode result;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(Files.readAllBytes(stored)))) {
+            result = objectMapper.readTree(input);
+        }
+        assertEquals(20_000, result.get("total_cost").asLong());
+        assertEquals("s3://bucket/dir/net.txt", result.get("s3_file_path").asText());
+        assertEquals(10_000, result.get("connections").size());
+        assertEquals(9_999, result.get("connections").get(9_999).get("from").asInt());
+        assertEquals(10_000, result.get("components").get(0).get("edge_count").asInt());
+    }
+}
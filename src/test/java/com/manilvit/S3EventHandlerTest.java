@@ -1,7 +1,268 @@
 package com.manilvit;
 
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.JsonNode;
+import com.amazonaws.lambda.thirdparty.com.fasterxml.jackson.databind.ObjectMapper;
+import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
-class S3EventHandlerTest {
+/**
+ * Unit tests for {@link S3EventHandler}, run against a local directory instead of S3 and a list instead of SQS.
+ */
+public class S3EventHandlerTest {
+
+    private static final String BUCKET = "networks";
+
+    private static byte[] toText(EdgeStore edges) {
+        StringBuilder content = new StringBuilder().append(edges.size()).append('\n');
+        for (int i = 0; i < edges.size(); i++) {
+            content.append(edges.getNode1(i)).append(' ').append(edges.getNode2(i)).append(' ').append(edges.getCost(i)).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static S3EventNotification.S3EventNotificationRecord record(String bucket, String key) {
+        return record(bucket, key, null);
+    }
+
+    private static S3EventNotification.S3EventNotificationRecord record(String bucket, String key, String eTag) {
+        return new S3EventNotification.S3EventNotificationRecord("eu-north-1", "ObjectCreated:Put", "aws:s3", null, "2.1",
+                null, null, new S3EventNotification.S3Entity("uploads",
+                new S3EventNotification.S3BucketEntity(bucket, null, null),
+                new S3EventNotification.S3ObjectEntity(key, 0L, eTag, null, null), "1.0"), null);
+    }
+
+    private static long totalCost(String message) throws IOException {
+        return new ObjectMapper().readTree(message).get("total_cost").asLong();
+    }
+
+    /**
+     * Test that plain and gzip files are solved and their results delivered, and that a missing file fails on its own.
+     */
+    @Test
+    public void testProcessRecords(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(24);
+        EdgeStore graph = new EdgeStore();
+        for (int i = 0; i < 2_000; i++) {
+            graph.add(random.nextInt(500), random.nextInt(500), random.nextInt(1_000));
+        }
+        byte[] text = toText(graph);
+        Files.createDirectories(tempDir.resolve(BUCKET).resolve("city"));
+        Files.write(tempDir.resolve(BUCKET).resolve("city/a.txt"), text);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(text);
+        }
+        Files.write(tempDir.resolve(BUCKET).resolve("city/a.txt.gz"), compressed.toByteArray());
+
+        List<String> sent = new ArrayList<>();
+        S3EventHandler handler = new S3EventHandler(new FileObjectSource(tempDir), messages -> {
+            sent.addAll(messages);
+            return Map.of();
+        }, BUCKET);
+        String[] failures = handler.processRecords(List.of(record(BUCKET, "city/a.txt"), record(BUCKET, "city/missing.txt"),
+                record("other-bucket", "city/a.txt"), record(BUCKET, "city/a.txt.gz")), new TestContext());
+
+        assertArrayEquals(new String[]{null, "Error processing file", null, null}, failures,
+                "The file of another bucket is skipped, not failed");
+        assertEquals(2, sent.size());
+        long expectedCost = KruskalAlgorithm.findMinimumSpanningTree(graph, 500).totalCost();
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode plain = objectMapper.readTree(sent.get(0));
+        assertEquals(expectedCost, plain.get("total_cost").asLong());
+        assertEquals("s3://networks/city/a.txt", plain.get("s3_file_path").asText());
+        JsonNode gzip = objectMapper.readTree(sent.get(1));
+        assertEquals(expectedCost, gzip.get("total_cost").asLong());
+        assertEquals("s3://networks/city/a.txt.gz", gzip.get("s3_file_path").asText());
+    }
+
+    /**
+     * Test that a message the sink rejects fails its record, and that the handler reports the count.
+     */
+    @Test
+    public void testSinkFailure(@TempDir Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve(BUCKET));
+        Files.writeString(tempDir.resolve(BUCKET).resolve("a.txt"), "2\n1 2 5\n2 3 4\n");
+        Files.writeString(tempDir.resolve(BUCKET).resolve("b.txt"), "1\n7 8 1\n");
+        S3EventHandler handler = new S3EventHandler(new FileObjectSource(tempDir),
+                messages -> Map.of(1, "Throttled"), BUCKET);
+
+        String[] failures = handler.processRecords(List.of(record(BUCKET, "a.txt"), record(BUCKET, "b.txt")), new TestContext());
+        assertNull(failures[0]);
+        assertEquals("Error sending message to SQS", failures[1]);
+
+        S3EventNotification event = new S3EventNotification(List.of(record(BUCKET, "a.txt"), record(BUCKET, "b.txt")));
+        assertEquals("Processing complete. Failed records: 1 of 2.", handler.handleRequest(event, new TestContext()));
+    }
+
+    /**
+     * Test that a re-upload of identical content is answered from the result cache when delta updates are disabled.
+     */
+    @Test
+    public void testResultCacheHit(@TempDir Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve(BUCKET));
+        Files.writeString(tempDir.resolve(BUCKET).resolve("a.txt"), "3\n1 2 5\n2 3 4\n1 3 9\n");
+        Files.writeString(tempDir.resolve(BUCKET).resolve("b.txt"), "3\n1 2 5\n2 3 4\n1 3 9\n");
+        List<String> sent = new ArrayList<>();
+        ResultCache cache = new ResultCache(1_000, null);
+        S3EventHandler handler = new S3EventHandler(new FileObjectSource(tempDir), messages -> {
+            sent.addAll(messages);
+            return Map.of();
+        }, BUCKET, null, cache);
+
+        handler.processRecords(List.of(record(BUCKET, "a.txt", "\"e1\"")), new TestContext());
+        Files.delete(tempDir.resolve(BUCKET).resolve("b.txt")); // A hit must not read the file
+        String[] failures = handler.processRecords(List.of(record(BUCKET, "b.txt", "\"e1\"")), new TestContext());
+
+        assertArrayEquals(new String[]{null}, failures);
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, sent.size());
+        assertEquals(9, totalCost(sent.get(1)));
+        assertEquals("s3://networks/b.txt", new ObjectMapper().readTree(sent.get(1)).get("s3_file_path").asText());
+    }
+
+    /**
+     * Test that with delta updates enabled, an identical upload under a new key stores its own state instead of
+     * reusing a cached result, so a delta for it applies, and that re-uploading a network resets its state.
+     */
+    @Test
+    public void testDeltaAfterIdenticalUpload(@TempDir Path tempDir) throws IOException {
+        Path bucket = Files.createDirectories(tempDir.resolve(BUCKET));
+        Files.writeString(bucket.resolve("a.txt"), "3\n1 2 5\n2 3 4\n1 3 9\n");
+        Files.writeString(bucket.resolve("b.txt"), "3\n1 2 5\n2 3 4\n1 3 9\n");
+        Files.writeString(bucket.resolve("b.txt.delta"), "add 1 3 1\n");
+        BlobStore stateStore = new FileBlobStore(tempDir.resolve("state"));
+        ResultCache cache = new ResultCache(1_000, null);
+        List<String> sent = new ArrayList<>();
+        S3EventHandler handler = new S3EventHandler(new FileObjectSource(tempDir), messages -> {
+            sent.addAll(messages);
+            return Map.of();
+        }, BUCKET, stateStore, cache);
+
+        handler.processRecords(List.of(record(BUCKET, "a.txt", "\"e1\"")), new TestContext());
+        handler.processRecords(List.of(record(BUCKET, "b.txt", "\"e1\"")), new TestContext());
+        assertEquals(0, cache.hitCount(), "The cache should be bypassed while deltas are enabled");
+        assertNotNull(DynamicMst.load(stateStore, BUCKET + "/b.txt"), "The identical upload should store its own state");
+
+        String[] failures = handler.processRecords(List.of(record(BUCKET, "b.txt.delta")), new TestContext());
+        assertArrayEquals(new String[]{null}, failures);
+        assertEquals(5, totalCost(sent.get(2)), "The delta should update the MST of b.txt");
+        assertEquals(9, DynamicMst.load(stateStore, BUCKET + "/a.txt").treeCost(), "The state of a.txt should be unchanged");
+
+        handler.processRecords(List.of(record(BUCKET, "b.txt", "\"e1\"")), new TestContext());
+        assertEquals(9, totalCost(sent.get(3)));
+        assertEquals(9, DynamicMst.load(stateStore, BUCKET + "/b.txt").treeCost(), "A re-upload should replace the updated state");
+    }
+
+    /**
+     * Test that a delta whose result could not be sent is not applied a second time when it is retried, and that the
+     * retry delivers the MST.
+     */
+    @Test
+    public void testRetriedDeltaIsNotReapplied(@TempDir Path tempDir) throws IOException {
+        Path bucket = Files.createDirectories(tempDir.resolve(BUCKET));
+        Files.writeString(bucket.resolve("net.txt"), "3\n1 2 5\n2 3 4\n1 3 9\n");
+        Files.writeString(bucket.resolve("net.txt.delta.1"), "remove 1 2\nadd 1 3 1\n");
+        BlobStore stateStore = new FileBlobStore(tempDir.resolve("state"));
+        List<String> sent = new ArrayList<>();
+        boolean[] sqsDown = {false};
+        S3EventHandler handler = new S3EventHandler(new FileObjectSource(tempDir), messages -> {
+            if (sqsDown[0]) {
+                return Map.of(0, "Read timed out");
+            }
+            sent.addAll(messages);
+            return Map.of();
+        }, BUCKET, stateStore, new ResultCache(1_000, null));
+        handler.processRecords(List.of(record(BUCKET, "net.txt", "\"n1\"")), new TestContext());
+
+        sqsDown[0] = true;
+        String[] failures = handler.processRecords(List.of(record(BUCKET, "net.txt.delta.1", "\"d1\"")), new TestContext());
+        assertArrayEquals(new String[]{"Error sending message to SQS"}, failures);
+        assertEquals(5, DynamicMst.load(stateStore, BUCKET + "/net.txt").treeCost(), "The state is stored before the send");
+
+        sqsDown[0] = false;
+        failures = handler.processRecords(List.of(record(BUCKET, "net.txt.delta.1", "\"d1\"")), new TestContext());
+        assertArrayEquals(new String[]{null}, failures, "The retry should not fail on the link the delta already removed");
+        assertEquals(5, totalCost(sent.get(1)));
+        assertEquals(5, DynamicMst.load(stateStore, BUCKET + "/net.txt").treeCost());
+
+        Files.writeString(bucket.resolve("net.txt.delta.1"), "cost 1 3 7\n"); // New content under the same key is a new delta
+        failures = handler.processRecords(List.of(record(BUCKET, "net.txt.delta.1", "\"d2\"")), new TestContext());
+        assertArrayEquals(new String[]{null}, failures);
+        assertEquals(11, totalCost(sent.get(2)));
+    }
+
+    /**
+     * Test that files of unknown size, which may need the whole in-memory budget, are processed one at a time.
+     */
+    @Test
+    public void testLargeRecordsRunAlone(@TempDir Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve(BUCKET));
+        List<S3EventNotification.S3EventNotificationRecord> records = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Files.writeString(tempDir.resolve(BUCKET).resolve(i + ".txt"), "2\n1 2 5\n2 3 " + i + "\n");
+            records.add(new S3EventNotification.S3EventNotificationRecord("eu-north-1", "ObjectCreated:Put", "aws:s3", null,
+                    "2.1", null, null, new S3EventNotification.S3Entity("uploads",
+                    new S3EventNotification.S3BucketEntity(BUCKET, null, null),
+                    new S3EventNotification.S3ObjectEntity(i + ".txt", (Long) null, null, null, null), "1.0"), null));
+        }
+        FileObjectSource files = new FileObjectSource(tempDir);
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger mostOpen = new AtomicInteger();
+        ObjectSource source = new ObjectSource() {
+            @Override
+            public Content open(String bucket, String key) throws IOException {
+                mostOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                Content content = files.open(bucket, key);
+                return new Content(new FilterInputStream(content.stream()) {
+                    @Override
+                    public void close() throws IOException {
+                        open.decrementAndGet();
+                        super.close();
+                    }
+                }, content.length());
+            }
+
+            @Override
+            public ParallelRangeParser.RangeReader ranges(String bucket, String key, String eTag) {
+                return files.ranges(bucket, key, eTag);
+            }
+        };
+        List<String> sent = new ArrayList<>();
+        S3EventHandler handler = new S3EventHandler(source, messages -> {
+            sent.addAll(messages);
+            return Map.of();
+        }, BUCKET);
+
+        String[] failures = handler.processRecords(records, new TestContext());
+        assertArrayEquals(new String[6], failures);
+        assertEquals(6, sent.size());
+        assertEquals(1, mostOpen.get(), "Files of unknown size should not be processed concurrently");
+    }
 
-}
\ No newline at end of file
+    /**
+     * Test that a key cannot reach outside the directory of its bucket.
+     */
+    @Test
+    public void testFileObjectSourceStaysInBucket(@TempDir Path tempDir) {
+        FileObjectSource source = new FileObjectSource(tempDir.resolve("root"));
+        assertThrows(IllegalArgumentException.class, () -> source.open(BUCKET, "../../secret.txt"));
+        assertThrows(IllegalArgumentException.class, () -> source.open("..", "secret.txt"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.manilvit;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SqsBatchSender}.
+ */
+public class SqsBatchSenderTest {
+
+    /**
+     * Records the batches it receives and fails the messages whose body starts with "fail", and the whole call if a body
+     * starts with "timeout".
+     */
+    private static class RecordingSqsClient implements SqsClient {
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public SendMessageBatchResponse sendMessageBatch(SendMessageBatchRequest request) {
+            List<String> bodies = new ArrayList<>();
+            List<BatchResultErrorEntry> failed = new ArrayList<>();
+            for (SendMessageBatchRequestEntry entry : request.entries()) {
+                bodies.add(entry.messageBody());
+                if (entry.messageBody().startsWith("fail")) {
+                    failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("InternalError").message("boom").build());
+                }
+            }
+            batches.add(bodies);
+            if (bodies.stream().anyMatch(body -> body.startsWith("timeout"))) {
+                throw SdkClientException.create("Unable to execute HTTP request: Read timed out");
+            }
+            if (bodies.stream().anyMatch(body -> body.length() > SqsBatchSender.MAX_BATCH_BYTES)) {
+                throw SqsException.builder().message("Batch request too long").build();
+            }
+            return SendMessageBatchResponse.builder().failed(failed).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "sqs";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Test that messages are grouped into batches of at most 10 entries.
+     */
+    @Test
+    public void testBatchesOfTen() {
+        RecordingSqsClient client = new RecordingSqsClient();
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            messages.add("message " + i);
+        }
+
+        Map<Integer, String> failures = new SqsBatchSender(client, "queue").send(messages);
+
+        assertTrue(failures.isEmpty());
+        assertEquals(3, client.batches.size());
+        assertEquals(10, client.batches.get(0).size());
+        assertEquals(3, client.batches.get(2).size());
+        assertEquals("message 22", client.batches.get(2).get(2));
+    }
+
+    /**
+     * Test that batches stay below the size limit and that failures are reported for the affected messages only.
+     */
+    @Test
+    public void testSizeLimitAndFailures() {
+        RecordingSqsClient client = new RecordingSqsClient();
+        String large = "x".repeat(SqsBatchSender.MAX_BATCH_BYTES / 2);
+        String tooLarge = "y".repeat(SqsBatchSender.MAX_BATCH_BYTES + 1);
+        List<String> messages = List.of(large, large, "fail", tooLarge, "ok");
+
+        Map<Integer, String> failures = new SqsBatchSender(client, "queue").send(messages);
+
+        assertEquals(List.of(2, 1, 1, 1), client.batches.stream().map(List::size).toList(),
+                "Two half-limit messages fill one batch and an oversized message is sent alone");
+        assertEquals(Map.of(2, "InternalError: boom", 3, "Batch request too long"), failures);
+    }
+
+    /**
+     * Test that a client-side error, such as a timeout, fails only the messages of its batch and later batches are sent.
+     */
+    @Test
+    public void testClientErrorFailsOnlyItsBatch() {
+        RecordingSqsClient client = new RecordingSqsClient();
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            messages.add(i == 12 ? "timeout" : "message " + i);
+        }
+
+        Map<Integer, String> failures = new SqsBatchSender(client, "queue").send(messages);
+
+        assertEquals(3, client.batches.size(), "The batch after the failed one should still be sent");
+        assertEquals(10, failures.size());
+        for (int i = 10; i < 20; i++) {
+            assertEquals("Unable to execute HTTP request: Read timed out", failures.get(i));
+        }
+    }
+}
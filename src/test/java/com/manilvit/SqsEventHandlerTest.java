@@ -0,0 +1,74 @@
+package com.manilvit;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SqsEventHandler}.
+ */
+public class SqsEventHandlerTest {
+
+    // The body S3 puts in the queue for an upload, as documented for S3 event notifications
+    private static final String UPLOAD_BODY = """
+            {"Records":[{"eventVersion":"2.1","eventSource":"aws:s3","awsRegion":"eu-north-1",
+            "eventTime":"2024-05-01T12:00:00.000Z","eventName":"ObjectCreated:Put",
+            "userIdentity":{"principalId":"AWS:EXAMPLE"},"requestParameters":{"sourceIPAddress":"203.0.113.1"},
+            "responseElements":{"x-amz-request-id":"C3D13FE58DE4C810","x-amz-id-2":"FMyUVURIY8/IgAtTv8xRjskZQpcIZ9KG4V5Wp6S7S/JRWeUWerMUE5JgHvANOjpD"},
+            "s3":{"s3SchemaVersion":"1.0","configurationId":"uploads",
+            "bucket":{"name":"network-optimization-bucket","ownerIdentity":{"principalId":"EXAMPLE"},"arn":"arn:aws:s3:::network-optimization-bucket"},
+            "object":{"key":"networks/city-1.txt","size":1024,"eTag":"d41d8cd98f00b204e9800998ecf8427e","sequencer":"0055AED6DCD90281E5"}}}]}
+            """;
+
+    private static final String TEST_EVENT_BODY = """
+            {"Service":"Amazon S3","Event":"s3:TestEvent","Time":"2024-05-01T12:00:00.000Z",
+            "Bucket":"network-optimization-bucket","RequestId":"5582815E1AEA5ADF","HostId":"8cLeGAmw098X5cv4Zkwcmo8vvZa3eH3eKxsPzbB9wrR+YstdA6Knx4Ip8EXAMPLE"}
+            """;
+
+    /**
+     * Test that an S3 event notification is read from a message body, and that the test event has no records.
+     */
+    @Test
+    public void testParseNotification() {
+        List<S3EventNotification.S3EventNotificationRecord> records = SqsEventHandler.parseNotification(UPLOAD_BODY);
+        assertEquals(1, records.size());
+        S3EventNotification.S3Entity s3 = records.get(0).getS3();
+        assertEquals("network-optimization-bucket", s3.getBucket().getName());
+        assertEquals("networks/city-1.txt", s3.getObject().getKey());
+        assertEquals(1024L, s3.getObject().getSizeAsLong());
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e", s3.getObject().geteTag());
+
+        assertEquals(List.of(), SqsEventHandler.parseNotification(TEST_EVENT_BODY));
+        assertThrows(RuntimeException.class, () -> SqsEventHandler.parseNotification("{\"Message\":\"hello\"}"));
+        assertThrows(RuntimeException.class, () -> SqsEventHandler.parseNotification("not json"));
+    }
+
+    /**
+     * Test that only the messages that cannot be processed are reported for retry.
+     */
+    @Test
+    public void testBatchItemFailures() {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(List.of(message("test-event", TEST_EVENT_BODY), message("garbage", "not json"),
+                message("empty", "")));
+
+        SQSBatchResponse response = new SqsEventHandler().handleRequest(event, new TestContext());
+
+        List<String> retried = response.getBatchItemFailures().stream()
+                .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .toList();
+        assertEquals(List.of("garbage", "empty"), retried);
+    }
+
+    private static SQSEvent.SQSMessage message(String id, String body) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(id);
+        message.setBody(body);
+        return message;
+    }
+}
@@ -0,0 +1,44 @@
+package com.manilvit;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Lambda context for handler tests, which keeps the logged lines.
+ */
+final class TestContext implements Context {
+
+    final List<String> logs = new ArrayList<>();
+
+    private final LambdaLogger logger = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+            synchronized (logs) {
+                logs.add(message);
+            }
+        }
+
+        @Override
+        public void log(byte[] message) {
+            log(new String(message, StandardCharsets.UTF_8));
+        }
+    };
+
+    @Override public String getAwsRequestId() { return "request"; }
+    @Override public String getLogGroupName() { return "group"; }
+    @Override public String getLogStreamName() { return "stream"; }
+    @Override public String getFunctionName() { return "NetworkOptimizer"; }
+    @Override public String getFunctionVersion() { return "1"; }
+    @Override public String getInvokedFunctionArn() { return "arn"; }
+    @Override public CognitoIdentity getIdentity() { return null; }
+    @Override public ClientContext getClientContext() { return null; }
+    @Override public int getRemainingTimeInMillis() { return 30_000; }
+    @Override public int getMemoryLimitInMB() { return 512; }
+    @Override public LambdaLogger getLogger() { return logger; }
+}
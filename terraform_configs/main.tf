@@ -49,7 +49,7 @@ EOF
 ###############################
 resource "aws_iam_policy" "lambda_s3_policy" {
   name        = "${var.lambda_function_name}-s3-policy"
-  description = "IAM policy to allow Lambda to read from S3"
+  description = "IAM policy to allow Lambda to read from S3 and store MST state"
   policy = <<EOF
 {
   "Version": "2012-10-17",
@@ -57,12 +57,15 @@ resource "aws_iam_policy" "lambda_s3_policy" {
     {
       "Action": [
         "s3:GetObject",
+        "s3:PutObject",
         "s3:ListBucket"
       ],
       "Effect": "Allow",
       "Resource": [
         "arn:aws:s3:::${var.bucket_name}",
-        "arn:aws:s3:::${var.bucket_name}/*"
+        "arn:aws:s3:::${var.bucket_name}/*",
+        "${aws_s3_bucket.results_bucket.arn}",
+        "${aws_s3_bucket.results_bucket.arn}/*"
       ]
     }
   ]
@@ -112,11 +115,50 @@ resource "aws_iam_role_policy_attachment" "lambda_sqs_policy" {
   policy_arn = aws_iam_policy.lambda_sqs_send_message.arn
 }
 
+###############################
+# Create IAM Policy for Lambda to receive upload notifications from SQS (only when batching uploads)
+###############################
+resource "aws_iam_policy" "lambda_sqs_receive_uploads" {
+  count       = var.upload_queue_enabled ? 1 : 0
+  name        = "${var.lambda_function_name}-upload-queue-policy"
+  description = "IAM policy to allow Lambda to receive S3 notifications from the upload queue"
+  policy = <<EOF
+{
+  "Version": "2012-10-17",
+  "Statement": [
+    {
+      "Action": [
+        "sqs:ReceiveMessage",
+        "sqs:DeleteMessage",
+        "sqs:GetQueueAttributes"
+      ],
+      "Effect": "Allow",
+      "Resource": "${aws_sqs_queue.upload_queue[0].arn}"
+    }
+  ]
+}
+EOF
+
+  tags = var.tags
+}
+
+resource "aws_iam_role_policy_attachment" "lambda_upload_queue_policy" {
+  count      = var.upload_queue_enabled ? 1 : 0
+  role       = aws_iam_role.role_lambda_aws_cli.name
+  policy_arn = aws_iam_policy.lambda_sqs_receive_uploads[0].arn
+}
+
 ###############################
 # Define local variable for Lambda payload (JAR file)
 ###############################
 locals {
   lambda_payload_filename = "../target/NetworkOptimizer-1.0.jar"  # Specify the path to the JAR file
+
+  # Notifications that arrive through the upload queue are handled by the batch handler
+  lambda_handler = var.upload_queue_enabled ? "com.manilvit.SqsEventHandler" : var.lambda_handler
+
+  # Results too large for an SQS message go to their own bucket, whose objects do not notify the function
+  results_bucket_name = var.results_bucket_name != "" ? var.results_bucket_name : "${var.bucket_name}-results"
 }
 
 ###############################
@@ -126,16 +168,28 @@ resource "aws_lambda_function" "lambda_aws_cli" {
   filename         = local.lambda_payload_filename
   function_name    = var.lambda_function_name
   role             = aws_iam_role.role_lambda_aws_cli.arn
-  handler          = var.lambda_handler
+  handler          = local.lambda_handler
   runtime          = var.lambda_runtime
   memory_size      = var.lambda_memory
   timeout = var.lambda_timeout
 
+  # /tmp holds the sorted runs of files above EXTERNAL_MEMORY_THRESHOLD_BYTES, about 12 bytes per connection
+  ephemeral_storage {
+    size = var.lambda_ephemeral_storage
+  }
+
+  # SnapStart snapshots published versions after initialization, including the priming done in PipelinePrimer
+  publish = true
+  snap_start {
+    apply_on = "PublishedVersions"
+  }
+
   # Ensure consistent source code hash
   source_code_hash = filebase64sha256(local.lambda_payload_filename)
 
   environment {
-    variables = var.lambda_environment
+    # A RESULT_OFFLOAD_LOCATION in lambda_environment takes precedence over the results bucket
+    variables = merge({ RESULT_OFFLOAD_LOCATION = "s3://${local.results_bucket_name}/" }, var.lambda_environment)
   }
 
   depends_on = [
@@ -148,6 +202,15 @@ resource "aws_lambda_function" "lambda_aws_cli" {
   tags = var.tags
 }
 
+###############################
+# Alias for the Latest Published Version (SnapStart does not apply to $LATEST)
+###############################
+resource "aws_lambda_alias" "live" {
+  name             = "live"
+  function_name    = aws_lambda_function.lambda_aws_cli.function_name
+  function_version = aws_lambda_function.lambda_aws_cli.version
+}
+
 ###############################
 # Create CloudWatch Log Group for Lambda
 ###############################
@@ -166,28 +229,107 @@ resource "aws_s3_bucket" "upload_bucket" {
 }
 
 ###############################
-# Allow S3 to Invoke the Lambda Function
+# Create S3 Bucket for Results too Large for an SQS Message (no notifications, so results never trigger the function)
+###############################
+resource "aws_s3_bucket" "results_bucket" {
+  bucket = local.results_bucket_name
+  tags   = var.tags
+}
+
+###############################
+# Allow S3 to Invoke the Lambda Function (only when notifications go directly to Lambda)
 ###############################
 resource "aws_lambda_permission" "allow_bucket" {
+  count         = var.upload_queue_enabled ? 0 : 1
   statement_id  = "AllowExecutionFromS3Bucket"
   action        = "lambda:InvokeFunction"
   function_name = aws_lambda_function.lambda_aws_cli.function_name
+  qualifier     = aws_lambda_alias.live.name
   principal     = "s3.amazonaws.com"
   source_arn    = aws_s3_bucket.upload_bucket.arn
 }
 
 ###############################
-# Configure S3 Bucket Notification to Trigger Lambda on File Upload
+# Configure S3 Bucket Notification to Trigger Lambda on File Upload, directly or through the upload queue
 ###############################
 resource "aws_s3_bucket_notification" "bucket_notification" {
   bucket = aws_s3_bucket.upload_bucket.id
 
-  lambda_function {
-    events              = ["s3:ObjectCreated:*"]
-    lambda_function_arn = aws_lambda_function.lambda_aws_cli.arn
+  dynamic "lambda_function" {
+    for_each = var.upload_queue_enabled ? [] : [1]
+    content {
+      events              = ["s3:ObjectCreated:*"]
+      lambda_function_arn = aws_lambda_alias.live.arn
+    }
+  }
+
+  dynamic "queue" {
+    for_each = var.upload_queue_enabled ? [1] : []
+    content {
+      events    = ["s3:ObjectCreated:*"]
+      queue_arn = aws_sqs_queue.upload_queue[0].arn
+    }
   }
 
-  depends_on = [aws_lambda_permission.allow_bucket]
+  depends_on = [aws_lambda_permission.allow_bucket, aws_sqs_queue_policy.upload_queue]
+}
+
+###############################
+# Create the Upload Queue, which batches S3 notifications for the Lambda function
+###############################
+resource "aws_sqs_queue" "upload_dead_letter_queue" {
+  count                     = var.upload_queue_enabled ? 1 : 0
+  name                      = "${var.lambda_function_name}-uploads-dlq"
+  message_retention_seconds = 1209600
+
+  tags = var.tags
+}
+
+resource "aws_sqs_queue" "upload_queue" {
+  count = var.upload_queue_enabled ? 1 : 0
+  name  = "${var.lambda_function_name}-uploads"
+  # AWS recommends six times the function timeout, so a batch is not received again while it is still being processed
+  visibility_timeout_seconds = 6 * var.lambda_timeout
+
+  redrive_policy = jsonencode({
+    deadLetterTargetArn = aws_sqs_queue.upload_dead_letter_queue[0].arn
+    maxReceiveCount     = var.upload_max_receive_count
+  })
+
+  tags = var.tags
+}
+
+resource "aws_sqs_queue_policy" "upload_queue" {
+  count     = var.upload_queue_enabled ? 1 : 0
+  queue_url = aws_sqs_queue.upload_queue[0].id
+  policy = <<EOF
+{
+  "Version": "2012-10-17",
+  "Statement": [
+    {
+      "Action": "sqs:SendMessage",
+      "Effect": "Allow",
+      "Principal": { "Service": "s3.amazonaws.com" },
+      "Resource": "${aws_sqs_queue.upload_queue[0].arn}",
+      "Condition": { "ArnEquals": { "aws:SourceArn": "${aws_s3_bucket.upload_bucket.arn}" } }
+    }
+  ]
+}
+EOF
+}
+
+###############################
+# Deliver the Upload Queue to Lambda in Batches, retrying only the failed messages
+###############################
+resource "aws_lambda_event_source_mapping" "upload_queue" {
+  count                              = var.upload_queue_enabled ? 1 : 0
+  event_source_arn                   = aws_sqs_queue.upload_queue[0].arn
+  function_name                      = aws_lambda_alias.live.arn
+  batch_size                         = var.upload_batch_size
+  maximum_batching_window_in_seconds = var.upload_batching_window_seconds
+  function_response_types            = ["ReportBatchItemFailures"]
+
+  depends_on = [aws_iam_role_policy_attachment.lambda_upload_queue_policy]
 }
 
 ###############################
@@ -13,6 +13,12 @@ variable "lambda_memory" {
   type        = number
 }
 
+variable "lambda_ephemeral_storage" {
+  description = "Lambda /tmp size in MB (512 to 10240)"
+  type        = number
+  default     = 512
+}
+
 variable "lambda_runtime" {
   description = "Lambda runtime"
   type        = string
@@ -52,3 +58,33 @@ variable "bucket_name" {
   description = "S3 bucket name for testing"
   type        = string
 }
+
+variable "results_bucket_name" {
+  description = "S3 bucket for MST results too large for an SQS message; defaults to \"<bucket_name>-results\""
+  type        = string
+  default     = ""
+}
+
+variable "upload_queue_enabled" {
+  description = "Deliver S3 upload notifications through an SQS queue in batches (SqsEventHandler) instead of invoking Lambda per upload"
+  type        = bool
+  default     = false
+}
+
+variable "upload_batch_size" {
+  description = "Most upload notifications per invocation when upload_queue_enabled (1 to 10000; above 10 needs a batching window)"
+  type        = number
+  default     = 10
+}
+
+variable "upload_batching_window_seconds" {
+  description = "Longest time to gather upload notifications into a batch when upload_queue_enabled (0 to 300)"
+  type        = number
+  default     = 0
+}
+
+variable "upload_max_receive_count" {
+  description = "Attempts per upload notification before it moves to the dead-letter queue"
+  type        = number
+  default     = 3
+}